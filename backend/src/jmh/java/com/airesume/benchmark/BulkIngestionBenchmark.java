@@ -0,0 +1,123 @@
+package com.airesume.benchmark;
+
+import com.airesume.entity.Resume;
+import com.airesume.entity.ResumeSection;
+import com.airesume.entity.User;
+import com.airesume.repository.ResumeBatchWriter;
+import com.airesume.repository.ResumeRepository;
+import com.airesume.service.BulkIngestionReport;
+import com.airesume.service.BulkResumeIngestionService;
+import com.airesume.service.PdfParseExecutor;
+import com.airesume.service.PdfParserService;
+import com.airesume.service.ResumeSegmenter;
+import com.airesume.service.ResumeTextCompactor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Bulk ingestion throughput in resumes per second by parse pool size, for a
+ * ZIP of distinct two-page resumes. Database writes are stubbed out, so this
+ * measures streaming, hashing, parsing, compaction and segmentation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkIngestionBenchmark {
+
+    private static final int RESUMES = 32;
+
+    @Param({ "1", "2", "4" })
+    public int poolSize;
+
+    private byte[] archive;
+    private PdfParserService parser;
+    private PdfParseExecutor parseExecutor;
+    private BulkResumeIngestionService service;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Path pdf = Files.createTempFile("bench-", ".pdf");
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (int i = 0; i < RESUMES; i++) {
+                PdfExtractionBenchmark.writePdf(pdf, 2, i);
+                zip.putNextEntry(new ZipEntry("resume-" + i + ".pdf"));
+                zip.write(Files.readAllBytes(pdf));
+                zip.closeEntry();
+            }
+        } finally {
+            Files.deleteIfExists(pdf);
+        }
+        archive = out.toByteArray();
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        parser = new PdfParserService();
+        parseExecutor = new PdfParseExecutor(parser, meterRegistry, poolSize, RESUMES, 60000);
+        service = new BulkResumeIngestionService(parser, parseExecutor,
+                new ResumeTextCompactor(meterRegistry, new ResumeSegmenter(), 0), new ResumeSegmenter(),
+                Mockito.mock(ResumeRepository.class), new StubBatchWriter(),
+                new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), meterRegistry, RESUMES,
+                10 * 1024 * 1024, 0, 50);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        parseExecutor.shutdown();
+        parser.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RESUMES)
+    public BulkIngestionReport ingestZip() throws IOException {
+        return service.ingestZip(new ByteArrayInputStream(archive), new User());
+    }
+
+    private static final class StubBatchWriter extends ResumeBatchWriter {
+
+        private final AtomicLong ids = new AtomicLong();
+
+        StubBatchWriter() {
+            super(new JdbcTemplate());
+        }
+
+        @Override
+        public void insertResumes(List<Resume> resumes) {
+            resumes.forEach(resume -> resume.setId(ids.incrementAndGet()));
+        }
+
+        @Override
+        public void insertSections(List<ResumeSection> sections) {
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.airesume.benchmark;
+
+import com.airesume.entity.AnalysisResult;
+import com.airesume.service.LocalAtsScoringEngine;
+import com.airesume.service.ResumeSegmenter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-resume cost of the local ATS scoring engine (the free-tier alternative
+ * to a multi-second Gemini call).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocalAtsScoringBenchmark {
+
+    private LocalAtsScoringEngine engine;
+
+    @Setup
+    public void setUp() {
+        engine = new LocalAtsScoringEngine(new ResumeSegmenter());
+    }
+
+    @Benchmark
+    public AnalysisResult scoreWithJobDescription() {
+        return engine.score(SampleResumes.RESUME, SampleResumes.JOB_DESCRIPTION);
+    }
+
+    @Benchmark
+    public AnalysisResult scoreWithoutJobDescription() {
+        return engine.score(SampleResumes.RESUME, "");
+    }
+}
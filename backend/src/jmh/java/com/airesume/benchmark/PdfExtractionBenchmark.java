@@ -0,0 +1,100 @@
+package com.airesume.benchmark;
+
+import com.airesume.service.PdfParserService;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serial vs parallel page-range text extraction by page count. Each page
+ * holds a dense block of resume-like text.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PdfExtractionBenchmark {
+
+    @Param({ "2", "8", "32", "128" })
+    public int pages;
+
+    @Param({ "serial", "parallel" })
+    public String mode;
+
+    private Path pdf;
+    private PdfParserService parser;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        pdf = Files.createTempFile("bench-", ".pdf");
+        writePdf(pdf, pages);
+        // parallel-min-pages 0 disables the parallel path
+        parser = new PdfParserService(4 * 1024 * 1024, "", false, "parallel".equals(mode) ? 1 : 0, 0, 4,
+                0, 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        parser.shutdown();
+        Files.deleteIfExists(pdf);
+    }
+
+    @Benchmark
+    public List<String> extractPages() throws IOException {
+        return parser.extractPages(pdf);
+    }
+
+    static void writePdf(Path target, int pageCount) throws IOException {
+        writePdf(target, pageCount, 0);
+    }
+
+    /**
+     * Writes a PDF whose pages cycle through the sample resume's lines, starting
+     * at {@code firstLine}, so different offsets give different documents.
+     */
+    static void writePdf(Path target, int pageCount, int firstLine) throws IOException {
+        String[] lines = SampleResumes.RESUME.split("\n");
+        try (PDDocument document = new PDDocument()) {
+            PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+            for (int p = 0; p < pageCount; p++) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(font, 9);
+                    content.setLeading(11);
+                    content.newLineAtOffset(40, 750);
+                    for (int i = 0; i < 60; i++) {
+                        content.showText(lines[(firstLine + p + i) % lines.length].replace('•', '-'));
+                        content.newLine();
+                    }
+                    content.endText();
+                }
+            }
+            document.save(target.toFile());
+        }
+    }
+}
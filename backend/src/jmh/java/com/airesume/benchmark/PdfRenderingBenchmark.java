@@ -0,0 +1,66 @@
+package com.airesume.benchmark;
+
+import com.airesume.service.NativePdfRenderer;
+import com.airesume.service.PdfGeneratorService;
+import com.airesume.util.XmlUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Export cost per template for the sample resume: Thymeleaf rendering plus
+ * Flying Saucer layout and PDF output ("html"), or the PDFBox layout of
+ * {@link NativePdfRenderer} ("native").
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PdfRenderingBenchmark {
+
+    @Param({ "resume-template", "resume-template-modern", "resume-template-executive" })
+    public String template;
+
+    @Param({ "html", "native" })
+    public String engine;
+
+    private PdfGeneratorService generator;
+    private Context context;
+
+    @Setup
+    public void setUp() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+        generator = new PdfGeneratorService(templateEngine, new NativePdfRenderer(""), "", 0,
+                engine.equals("native") ? template : "");
+
+        context = new Context();
+        context.setVariable("resumeName", "Alex_Morgan");
+        context.setVariable("extractedText", XmlUtils.escapeXml(SampleResumes.RESUME));
+        context.setVariable("fontFamily", "Helvetica");
+        context.setVariable("isPro", true);
+    }
+
+    @Benchmark
+    public byte[] generatePdfFromHtml() throws Exception {
+        return generator.generatePdfFromHtml(template, context);
+    }
+}
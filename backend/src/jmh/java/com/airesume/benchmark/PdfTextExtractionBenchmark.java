@@ -0,0 +1,67 @@
+package com.airesume.benchmark;
+
+import com.airesume.service.PdfParserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The upload path's {@code extractTextFromPdf}, spooling included, for small
+ * (1 page), medium (4 pages) and large (32 pages) resumes with the default
+ * parser settings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PdfTextExtractionBenchmark {
+
+    private static final Map<String, Integer> PAGES = Map.of("small", 1, "medium", 4, "large", 32);
+
+    @Param({ "small", "medium", "large" })
+    public String size;
+
+    private MockMultipartFile upload;
+    private PdfParserService parser;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Path pdf = Files.createTempFile("bench-", ".pdf");
+        try {
+            PdfExtractionBenchmark.writePdf(pdf, PAGES.get(size));
+            upload = new MockMultipartFile("file", "resume.pdf", "application/pdf", Files.readAllBytes(pdf));
+        } finally {
+            Files.deleteIfExists(pdf);
+        }
+        parser = new PdfParserService();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        parser.shutdown();
+    }
+
+    @Benchmark
+    public String extractTextFromPdf() throws IOException {
+        return parser.extractTextFromPdf(upload);
+    }
+}
@@ -0,0 +1,63 @@
+package com.airesume.benchmark;
+
+import com.airesume.security.JwtService;
+import com.airesume.util.XmlUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Work done on every authenticated or template request: JWT parsing and
+ * validation (the auth filter's path) and XML-escaping resume text.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestOverheadBenchmark {
+
+    private static final String EMAIL = "alex.morgan@example.com";
+
+    private JwtService jwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", "benchmark-secret-benchmark-secret-benchmark-secret");
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 3_600_000L);
+        token = jwtService.generateToken(EMAIL);
+    }
+
+    @Benchmark
+    public String jwtGenerateToken() {
+        return jwtService.generateToken(EMAIL);
+    }
+
+    @Benchmark
+    public String jwtExtractUsername() {
+        return jwtService.extractUsername(token);
+    }
+
+    @Benchmark
+    public boolean jwtIsTokenValid() {
+        return jwtService.isTokenValid(token, EMAIL);
+    }
+
+    @Benchmark
+    public String escapeXml() {
+        return XmlUtils.escapeXml(SampleResumes.RESUME);
+    }
+}
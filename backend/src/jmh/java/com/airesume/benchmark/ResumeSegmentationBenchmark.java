@@ -0,0 +1,62 @@
+package com.airesume.benchmark;
+
+import com.airesume.entity.ResumeSection;
+import com.airesume.service.PdfParserService;
+import com.airesume.service.ResumeSegmenter;
+import com.airesume.service.ResumeTextCompactor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Segmentation cost on text extracted from generated resume PDFs, i.e. what
+ * the upload path pays on top of parsing and compaction.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResumeSegmentationBenchmark {
+
+    @Param({ "1", "2", "4" })
+    public int pages;
+
+    private final ResumeSegmenter segmenter = new ResumeSegmenter();
+    private String text;
+
+    @Setup
+    public void setUp() throws IOException {
+        Path pdf = Files.createTempFile("bench-", ".pdf");
+        PdfParserService parser = new PdfParserService();
+        try {
+            PdfExtractionBenchmark.writePdf(pdf, pages);
+            text = new ResumeTextCompactor(new SimpleMeterRegistry(), new ResumeSegmenter(), 0)
+                    .compactPages(parser.extractPages(pdf)).text();
+        } finally {
+            parser.shutdown();
+            Files.deleteIfExists(pdf);
+        }
+    }
+
+    @Benchmark
+    public List<ResumeSection> segment() {
+        return segmenter.segment(text);
+    }
+}
@@ -0,0 +1,70 @@
+package com.airesume.benchmark;
+
+/**
+ * Realistically sized inputs (a two-page resume, a typical job posting) shared
+ * by the benchmarks.
+ */
+public final class SampleResumes {
+
+    public static final String RESUME = """
+            Alex Morgan
+            Senior Software Engineer | alex.morgan@example.com | +1 415 555 0100 | github.com/amorgan
+
+            PROFESSIONAL SUMMARY
+            Backend engineer with 8 years of experience building high-throughput payment and analytics
+            platforms in Java and Kotlin. Comfortable owning services end to end, from design reviews to
+            on-call, and mentoring engineers through large migrations.
+
+            EXPERIENCE
+            Staff Software Engineer, Northwind Payments, 2020 - Present
+            • Led the migration of the settlement ledger from a monolith to 14 Spring Boot microservices,
+              cutting p99 latency from 900 ms to 180 ms
+            • Designed an idempotent event pipeline on Kafka processing 40M events per day with zero data loss
+            • Reduced AWS spend by $420k per year by right-sizing EC2 fleets and moving batch jobs to Lambda
+            • Built CI/CD pipelines with GitHub Actions and Terraform, taking deploys from weekly to 30 per day
+            • Mentored 6 engineers, 3 of whom were promoted within 18 months
+            • Helped the data team with ad-hoc SQL queries for quarterly reporting
+            • Responsible for on-call rotation and incident postmortems across the payments domain
+
+            Software Engineer, Contoso Analytics, 2016 - 2020
+            • Developed a multi-tenant reporting API in Java 11 and PostgreSQL serving 1,200 enterprise customers
+            • Introduced contract tests with JUnit and Mockito, raising coverage from 35% to 82%
+            • Optimized slow dashboards by adding Redis caching, improving load time by 65%
+            • Worked on the React front end for the self-serve onboarding flow
+            • Containerized legacy services with Docker and deployed them to Kubernetes with Helm charts
+            • Participated in Agile ceremonies and sprint planning with product and design
+
+            Junior Developer, Fabrikam Labs, 2014 - 2016
+            • Maintained internal tools written in Python and Django used by 200 staff
+            • Automated nightly ETL jobs with Airflow, saving analysts 10 hours per week
+            • Wrote technical documentation and onboarding guides for new hires
+
+            PROJECTS
+            Open-source rate limiter: token-bucket library for Spring applications with 1.5k GitHub stars.
+            Personal finance tracker: Next.js and GraphQL app with 3,000 monthly active users.
+
+            EDUCATION
+            B.Sc. Computer Science, University of Washington, 2014
+
+            SKILLS
+            Java, Kotlin, Spring Boot, Hibernate, Kafka, PostgreSQL, Redis, MongoDB, AWS, Docker, Kubernetes,
+            Terraform, GitHub Actions, React, TypeScript, GraphQL, Python, Airflow, Grafana, Prometheus, Scrum
+
+            CERTIFICATIONS
+            AWS Certified Solutions Architect - Associate
+            """;
+
+    public static final String JOB_DESCRIPTION = """
+            We are hiring a Senior Backend Engineer to scale our core platform. You will design and build
+            distributed systems in Java or Go, own services running on Kubernetes in Google Cloud, and partner
+            with product managers on the roadmap.
+
+            Requirements: 6+ years with Java and Spring Boot; strong SQL and PostgreSQL skills; experience with
+            Kafka or another message broker; CI/CD, Docker and Terraform; observability with Prometheus and
+            Grafana; excellent communication and mentoring. Nice to have: gRPC, Elasticsearch, Snowflake,
+            machine learning platforms and experience in Agile teams.
+            """;
+
+    private SampleResumes() {
+    }
+}
@@ -0,0 +1,71 @@
+package com.airesume.service;
+
+import com.airesume.benchmark.SampleResumes;
+import com.airesume.repository.AnalysisCacheEntryRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.client.RestClient;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prompt construction for each Gemini call, including prompt-time compaction
+ * and section selection. Lives in the service package because the builders
+ * are package-private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PromptBuildingBenchmark {
+
+    private AiAnalysisService service;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper mapper = new ObjectMapper();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AnalysisCache analysisCache = new AnalysisCache(Mockito.mock(AnalysisCacheEntryRepository.class), mapper,
+                meterRegistry, 100, 1);
+        service = new AiAnalysisService(RestClient.builder(), "", 1000, 1000, 1000, mapper, analysisCache,
+                new InFlightRequestCoalescer(meterRegistry, 1000), new GeminiBulkhead(meterRegistry, 1, 1, 1, 1000),
+                new ResumeTextCompactor(meterRegistry, new ResumeSegmenter(), 0),
+                new LocalAtsScoringEngine(new ResumeSegmenter()), "gemini",
+                new GeminiCircuitBreaker(meterRegistry, 5, 1000),
+                new GeminiHedger(meterRegistry, false, 0, 250, 3000, 4),
+                new ResumeSegmenter());
+    }
+
+    @Benchmark
+    public String analysisPrompt() {
+        return service.buildPrompt(SampleResumes.RESUME, SampleResumes.JOB_DESCRIPTION);
+    }
+
+    @Benchmark
+    public String fullReportPrompt() {
+        return service.buildFullReportPrompt(SampleResumes.RESUME, SampleResumes.JOB_DESCRIPTION);
+    }
+
+    @Benchmark
+    public String coverLetterPrompt() {
+        return service.buildCoverLetterPrompt(SampleResumes.RESUME, SampleResumes.JOB_DESCRIPTION);
+    }
+
+    @Benchmark
+    public String interviewQuestionsPrompt() {
+        return service.buildInterviewQuestionsPrompt(SampleResumes.RESUME, SampleResumes.JOB_DESCRIPTION);
+    }
+}
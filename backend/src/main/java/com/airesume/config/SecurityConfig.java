@@ -3,6 +3,7 @@ package com.airesume.config;
 import com.airesume.security.HttpCookieOAuth2AuthorizationRequestRepository;
 import com.airesume.security.JwtAuthenticationFilter;
 import com.airesume.security.OAuth2LoginSuccessHandler;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -46,10 +47,16 @@ public class SecurityConfig {
                                                                 new org.springframework.security.web.util.matcher.AntPathRequestMatcher(
                                                                                 "/api/**")))
                                 .authorizeHttpRequests(auth -> auth
+                                                // Async dispatches (SSE streams) were already authorized on the
+                                                // original request
+                                                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                                                 // Allow public access to error and static files
                                                 .requestMatchers("/error", "/favicon.ico", "/images/**", "/static/**",
                                                                 "/assets/**")
                                                 .permitAll()
+                                                // Liveness/readiness probes for the orchestrator
+                                                .requestMatchers("/actuator/health", "/actuator/health/**")
+                                                .permitAll()
                                                 // All /api/resume endpoints are currently open, allowing users to build
                                                 // a
                                                 // resume without logging in as requested originally.
@@ -106,7 +113,9 @@ public class SecurityConfig {
                                 "http://localhost:5174",
                                 frontendUrl));
                 configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
-                configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type"));
+                configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "If-None-Match"));
+                // Lets the frontend read the PDF export's ETag and send it back for a 304
+                configuration.setExposedHeaders(Arrays.asList("ETag", "Content-Disposition"));
                 configuration.setAllowCredentials(true);
                 UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
                 source.registerCorsConfiguration("/**", configuration);
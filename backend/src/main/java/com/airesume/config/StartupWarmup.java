@@ -0,0 +1,119 @@
+package com.airesume.config;
+
+import com.airesume.security.JwtService;
+import com.airesume.service.PdfGeneratorService;
+import com.airesume.service.PdfParserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.context.Context;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pays the one-off costs of the first upload and export at startup instead
+ * of on a user's request: the PDFBox font cache, Flying Saucer font discovery,
+ * Thymeleaf template parsing and JWT key setup. Runs as an
+ * {@link ApplicationRunner}, and Spring Boot only reports the application
+ * ready once runners have finished, so the readiness probe stays down until
+ * warm-up is complete. A failing step is logged and skipped; it never blocks
+ * startup.
+ */
+@Component
+public class StartupWarmup implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupWarmup.class);
+
+    private static final String SAMPLE_PDF = "warmup/sample-resume.pdf";
+    private static final String SAMPLE_TEXT = "Sample Resume\n\nExperience:\n- Software Engineer\n"
+            + "- Built scalable microservices\n\nEducation:\n- B.S. Computer Science";
+
+    private final PdfParserService pdfParserService;
+    private final PdfGeneratorService pdfGeneratorService;
+    private final JwtService jwtService;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+
+    public StartupWarmup(PdfParserService pdfParserService,
+            PdfGeneratorService pdfGeneratorService,
+            JwtService jwtService,
+            MeterRegistry meterRegistry,
+            @Value("${app.warmup.enabled:true}") boolean enabled) {
+        this.pdfParserService = pdfParserService;
+        this.pdfGeneratorService = pdfGeneratorService;
+        this.jwtService = jwtService;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        step("pdf-parse", this::parseSamplePdf);
+        step("pdf-render", this::renderTemplates);
+        step("jwt", this::signAndVerifyToken);
+        long elapsed = System.nanoTime() - start;
+        warmupTimer("total").record(elapsed, TimeUnit.NANOSECONDS);
+        logger.info("Startup warm-up finished in {} ms", TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    private void parseSamplePdf() throws Exception {
+        Path sample = Files.createTempFile("warmup-", ".pdf");
+        try (InputStream in = new ClassPathResource(SAMPLE_PDF).getInputStream()) {
+            Files.copy(in, sample, StandardCopyOption.REPLACE_EXISTING);
+            pdfParserService.extractPages(sample);
+        } finally {
+            Files.deleteIfExists(sample);
+        }
+    }
+
+    private void renderTemplates() throws Exception {
+        for (String template : PdfGeneratorService.TEMPLATE_FILES) {
+            Context context = new Context();
+            context.setVariable("resumeName", "Sample_Resume");
+            context.setVariable("extractedText", SAMPLE_TEXT);
+            context.setVariable("fontFamily", "Helvetica");
+            // Free-tier render, so the watermark markup is exercised too
+            context.setVariable("isPro", false);
+            pdfGeneratorService.generatePdfFromHtml(template, context);
+        }
+    }
+
+    private void signAndVerifyToken() {
+        String token = jwtService.generateToken("warmup@localhost");
+        jwtService.isTokenValid(token, "warmup@localhost");
+    }
+
+    private void step(String name, WarmupStep step) {
+        long start = System.nanoTime();
+        try {
+            step.run();
+        } catch (Exception e) {
+            logger.warn("Warm-up step {} failed: {}", name, e.getMessage());
+        } finally {
+            warmupTimer(name).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer warmupTimer(String step) {
+        return Timer.builder("app.warmup.duration").tag("step", step).register(meterRegistry);
+    }
+
+    @FunctionalInterface
+    private interface WarmupStep {
+        void run() throws Exception;
+    }
+}
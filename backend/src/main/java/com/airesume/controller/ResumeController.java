@@ -1,22 +1,47 @@
 package com.airesume.controller;
 
+import com.airesume.entity.AnalysisJob;
 import com.airesume.entity.AnalysisResult;
 import com.airesume.entity.Resume;
+import com.airesume.entity.ResumeSection;
 import com.airesume.entity.User;
 import com.airesume.repository.AnalysisResultRepository;
 import com.airesume.repository.ResumeRepository;
+import com.airesume.repository.ResumeSectionRepository;
 import com.airesume.repository.UserRepository;
 import com.airesume.service.AiAnalysisService;
+import com.airesume.service.AnalysisCache;
+import com.airesume.service.AnalysisJobService;
+import com.airesume.service.BulkIngestionReport;
+import com.airesume.service.BulkResumeIngestionService;
+import com.airesume.service.BulletEnhancementService;
+import com.airesume.service.FullReport;
+import com.airesume.service.FullReportService;
+import com.airesume.service.GenerationStreamService;
+import com.airesume.service.PdfParseExecutor;
 import com.airesume.service.PdfParserService;
+import com.airesume.service.PdfPrerenderService;
+import com.airesume.service.RenderExecutor;
+import com.airesume.service.RenderedPdfCache;
+import com.airesume.service.ResumeRenderPipeline;
+import com.airesume.service.ResumeSegmenter;
+import com.airesume.service.ResumeTextCompactor;
+import com.airesume.service.ServiceOverloadedException;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
-import org.thymeleaf.TemplateEngine;
-import org.thymeleaf.context.Context;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.List;
 import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,51 +53,192 @@ public class ResumeController {
 
     private static final Logger logger = LoggerFactory.getLogger(ResumeController.class);
 
+    private static final int FREE_SCAN_LIMIT = 2;
+    private static final int MAX_BATCH_BULLETS = 50;
+
     private final PdfParserService pdfParserService;
     private final AiAnalysisService aiAnalysisService;
     private final ResumeRepository resumeRepository;
     private final AnalysisResultRepository analysisResultRepository;
-    private final com.airesume.service.PdfGeneratorService pdfGeneratorService;
     private final UserRepository userRepository;
-    private final TemplateEngine templateEngine;
+    private final AnalysisJobService analysisJobService;
+    private final GenerationStreamService generationStreamService;
+    private final FullReportService fullReportService;
+    private final ResumeTextCompactor resumeTextCompactor;
+    private final BulletEnhancementService bulletEnhancementService;
+    private final PdfParseExecutor pdfParseExecutor;
+    private final ResumeSegmenter resumeSegmenter;
+    private final ResumeSectionRepository resumeSectionRepository;
+    private final BulkResumeIngestionService bulkResumeIngestionService;
+    private final RenderedPdfCache renderedPdfCache;
+    private final RenderExecutor renderExecutor;
+    private final PdfPrerenderService pdfPrerenderService;
+    private final ResumeRenderPipeline renderPipeline;
 
     public ResumeController(PdfParserService pdfParserService,
             AiAnalysisService aiAnalysisService,
             ResumeRepository resumeRepository,
             AnalysisResultRepository analysisResultRepository,
-            com.airesume.service.PdfGeneratorService pdfGeneratorService,
             UserRepository userRepository,
-            TemplateEngine templateEngine) {
+            AnalysisJobService analysisJobService,
+            GenerationStreamService generationStreamService,
+            FullReportService fullReportService,
+            ResumeTextCompactor resumeTextCompactor,
+            BulletEnhancementService bulletEnhancementService,
+            PdfParseExecutor pdfParseExecutor,
+            ResumeSegmenter resumeSegmenter,
+            ResumeSectionRepository resumeSectionRepository,
+            BulkResumeIngestionService bulkResumeIngestionService,
+            RenderedPdfCache renderedPdfCache,
+            RenderExecutor renderExecutor,
+            PdfPrerenderService pdfPrerenderService,
+            ResumeRenderPipeline renderPipeline) {
         this.pdfParserService = pdfParserService;
         this.aiAnalysisService = aiAnalysisService;
         this.resumeRepository = resumeRepository;
         this.analysisResultRepository = analysisResultRepository;
-        this.pdfGeneratorService = pdfGeneratorService;
         this.userRepository = userRepository;
-        this.templateEngine = templateEngine;
+        this.analysisJobService = analysisJobService;
+        this.generationStreamService = generationStreamService;
+        this.fullReportService = fullReportService;
+        this.resumeTextCompactor = resumeTextCompactor;
+        this.bulletEnhancementService = bulletEnhancementService;
+        this.pdfParseExecutor = pdfParseExecutor;
+        this.resumeSegmenter = resumeSegmenter;
+        this.resumeSectionRepository = resumeSectionRepository;
+        this.bulkResumeIngestionService = bulkResumeIngestionService;
+        this.renderedPdfCache = renderedPdfCache;
+        this.renderExecutor = renderExecutor;
+        this.pdfPrerenderService = pdfPrerenderService;
+        this.renderPipeline = renderPipeline;
     }
 
     @PostMapping("/upload")
     public ResponseEntity<?> uploadResume(@RequestParam("file") MultipartFile file) {
-        try {
-            String parsedText = pdfParserService.extractTextFromPdf(file);
+        try (PdfParserService.SpooledUpload upload = pdfParserService.spool(file)) {
+            User user = null;
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            if (auth != null && auth.isAuthenticated() && !auth.getName().equals("anonymousUser")) {
+                user = userRepository.findByEmail(auth.getName()).orElse(null);
+            }
+
+            // Same bytes from the same user: reuse the stored resume instead of parsing again
+            if (user != null) {
+                Resume existing = resumeRepository
+                        .findFirstByUserAndContentHashOrderByUploadDateDesc(user, upload.sha256()).orElse(null);
+                if (existing != null) {
+                    Map<String, Object> body = new java.util.LinkedHashMap<>();
+                    body.put("resumeId", existing.getId());
+                    body.put("message", "Upload successful");
+                    body.put("duplicate", true);
+                    analysisResultRepository.findFirstByResumeIdOrderByIdDesc(existing.getId())
+                            .ifPresent(latest -> body.put("latestAnalysisId", latest.getId()));
+                    return ResponseEntity.ok(body);
+                }
+            }
+
+            List<String> pages = pdfParseExecutor.extractPages(upload.path());
+            String parsedText = resumeTextCompactor.compactPages(pages).text();
 
             Resume resume = new Resume();
             resume.setFileName(file.getOriginalFilename());
             resume.setExtractedText(parsedText);
-
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            if (auth != null && auth.isAuthenticated() && !auth.getName().equals("anonymousUser")) {
-                userRepository.findByEmail(auth.getName()).ifPresent(resume::setUser);
-            }
+            resume.setContentHash(upload.sha256());
+            resume.setUser(user);
 
             Resume savedResume = resumeRepository.save(resume);
+            saveSections(savedResume);
             return ResponseEntity.ok(Map.of("resumeId", savedResume.getId(), "message", "Upload successful"));
+        } catch (ServiceOverloadedException e) {
+            return overloaded(e);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
 
+    /**
+     * Bulk upload for recruiters: the request body is a ZIP of PDFs, read entry
+     * by entry as it arrives. Responds with a status per file.
+     */
+    @PostMapping(value = "/bulk", consumes = "application/zip")
+    public ResponseEntity<?> bulkUploadZip(HttpServletRequest request) {
+        try {
+            User user = currentUser();
+            if (user == null || !user.isPro()) {
+                return bulkUploadForbidden(user);
+            }
+            BulkIngestionReport report = bulkResumeIngestionService.ingestZip(request.getInputStream(), user);
+            return ResponseEntity.ok(report);
+        } catch (ServiceOverloadedException e) {
+            return overloaded(e);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Bulk upload as multipart files; each may be a PDF or a ZIP of PDFs.
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> bulkUploadFiles(@RequestParam("files") List<MultipartFile> files) {
+        try {
+            User user = currentUser();
+            if (user == null || !user.isPro()) {
+                return bulkUploadForbidden(user);
+            }
+            BulkIngestionReport report = bulkResumeIngestionService.ingestFiles(files, user);
+            return ResponseEntity.ok(report);
+        } catch (ServiceOverloadedException e) {
+            return overloaded(e);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private ResponseEntity<Map<String, String>> bulkUploadForbidden(User user) {
+        if (user == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "Unauthorized"));
+        }
+        return ResponseEntity.status(403).body(Map.of("error", "ProRequired", "message",
+                "Bulk upload is available on the Pro plan."));
+    }
+
+    /**
+     * The resume split into sections and bullets. Resumes uploaded before
+     * segmentation existed are segmented on first request.
+     */
+    @GetMapping("/{resumeId}/sections")
+    public ResponseEntity<?> getResumeSections(@PathVariable Long resumeId) {
+        try {
+            Resume resume = resumeRepository.findById(resumeId)
+                    .orElseThrow(() -> new RuntimeException("Resume not found"));
+
+            List<ResumeSection> sections = resumeSectionRepository.findAllByResumeIdOrderByPositionAsc(resumeId);
+            if (sections.isEmpty()) {
+                sections = saveSections(resume);
+            }
+
+            List<Map<String, Object>> response = new java.util.ArrayList<>();
+            for (ResumeSection section : sections) {
+                Map<String, Object> view = new java.util.LinkedHashMap<>();
+                view.put("type", section.getSectionType().name());
+                view.put("heading", section.getHeading());
+                view.put("content", section.getContent());
+                view.put("bullets", ResumeSegmenter.bullets(section));
+                response.add(view);
+            }
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private List<ResumeSection> saveSections(Resume resume) {
+        List<ResumeSection> sections = resumeSegmenter.segment(resume.getExtractedText());
+        sections.forEach(section -> section.setResumeId(resume.getId()));
+        return resumeSectionRepository.saveAll(sections);
+    }
+
     @GetMapping("/history")
     public ResponseEntity<?> getResumeHistory() {
         try {
@@ -92,7 +258,7 @@ public class ResumeController {
             java.time.format.DateTimeFormatter formatter = java.time.format.DateTimeFormatter.ofPattern("MMM dd, yyyy");
 
             for (Resume r : resumes) {
-                int atsScore = analysisResultRepository.findByResumeId(r.getId())
+                int atsScore = analysisResultRepository.findFirstByResumeIdOrderByIdDesc(r.getId())
                         .map(AnalysisResult::getAtsScore)
                         .orElse(0);
 
@@ -115,6 +281,7 @@ public class ResumeController {
     @PostMapping("/{resumeId}/analyze")
     public ResponseEntity<?> analyzeResume(@PathVariable Long resumeId,
             @RequestBody(required = false) Map<String, String> request,
+            @RequestParam(defaultValue = "false") boolean async,
             HttpSession session) {
         try {
             Resume resume = resumeRepository.findById(resumeId)
@@ -132,19 +299,44 @@ public class ResumeController {
 
                 if (user != null) {
                     isProUser = user.isPro();
-                    // Intercept free users over limit
-                    if (!isProUser && user.getScansUsed() >= 2) {
+
+                    // Already analyzed by Gemini against this job description at this tier: hand back the
+                    // stored result
+                    if (!async) {
+                        AnalysisResult previous = analysisJobService
+                                .findReusableResult(resume, jobDescription, isProUser)
+                                .orElse(null);
+                        if (previous != null) {
+                            return ResponseEntity.ok(previous);
+                        }
+                    }
+
+                    // Intercept free users over limit (queued async jobs count against the quota on both paths)
+                    if (!isProUser && analysisJobService.wouldExceedFreeQuota(user, FREE_SCAN_LIMIT)) {
                         return ResponseEntity.status(403).body(Map.of("error", "QuotaExceeded", "message",
                                 "You have reached your free limit of 2 AI scans. Please upgrade to Pro to continue."));
                     }
                 }
             }
 
+            if (async) {
+                // Hand off to the job pipeline; quota is charged when the job completes
+                AnalysisJob job = analysisJobService.submit(resume, jobDescription, user);
+                return ResponseEntity.accepted().body(Map.of(
+                        "jobId", job.getId(),
+                        "status", job.getStatus().name(),
+                        "statusUrl", "/api/resume/jobs/" + job.getId(),
+                        "eventsUrl", "/api/resume/jobs/" + job.getId() + "/events"));
+            }
+
             AnalysisResult result = aiAnalysisService.analyzeResume(resume.getExtractedText(), jobDescription,
                     isProUser);
             result.setResumeId(resume.getId());
+            result.setJobDescriptionHash(AnalysisCache.jobDescriptionKey(jobDescription));
 
             AnalysisResult savedResult = analysisResultRepository.save(result);
+            // Exports usually follow analysis, so warm the PDF cache for every template
+            pdfPrerenderService.schedule(resume, isProUser);
 
             // Increment quota on successful processing if they are free
             if (user != null && !isProUser) {
@@ -153,6 +345,103 @@ public class ResumeController {
             }
 
             return ResponseEntity.ok(savedResult);
+        } catch (ServiceOverloadedException e) {
+            return overloaded(e);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<?> getAnalysisJob(@PathVariable String jobId) {
+        AnalysisJob job = findVisibleJob(jobId);
+        if (job == null) {
+            return ResponseEntity.status(404).body(Map.of("error", "Job not found"));
+        }
+        return ResponseEntity.ok(analysisJobService.describe(job));
+    }
+
+    @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamAnalysisJob(@PathVariable String jobId) {
+        AnalysisJob job = findVisibleJob(jobId);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(analysisJobService.subscribe(job));
+    }
+
+    /**
+     * Looks up a job, hiding jobs that belong to a different user.
+     */
+    private AnalysisJob findVisibleJob(String jobId) {
+        AnalysisJob job = analysisJobService.findJob(jobId).orElse(null);
+        if (job == null || job.getUserId() == null) {
+            return job;
+        }
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated() || auth.getName().equals("anonymousUser")) {
+            return null;
+        }
+        Long currentUserId = userRepository.findByEmail(auth.getName()).map(User::getId).orElse(null);
+        return job.getUserId().equals(currentUserId) ? job : null;
+    }
+
+    private User currentUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated() || auth.getName().equals("anonymousUser")) {
+            return null;
+        }
+        return userRepository.findByEmail(auth.getName()).orElse(null);
+    }
+
+    /**
+     * Pro status of the signed-in user; Pro requests are served first when the
+     * AI bulkhead is saturated.
+     */
+    private boolean currentUserIsPro() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated() || auth.getName().equals("anonymousUser")) {
+            return false;
+        }
+        return userRepository.findByEmail(auth.getName()).map(User::isPro).orElse(false);
+    }
+
+    private ResponseEntity<Map<String, String>> overloaded(ServiceOverloadedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(e.getRetryAfterSeconds()))
+                .body(Map.of("error", "Overloaded", "message", e.getMessage()));
+    }
+
+    /**
+     * Analysis, cover letter and interview questions in one call. Counts as a
+     * single scan against the free quota.
+     */
+    @PostMapping("/{resumeId}/full-report")
+    public ResponseEntity<?> generateFullReport(@PathVariable Long resumeId,
+            @RequestBody(required = false) Map<String, String> request) {
+        try {
+            Resume resume = resumeRepository.findById(resumeId)
+                    .orElseThrow(() -> new RuntimeException("Resume not found"));
+
+            String jobDescription = request != null ? request.get("jobDescription") : null;
+
+            User user = null;
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            if (auth != null && auth.isAuthenticated() && !auth.getName().equals("anonymousUser")) {
+                user = userRepository.findByEmail(auth.getName()).orElse(null);
+                if (user != null && !user.isPro() && analysisJobService.wouldExceedFreeQuota(user, FREE_SCAN_LIMIT)) {
+                    return ResponseEntity.status(403).body(Map.of("error", "QuotaExceeded", "message",
+                            "You have reached your free limit of 2 AI scans. Please upgrade to Pro to continue."));
+                }
+            }
+
+            FullReport report = fullReportService.generate(resume, jobDescription, user);
+            return ResponseEntity.ok(Map.of(
+                    "analysis", report.analysis(),
+                    "coverLetter", report.coverLetter(),
+                    "questions", report.interviewQuestions()));
+        } catch (ServiceOverloadedException e) {
+            return overloaded(e);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
@@ -166,8 +455,33 @@ public class ResumeController {
             if (bulletPoint == null || bulletPoint.isBlank()) {
                 return ResponseEntity.badRequest().body(Map.of("error", "Bullet point is required"));
             }
-            String enhanced = aiAnalysisService.enhanceBulletPoint(bulletPoint, targetJob);
+            String enhanced = bulletEnhancementService.enhance(bulletPoint, targetJob, currentUserIsPro());
             return ResponseEntity.ok(Map.of("enhancedBulletPoint", enhanced));
+        } catch (ServiceOverloadedException e) {
+            return overloaded(e);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/enhance/batch")
+    public ResponseEntity<?> enhanceBulletPoints(@RequestBody Map<String, Object> request) {
+        try {
+            if (!(request.get("bulletPoints") instanceof List<?> rawBullets) || rawBullets.isEmpty()) {
+                return ResponseEntity.badRequest().body(Map.of("error", "At least one bullet point is required"));
+            }
+            if (rawBullets.size() > MAX_BATCH_BULLETS) {
+                return ResponseEntity.badRequest()
+                        .body(Map.of("error", "At most " + MAX_BATCH_BULLETS + " bullet points per request"));
+            }
+            List<String> bulletPoints = rawBullets.stream().map(bullet -> bullet != null ? bullet.toString() : "")
+                    .toList();
+            String targetJob = request.get("targetJob") instanceof String job ? job : null;
+
+            List<String> enhanced = bulletEnhancementService.enhanceAll(bulletPoints, targetJob, currentUserIsPro());
+            return ResponseEntity.ok(Map.of("enhancedBulletPoints", enhanced));
+        } catch (ServiceOverloadedException e) {
+            return overloaded(e);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
@@ -188,8 +502,11 @@ public class ResumeController {
 
             String jobDescription = request != null ? request.get("jobDescription") : "";
 
-            String coverLetter = aiAnalysisService.generateCoverLetter(extractedText, jobDescription);
+            String coverLetter = aiAnalysisService.generateCoverLetter(extractedText, jobDescription,
+                    currentUserIsPro());
             return ResponseEntity.ok(Map.of("coverLetter", coverLetter));
+        } catch (ServiceOverloadedException e) {
+            return overloaded(e);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
@@ -203,28 +520,80 @@ public class ResumeController {
                     .map(Resume::getExtractedText)
                     .orElse("");
             String jobDescription = request != null ? request.get("jobDescription") : "";
-            String questionsJson = aiAnalysisService.generateInterviewQuestions(extractedText, jobDescription);
+            String questionsJson = aiAnalysisService.generateInterviewQuestions(extractedText, jobDescription,
+                    currentUserIsPro());
 
             // Clean up any markdown fences Gemini might add
-            questionsJson = questionsJson.trim();
-            if (questionsJson.startsWith("```json"))
-                questionsJson = questionsJson.substring(7);
-            if (questionsJson.startsWith("```"))
-                questionsJson = questionsJson.substring(3);
-            if (questionsJson.endsWith("```"))
-                questionsJson = questionsJson.substring(0, questionsJson.length() - 3);
-
-            return ResponseEntity.ok(Map.of("questions", questionsJson.trim()));
+            return ResponseEntity.ok(Map.of("questions", AiAnalysisService.stripMarkdownFences(questionsJson)));
+        } catch (ServiceOverloadedException e) {
+            return overloaded(e);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
 
+    /**
+     * SSE variant of /cover-letter: emits "chunk" events as Gemini streams text,
+     * then a "complete" event carrying the full letter.
+     */
+    @PostMapping(value = "/{resumeId}/cover-letter/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> streamCoverLetter(@PathVariable Long resumeId,
+            @RequestBody(required = false) Map<String, String> request) {
+        try {
+            String extractedText;
+            if (resumeId == 0) {
+                extractedText = "Sample Resume content for the mocked frontend report.";
+            } else {
+                Resume resume = resumeRepository.findById(resumeId)
+                        .orElseThrow(() -> new RuntimeException("Resume not found"));
+                extractedText = resume.getExtractedText();
+            }
+            String jobDescription = request != null ? request.get("jobDescription") : "";
+
+            return ResponseEntity.ok(generationStreamService.streamCoverLetter(extractedText, jobDescription,
+                    currentUserIsPro()));
+        } catch (ServiceOverloadedException e) {
+            return overloaded(e);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * SSE variant of /interview-questions. Chunks carry raw model output; the
+     * "complete" event carries the cleaned JSON array.
+     */
+    @PostMapping(value = "/{resumeId}/interview-questions/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> streamInterviewQuestions(@PathVariable Long resumeId,
+            @RequestBody(required = false) Map<String, String> request) {
+        try {
+            String extractedText = resumeRepository.findById(resumeId)
+                    .map(Resume::getExtractedText)
+                    .orElse("");
+            String jobDescription = request != null ? request.get("jobDescription") : "";
+
+            return ResponseEntity.ok(generationStreamService.streamInterviewQuestions(extractedText, jobDescription,
+                    currentUserIsPro()));
+        } catch (ServiceOverloadedException e) {
+            return overloaded(e);
+        }
+    }
+
+    /**
+     * Renders the resume as a PDF. Renders are cached per resume text,
+     * template, font and watermark setting, and the response carries an ETag;
+     * a request whose If-None-Match names it gets a 304 without rendering.
+     * A cache miss is laid out on the render pool, then painted straight into
+     * the response (chunked) while a copy is kept for the cache, rather than
+     * buffering the whole PDF first.
+     */
     @PostMapping(value = "/{resumeId}/export-pdf", produces = org.springframework.http.MediaType.APPLICATION_PDF_VALUE)
     @ResponseBody
-    public ResponseEntity<byte[]> exportToPdf(
+    public ResponseEntity<StreamingResponseBody> exportToPdf(
             @PathVariable Long resumeId,
-            @RequestBody(required = false) Map<String, String> options) {
+            @RequestBody(required = false) Map<String, String> options,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             String fileName = "My Resume";
             String extractedText = "";
@@ -235,105 +604,117 @@ public class ResumeController {
             } else {
                 Resume resume = resumeRepository.findById(resumeId)
                         .orElseThrow(() -> new RuntimeException("Resume not found"));
-                fileName = resume.getFileName() != null ? resume.getFileName().replace(".pdf", "") : "My Resume";
+                fileName = com.airesume.service.PdfGeneratorService.exportName(resume.getFileName());
                 extractedText = resume.getExtractedText();
             }
 
             String template = options != null && options.containsKey("template") ? options.get("template") : "basic";
-            String font = options != null && options.containsKey("font") ? options.get("font") : "Helvetica";
-
-            String templateFile = "resume-template";
-            if ("modern".equals(template)) {
-                templateFile = "resume-template-modern";
-            } else if ("executive".equals(template)) {
-                templateFile = "resume-template-executive";
+            String font = options != null && options.containsKey("font") ? options.get("font")
+                    : com.airesume.service.PdfGeneratorService.DEFAULT_FONT;
+            boolean isPro = currentUserIsPro();
+
+            String templateFile = com.airesume.service.PdfGeneratorService.templateFile(template);
+
+            ResumeRenderPipeline.Version version = renderPipeline.version(resumeId, fileName, extractedText,
+                    templateFile, font, isPro);
+            String cacheKey = version.key();
+            String etag = RenderedPdfCache.etag(cacheKey);
+            if (RenderedPdfCache.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(etag)
+                        .cacheControl(CacheControl.noCache().cachePrivate())
+                        .build();
             }
 
-            org.thymeleaf.context.Context context = new org.thymeleaf.context.Context();
-            context.setVariable("resumeName", escapeXml(fileName));
-            context.setVariable("extractedText", escapeXml(extractedText));
-            context.setVariable("fontFamily", font);
-
-            byte[] pdfBytes = pdfGeneratorService.generatePdfFromHtml(templateFile, context);
-
-            return ResponseEntity.ok()
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
                     .header(org.springframework.http.HttpHeaders.CONTENT_DISPOSITION,
                             "attachment; filename=\"ElevateAI_Resume.pdf\"")
-                    .body(pdfBytes);
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache().cachePrivate());
+
+            byte[] cached = renderedPdfCache.get(cacheKey).orElse(null);
+            if (cached != null) {
+                return response.contentLength(cached.length).body(out -> out.write(cached));
+            }
+
+            // Layout runs on the render pool, from the preview's HTML when cached; painting the PDF out
+            // happens on the response thread
+            com.airesume.service.PdfGeneratorService.LaidOutPdf laidOut = renderExecutor.call("pdf",
+                    () -> renderPipeline.layoutPdf(version));
+
+            return response.body(out -> {
+                RenderedPdfCache.Capture capture = renderedPdfCache.capture(cacheKey, out);
+                try {
+                    laidOut.writeTo(capture);
+                } catch (com.lowagie.text.DocumentException e) {
+                    throw new java.io.IOException("Failed to generate PDF", e);
+                }
+                capture.store();
+            });
+        } catch (ServiceOverloadedException e) {
+            // No JSON body: this endpoint only produces application/pdf
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, Long.toString(e.getRetryAfterSeconds()))
+                    .build();
         } catch (Exception e) {
             logger.error("Failed to generate PDF", e);
             return ResponseEntity.badRequest().build();
         }
     }
 
-    private String escapeXml(String text) {
-        if (text == null)
-            return "";
-        return text.replace("&", "&amp;")
-                .replace("<", "&lt;")
-                .replace(">", "&gt;")
-                .replace("\"", "&quot;")
-                .replace("'", "&apos;");
-    }
-
+    /**
+     * Renders the resume as HTML for the template preview. It is the same
+     * document the PDF export is laid out from, cached per version, and the
+     * response carries an ETag; a request whose If-None-Match names it gets a
+     * 304.
+     */
     @GetMapping("/{id}/preview-html")
-    public ResponseEntity<String> previewHtml(
+    public ResponseEntity<?> previewHtml(
             @PathVariable Long id,
             @RequestParam(defaultValue = "basic") String template,
-            @RequestParam(defaultValue = "Helvetica") String font,
+            @RequestParam(defaultValue = com.airesume.service.PdfGeneratorService.DEFAULT_FONT) String font,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
             HttpSession session) {
         try {
-            AnalysisResult result = analysisResultRepository.findByResumeId(id)
+            // Previews are offered once the resume has been analyzed
+            analysisResultRepository.findFirstByResumeIdOrderByIdDesc(id)
                     .orElseThrow(() -> new RuntimeException("Resume not found"));
 
-            // Get extracted text from the Resume entity
-            String extractedText = resumeRepository.findById(id)
-                    .map(Resume::getExtractedText)
-                    .orElse("");
-
-            // Determine pro status from JWT-populated SecurityContext
-            boolean isProUser = false;
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            if (auth != null && auth.isAuthenticated() && !auth.getName().equals("anonymousUser")) {
-                String userEmail = auth.getName();
-                isProUser = userRepository.findByEmail(userEmail)
-                        .map(User::isPro)
-                        .orElse(false);
-            }
+            Resume resume = resumeRepository.findById(id).orElse(null);
+            String fileName = com.airesume.service.PdfGeneratorService
+                    .exportName(resume != null ? resume.getFileName() : null);
+            String extractedText = resume != null && resume.getExtractedText() != null ? resume.getExtractedText()
+                    : "";
 
             // NOTE: Free users can preview Pro templates (teaser/upsell).
             // The paywall is enforced on PDF download via watermark + export-pdf endpoint
             // restriction.
-
-            // Generate HTML using Thymeleaf Context
-            Context context = new Context();
-
-            // Build context variables for the template
-            context.setVariable("extractedText", escapeXml(extractedText));
-            context.setVariable("atsScore", result.getAtsScore());
-            context.setVariable("impactScore", result.getImpactScore());
-            context.setVariable("brevityScore", result.getBrevityScore());
-            context.setVariable("actionVerbScore", result.getActionVerbScore());
-
-            // Watermark flag based on pro status
-            context.setVariable("isPro", isProUser);
-
-            // Styling context
-            context.setVariable("fontFamily", font);
-
-            String templateFile = "resume-template";
-            if ("modern".equals(template)) {
-                templateFile = "resume-template-modern";
-            } else if ("executive".equals(template)) {
-                templateFile = "resume-template-executive";
+            boolean isProUser = currentUserIsPro();
+
+            String templateFile = com.airesume.service.PdfGeneratorService.templateFile(template);
+            ResumeRenderPipeline.Version version = renderPipeline.version(id, fileName, extractedText, templateFile,
+                    font, isProUser);
+            String etag = ResumeRenderPipeline.htmlEtag(version);
+            if (RenderedPdfCache.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(etag)
+                        .cacheControl(CacheControl.noCache().cachePrivate())
+                        .build();
             }
 
-            String htmlContent = templateEngine.process(templateFile, context);
+            String htmlContent = renderPipeline.cachedHtml(version).orElse(null);
+            if (htmlContent == null) {
+                htmlContent = renderExecutor.call("html", () -> renderPipeline.html(version));
+            }
 
-            org.springframework.http.HttpHeaders headers = new org.springframework.http.HttpHeaders();
-            headers.setContentType(org.springframework.http.MediaType.TEXT_HTML);
-            return new ResponseEntity<>(htmlContent, headers, org.springframework.http.HttpStatus.OK);
+            return ResponseEntity.ok()
+                    .contentType(org.springframework.http.MediaType.TEXT_HTML)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .body(htmlContent);
 
+        } catch (ServiceOverloadedException e) {
+            return overloaded(e);
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR)
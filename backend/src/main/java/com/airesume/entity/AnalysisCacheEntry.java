@@ -0,0 +1,39 @@
+package com.airesume.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Persistent tier of the analysis cache. Holds the full (Pro) analysis as JSON,
+ * keyed by a hash of the normalized resume text, job description, model and
+ * prompt version.
+ */
+@Entity
+@Table(name = "analysis_cache")
+@Data
+@NoArgsConstructor
+public class AnalysisCacheEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String cacheKey;
+
+    private String model;
+
+    private String promptVersion;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String payload;
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
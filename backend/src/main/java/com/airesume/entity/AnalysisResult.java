@@ -1,6 +1,9 @@
 package com.airesume.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -12,12 +15,40 @@ import lombok.NoArgsConstructor;
 @Data
 @NoArgsConstructor
 public class AnalysisResult {
+
+    /**
+     * Where an analysis came from. Only {@link #GEMINI} results are reused for
+     * repeat requests; the others are fallbacks a later request should retry.
+     */
+    public enum Source {
+        GEMINI, LOCAL, DEGRADED, MOCK
+    }
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     private Long resumeId;
 
+    // Hash of the job description the analysis ran against; lets repeat requests reuse it
+    @JsonIgnore
+    @Column(length = 64)
+    private String jobDescriptionHash;
+
+    @JsonIgnore
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private Source source;
+
+    // Gemini model and prompt version of a GEMINI result, as in the analysis cache
+    @JsonIgnore
+    @Column(length = 64)
+    private String model;
+
+    @JsonIgnore
+    @Column(length = 32)
+    private String promptVersion;
+
     private Integer atsScore;
 
     private Integer impactScore;
@@ -46,4 +77,11 @@ public class AnalysisResult {
 
     @Column(columnDefinition = "boolean default false")
     private boolean isPartialAnalysis;
+
+    // Only populated by the combined full-report endpoint
+    @Column(columnDefinition = "TEXT")
+    private String coverLetter;
+
+    @Column(columnDefinition = "TEXT")
+    private String interviewQuestions;
 }
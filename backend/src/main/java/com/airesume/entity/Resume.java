@@ -7,12 +7,15 @@ import jakarta.persistence.Id;
 import jakarta.persistence.Column;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.JoinColumn;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = @Index(name = "idx_resume_user_content_hash", columnList = "user_id, content_hash"))
 @Data
 @NoArgsConstructor
 public class Resume {
@@ -25,6 +28,10 @@ public class Resume {
     @Column(columnDefinition = "TEXT")
     private String extractedText;
 
+    // SHA-256 of the uploaded PDF bytes, used to spot re-uploads of the same file
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     private LocalDateTime uploadDate = LocalDateTime.now();
 
     @ManyToOne
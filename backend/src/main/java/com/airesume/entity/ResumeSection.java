@@ -0,0 +1,50 @@
+package com.airesume.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One detected section of a parsed resume, in document order. Lets prompts and
+ * templates work with just the parts they need instead of the full text.
+ */
+@Entity
+@Table(name = "resume_sections", indexes = @Index(columnList = "resume_id, section_type"))
+@Data
+@NoArgsConstructor
+public class ResumeSection {
+
+    public enum Type {
+        CONTACT, SUMMARY, EXPERIENCE, EDUCATION, SKILLS, PROJECTS, OTHER
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long resumeId;
+
+    private int position;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Type sectionType;
+
+    // The heading as written in the resume; null for the untitled block at the top
+    private String heading;
+
+    @Column(columnDefinition = "TEXT")
+    private String content;
+
+    // One bullet per line, markers removed and wrapped lines joined
+    @Column(columnDefinition = "TEXT")
+    private String bullets;
+}
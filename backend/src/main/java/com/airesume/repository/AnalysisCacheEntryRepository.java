@@ -0,0 +1,12 @@
+package com.airesume.repository;
+
+import com.airesume.entity.AnalysisCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface AnalysisCacheEntryRepository extends JpaRepository<AnalysisCacheEntry, Long> {
+    Optional<AnalysisCacheEntry> findByCacheKey(String cacheKey);
+}
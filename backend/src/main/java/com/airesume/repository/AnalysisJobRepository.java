@@ -0,0 +1,15 @@
+package com.airesume.repository;
+
+import com.airesume.entity.AnalysisJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface AnalysisJobRepository extends JpaRepository<AnalysisJob, String> {
+    List<AnalysisJob> findAllByStatusInOrderByCreatedAtAsc(Collection<AnalysisJob.Status> statuses);
+
+    long countByUserIdAndStatusIn(Long userId, Collection<AnalysisJob.Status> statuses);
+}
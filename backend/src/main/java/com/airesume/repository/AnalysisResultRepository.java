@@ -8,5 +8,9 @@ import java.util.Optional;
 
 @Repository
 public interface AnalysisResultRepository extends JpaRepository<AnalysisResult, Long> {
-    Optional<AnalysisResult> findByResumeId(Long resumeId);
+    Optional<AnalysisResult> findFirstByResumeIdOrderByIdDesc(Long resumeId);
+
+    Optional<AnalysisResult> findFirstByResumeIdAndJobDescriptionHashAndIsPartialAnalysisAndSourceAndModelAndPromptVersionOrderByIdDesc(
+            Long resumeId, String jobDescriptionHash, boolean isPartialAnalysis, AnalysisResult.Source source,
+            String model, String promptVersion);
 }
@@ -0,0 +1,73 @@
+package com.airesume.repository;
+
+import com.airesume.entity.Resume;
+import com.airesume.entity.ResumeSection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Inserts resumes and their sections with JDBC batch statements, for bulk
+ * ingestion where saving rows one at a time through JPA would dominate. Resume
+ * ids are drawn from the table's identity sequence up front, since IDENTITY
+ * generation rules out batching in Hibernate.
+ */
+@Repository
+public class ResumeBatchWriter {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ResumeBatchWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts the resumes in one batch and sets their generated ids.
+     */
+    public void insertResumes(List<Resume> resumes) {
+        if (resumes.isEmpty()) {
+            return;
+        }
+        List<Long> ids = jdbcTemplate.queryForList(
+                "select nextval(pg_get_serial_sequence('resume', 'id')) from generate_series(1, ?)", Long.class,
+                resumes.size());
+        for (int i = 0; i < resumes.size(); i++) {
+            resumes.get(i).setId(ids.get(i));
+        }
+        jdbcTemplate.batchUpdate(
+                "insert into resume (id, file_name, extracted_text, content_hash, upload_date, user_id)"
+                        + " values (?, ?, ?, ?, ?, ?)",
+                resumes, resumes.size(), (ps, resume) -> {
+                    ps.setLong(1, resume.getId());
+                    ps.setString(2, resume.getFileName());
+                    ps.setString(3, resume.getExtractedText());
+                    ps.setString(4, resume.getContentHash());
+                    ps.setTimestamp(5, Timestamp.valueOf(resume.getUploadDate()));
+                    if (resume.getUser() != null) {
+                        ps.setLong(6, resume.getUser().getId());
+                    } else {
+                        ps.setNull(6, Types.BIGINT);
+                    }
+                });
+    }
+
+    public void insertSections(List<ResumeSection> sections) {
+        if (sections.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+                "insert into resume_sections (resume_id, position, section_type, heading, content, bullets)"
+                        + " values (?, ?, ?, ?, ?, ?)",
+                sections, sections.size(), (ps, section) -> {
+                    ps.setLong(1, section.getResumeId());
+                    ps.setInt(2, section.getPosition());
+                    ps.setString(3, section.getSectionType().name());
+                    ps.setString(4, section.getHeading());
+                    ps.setString(5, section.getContent());
+                    ps.setString(6, section.getBullets());
+                });
+    }
+}
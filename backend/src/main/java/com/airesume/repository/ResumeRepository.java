@@ -4,6 +4,7 @@ import com.airesume.entity.Resume;
 import com.airesume.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import java.util.List;
+import java.util.Optional;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -11,4 +12,14 @@ public interface ResumeRepository extends JpaRepository<Resume, Long> {
     List<Resume> findAllByUserOrderByUploadDateDesc(User user);
 
     long countByUser(User user);
+
+    Optional<Resume> findFirstByUserAndContentHashOrderByUploadDateDesc(User user, String contentHash);
+
+    List<ContentHashView> findAllByUserAndContentHashIsNotNull(User user);
+
+    interface ContentHashView {
+        Long getId();
+
+        String getContentHash();
+    }
 }
@@ -0,0 +1,12 @@
+package com.airesume.repository;
+
+import com.airesume.entity.ResumeSection;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ResumeSectionRepository extends JpaRepository<ResumeSection, Long> {
+    List<ResumeSection> findAllByResumeIdOrderByPositionAsc(Long resumeId);
+}
@@ -1,243 +1,618 @@
 package com.airesume.service;
 
 import com.airesume.entity.AnalysisResult;
+import com.airesume.entity.ResumeSection;
+import com.airesume.util.HashUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.ClientHttpRequestFactories;
+import org.springframework.boot.web.client.ClientHttpRequestFactorySettings;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientResponseException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 @Service
 public class AiAnalysisService {
 
-    private final RestClient restClient;
+    private static final Logger logger = LoggerFactory.getLogger(AiAnalysisService.class);
+
+    static final String ANALYSIS_MODEL = "gemini-1.5-pro";
+    static final String FLASH_MODEL = "gemini-1.5-flash";
+    // Bump whenever buildPrompt changes so stale cached analyses are not served
+    static final String ANALYSIS_PROMPT_VERSION = "v1";
+    // The combined report prompt scores differently, so its analyses never serve /analyze
+    static final String FULL_REPORT_PROMPT_VERSION = "full-report-v1";
+    // Interview questions are driven by what the candidate built and knows
+    private static final Set<ResumeSection.Type> INTERVIEW_SECTIONS = EnumSet.of(ResumeSection.Type.EXPERIENCE,
+            ResumeSection.Type.PROJECTS, ResumeSection.Type.SKILLS);
+
+    private static final String ANALYSIS_FIELDS = "- 'atsScore' (integer 0-100: overall parseability and relevance)\n" +
+            "- 'impactScore' (integer 0-100: measures use of quantifiable metrics, percentages, and dollar amounts)\n"
+            +
+            "- 'brevityScore' (integer 0-100: penalizes walls of text; rewards concise, scannable bullet points)\n"
+            +
+            "- 'actionVerbScore' (integer 0-100: evaluates whether bullets start with strong power verbs vs weak passive verbs)\n"
+            +
+            "- 'summary' (string: a concise, 2-sentence brutal but constructive evaluation)\n" +
+            "- 'strengths' (string: a bulleted list using • of 3 key strengths)\n" +
+            "- 'weaknesses' (string: a bulleted list using • of 3 critical flaws or missing elements)\n" +
+            "- 'suggestedImprovements' (string: a bulleted list using • of 3 highly actionable, specific commands to improve the resume)\n"
+            +
+            "- 'foundKeywords' (string: comma separated list of recognized hard skills)\n" +
+            "- 'missingKeywords' (string: comma separated list of important skills that are missing).\n";
+
+    private static final String BULLET_REWRITE_INSTRUCTIONS = "You are a professional resume writer who has drafted resumes for top-tier tech companies. "
+            +
+            "Your goal is to rewrite the following resume bullet point to make it extremely impactful, metric-driven, and active. "
+            +
+            "STRICTLY follow the XYZ formula: 'Accomplished [X] as measured by [Y], by doing [Z].' " +
+            "Never hallucinate generic metrics; if there are no metrics, focus on the scope of the accomplishment. ";
+
+    private static final String MOCK_ENHANCED_BULLET = "Accomplished [X] as measured by [Y], by doing [Z]. (Mocked test feature)";
+    private static final String MOCK_COVER_LETTER = "Dear Hiring Manager,\n\nI am writing to express my strong interest in the open position. Please find my resume attached.\n\nSincerely,\nCandidate (Mocked)";
+    private static final String MOCK_INTERVIEW_QUESTIONS = "[{\"question\":\"Tell me about a challenging project you worked on and how you overcame the obstacles.\",\"tip\":\"Use the STAR method: Situation, Task, Action, Result.\",\"category\":\"Behavioural\"},{\"question\":\"How do you approach debugging a complex production issue?\",\"tip\":\"Mention systematic isolation, logging, and collaboration.\",\"category\":\"Technical\"},{\"question\":\"Describe a time when you disagreed with a technical decision. How did you handle it?\",\"tip\":\"Show maturity and ability to advocate constructively.\",\"category\":\"Behavioural\"},{\"question\":\"What is your approach to writing maintainable, scalable code?\",\"tip\":\"Mention SOLID principles, code reviews, tests.\",\"category\":\"Technical\"},{\"question\":\"Where do you see yourself professionally in 3 years?\",\"tip\":\"Align your growth with the company direction.\",\"category\":\"Career\"}]";
+
+    private final RestClient proClient;
+    private final RestClient flashClient;
     private final String apiKey;
     private final ObjectMapper objectMapper;
+    private final AnalysisCache analysisCache;
+    private final InFlightRequestCoalescer inFlightRequests;
+    private final GeminiBulkhead bulkhead;
+    private final ResumeTextCompactor compactor;
+    private final LocalAtsScoringEngine localScoringEngine;
+    private final boolean localEngineForFreeTier;
+    private final GeminiCircuitBreaker circuitBreaker;
+    private final GeminiHedger hedger;
+    private final ResumeSegmenter segmenter;
 
     public AiAnalysisService(RestClient.Builder restClientBuilder,
             @Value("${gemini.api.key:}") String apiKey,
-            ObjectMapper objectMapper) {
-        this.restClient = restClientBuilder.baseUrl("https://generativelanguage.googleapis.com").build();
+            @Value("${gemini.timeouts.connect-ms:5000}") long connectTimeoutMs,
+            @Value("${gemini.timeouts.pro.read-ms:60000}") long proReadTimeoutMs,
+            @Value("${gemini.timeouts.flash.read-ms:20000}") long flashReadTimeoutMs,
+            ObjectMapper objectMapper,
+            AnalysisCache analysisCache,
+            InFlightRequestCoalescer inFlightRequests,
+            GeminiBulkhead bulkhead,
+            ResumeTextCompactor compactor,
+            LocalAtsScoringEngine localScoringEngine,
+            @Value("${analysis.free-tier.engine:gemini}") String freeTierEngine,
+            GeminiCircuitBreaker circuitBreaker,
+            GeminiHedger hedger,
+            ResumeSegmenter segmenter) {
+        this.proClient = buildClient(restClientBuilder, connectTimeoutMs, proReadTimeoutMs);
+        this.flashClient = buildClient(restClientBuilder, connectTimeoutMs, flashReadTimeoutMs);
         this.apiKey = apiKey;
         this.objectMapper = objectMapper;
+        this.analysisCache = analysisCache;
+        this.inFlightRequests = inFlightRequests;
+        this.bulkhead = bulkhead;
+        this.compactor = compactor;
+        this.localScoringEngine = localScoringEngine;
+        this.localEngineForFreeTier = "local".equalsIgnoreCase(freeTierEngine);
+        this.circuitBreaker = circuitBreaker;
+        this.hedger = hedger;
+        this.segmenter = segmenter;
+    }
+
+    /**
+     * Each model family gets its own client so a slow pro call cannot hold a
+     * connection for longer than the pro read timeout, and flash calls fail
+     * sooner. The read timeout applies between reads, so long streams are fine
+     * while chunks keep arriving.
+     */
+    private static RestClient buildClient(RestClient.Builder restClientBuilder, long connectTimeoutMs,
+            long readTimeoutMs) {
+        ClientHttpRequestFactorySettings settings = ClientHttpRequestFactorySettings.DEFAULTS
+                .withConnectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .withReadTimeout(Duration.ofMillis(readTimeoutMs));
+        return restClientBuilder.clone()
+                .baseUrl("https://generativelanguage.googleapis.com")
+                .requestFactory(ClientHttpRequestFactories.get(settings))
+                .build();
+    }
+
+    private RestClient clientFor(String model) {
+        return model.contains("-pro") ? proClient : flashClient;
     }
 
     public AnalysisResult analyzeResume(String resumeText, String jobDescription, boolean isPro) {
+        if (usesLocalEngine(isPro)) {
+            return withSource(toTierView(localScoringEngine.score(resumeText, jobDescription), false),
+                    AnalysisResult.Source.LOCAL);
+        }
         if (apiKey == null || apiKey.isEmpty() || "YOUR_KEY_HERE".equals(apiKey)) {
-            return getMockResult(isPro);
+            return withSource(getMockResult(isPro), AnalysisResult.Source.MOCK);
+        }
+
+        // One cache entry holds the full analysis and serves both tiers
+        String cacheKey = AnalysisCache.keyFor(resumeText, jobDescription, ANALYSIS_MODEL, ANALYSIS_PROMPT_VERSION);
+        Optional<AnalysisResult> cached = analysisCache.get(cacheKey);
+        if (cached.isPresent()) {
+            return fromGemini(toTierView(cached.get(), isPro), ANALYSIS_PROMPT_VERSION);
         }
 
         try {
             String prompt = buildPrompt(resumeText, jobDescription);
 
-            Map<String, Object> requestBody = Map.of(
-                    "contents", new Object[] {
-                            Map.of("parts", new Object[] {
-                                    Map.of("text", prompt)
-                            })
-                    });
-
-            String response = restClient.post()
-                    .uri("/v1beta/models/gemini-1.5-pro:generateContent?key={key}", apiKey)
-                    .body(requestBody)
-                    .retrieve()
-                    .body(String.class);
+            String response = generateContent(ANALYSIS_MODEL, prompt, isPro);
 
             AnalysisResult result = parseResponse(response);
+            analysisCache.put(cacheKey, ANALYSIS_MODEL, ANALYSIS_PROMPT_VERSION, result);
 
-            // Apply Partial Analysis for Free Users
-            if (!isPro) {
-                result.setPartialAnalysis(true);
-                result.setMissingKeywords(
-                        "Upgrade to Pro to reveal exactly which keywords you are missing from this job description.");
-                if (result.getSuggestedImprovements() != null) {
-                    String[] improvements = result.getSuggestedImprovements().split("\n");
-                    if (improvements.length > 2) {
-                        result.setSuggestedImprovements(improvements[0] + "\n" + improvements[1]
-                                + "\n- [Locked] Upgrade to Pro to see all critical improvements.");
-                    }
-                }
-            }
+            return fromGemini(toTierView(result, isPro), ANALYSIS_PROMPT_VERSION);
+
+        } catch (ServiceOverloadedException e) {
+            throw e; // surface as 503 rather than masking overload with a mock result
+        } catch (Exception e) {
+            // Degrade to the local engine: a real (if simpler) score beats a canned one
+            logger.warn("Gemini analysis failed, using local scoring: {}", e.toString());
+            return withSource(toTierView(localScoringEngine.score(resumeText, jobDescription), isPro),
+                    AnalysisResult.Source.DEGRADED);
+        }
+    }
 
+    /**
+     * Free-tier scans use the local scoring engine instead of Gemini when
+     * {@code analysis.free-tier.engine=local}.
+     */
+    private boolean usesLocalEngine(boolean isPro) {
+        return !isPro && localEngineForFreeTier;
+    }
+
+    private static AnalysisResult fromGemini(AnalysisResult result, String promptVersion) {
+        result.setSource(AnalysisResult.Source.GEMINI);
+        result.setModel(ANALYSIS_MODEL);
+        result.setPromptVersion(promptVersion);
+        return result;
+    }
+
+    private static AnalysisResult withSource(AnalysisResult result, AnalysisResult.Source source) {
+        result.setSource(source);
+        result.setModel(null);
+        result.setPromptVersion(null);
+        return result;
+    }
+
+    /**
+     * Derives the tier-specific view from a full analysis. Free users get a
+     * partial analysis with missing keywords and most improvements locked.
+     */
+    private AnalysisResult toTierView(AnalysisResult result, boolean isPro) {
+        if (isPro) {
+            result.setPartialAnalysis(false);
             return result;
+        }
+        result.setPartialAnalysis(true);
+        result.setMissingKeywords(
+                "Upgrade to Pro to reveal exactly which keywords you are missing from this job description.");
+        if (result.getSuggestedImprovements() != null) {
+            String[] improvements = result.getSuggestedImprovements().split("\n");
+            if (improvements.length > 2) {
+                result.setSuggestedImprovements(improvements[0] + "\n" + improvements[1]
+                        + "\n- [Locked] Upgrade to Pro to see all critical improvements.");
+            }
+        }
+        return result;
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            return getMockResult(isPro); // fallback
+    /**
+     * Returns the cached full analysis for this resume and job description, in
+     * the caller's tier view, without calling Gemini. Analyses from earlier
+     * full reports count too.
+     */
+    public Optional<AnalysisResult> findCachedAnalysis(String resumeText, String jobDescription, boolean isPro) {
+        if (usesLocalEngine(isPro)) {
+            // Local scoring is as cheap as a cache hit, so report it as one
+            return Optional.of(analyzeResume(resumeText, jobDescription, false));
         }
+        if (apiKey == null || apiKey.isEmpty() || "YOUR_KEY_HERE".equals(apiKey)) {
+            return Optional.empty();
+        }
+        String cacheKey = AnalysisCache.keyFor(resumeText, jobDescription, ANALYSIS_MODEL, ANALYSIS_PROMPT_VERSION);
+        String fullReportKey = AnalysisCache.keyFor(resumeText, jobDescription, ANALYSIS_MODEL,
+                FULL_REPORT_PROMPT_VERSION);
+        return analysisCache.get(cacheKey)
+                .map(result -> fromGemini(result, ANALYSIS_PROMPT_VERSION))
+                .or(() -> analysisCache.get(fullReportKey)
+                        .map(result -> fromGemini(result, FULL_REPORT_PROMPT_VERSION)))
+                .map(result -> toTierView(result, isPro));
+    }
+
+    /**
+     * Generates the analysis, cover letter and interview questions with a single
+     * Gemini round-trip. Unlike the per-artifact methods this does not fall back
+     * to mock content: it throws if the reply cannot be split into all three
+     * sections, so the caller can retry with separate calls.
+     */
+    public FullReport generateFullReport(String resumeText, String jobDescription, boolean isPro) throws Exception {
+        if (apiKey == null || apiKey.isEmpty() || "YOUR_KEY_HERE".equals(apiKey)) {
+            return new FullReport(withSource(getMockResult(isPro), AnalysisResult.Source.MOCK), MOCK_COVER_LETTER,
+                    MOCK_INTERVIEW_QUESTIONS);
+        }
+
+        String response = generateContent(ANALYSIS_MODEL, buildFullReportPrompt(resumeText, jobDescription), isPro);
+        JsonNode report = objectMapper.readTree(stripMarkdownFences(extractTextFromGeminiResponse(response)));
+        JsonNode analysisNode = report.path("analysis");
+        JsonNode coverLetterNode = report.path("coverLetter");
+        JsonNode questionsNode = report.path("interviewQuestions");
+        if (!analysisNode.isObject() || !coverLetterNode.isTextual() || !questionsNode.isArray()) {
+            throw new IllegalStateException("Gemini full report response is missing a section");
+        }
+
+        AnalysisResult analysis = objectMapper.treeToValue(analysisNode, AnalysisResult.class);
+        analysisCache.put(AnalysisCache.keyFor(resumeText, jobDescription, ANALYSIS_MODEL, FULL_REPORT_PROMPT_VERSION),
+                ANALYSIS_MODEL, FULL_REPORT_PROMPT_VERSION, analysis);
+
+        return new FullReport(fromGemini(toTierView(analysis, isPro), FULL_REPORT_PROMPT_VERSION),
+                coverLetterNode.asText().trim(), questionsNode.toString());
     }
 
-    public String enhanceBulletPoint(String bulletPoint, String targetJob) {
+    public String enhanceBulletPoint(String bulletPoint, String targetJob, boolean isPro) {
         if (apiKey == null || apiKey.isEmpty() || "YOUR_KEY_HERE".equals(apiKey)) {
-            return "Accomplished [X] as measured by [Y], by doing [Z]. (Mocked test feature)";
+            return MOCK_ENHANCED_BULLET;
         }
         try {
-            String prompt = "You are a professional resume writer who has drafted resumes for top-tier tech companies. "
-                    +
-                    "Your goal is to rewrite the following resume bullet point to make it extremely impactful, metric-driven, and active. "
-                    +
-                    "STRICTLY follow the XYZ formula: 'Accomplished [X] as measured by [Y], by doing [Z].' " +
-                    "Never hallucinate generic metrics; if there are no metrics, focus on the scope of the accomplishment. ";
-            if (targetJob != null && !targetJob.isBlank()) {
-                prompt += "Tailor it specifically to highlight skills relevant to this role: " + targetJob + ". ";
-            }
+            String prompt = BULLET_REWRITE_INSTRUCTIONS + targetJobClause(targetJob);
             prompt += "Original Bullet point: '" + bulletPoint
                     + "'\n\nReturn EXACTLY AND ONLY the rewritten bullet point text. Do not include introductory phrases like 'Here is the rewritten bullet point:'.";
 
-            Map<String, Object> requestBody = Map.of(
-                    "contents", new Object[] {
-                            Map.of("parts", new Object[] {
-                                    Map.of("text", prompt)
-                            })
-                    });
-
-            String response = restClient.post()
-                    .uri("/v1beta/models/gemini-1.5-flash:generateContent?key={key}", apiKey)
-                    .body(requestBody)
-                    .retrieve()
-                    .body(String.class);
+            String response = generateContent(FLASH_MODEL, prompt, isPro);
 
             return extractTextFromGeminiResponse(response);
+        } catch (ServiceOverloadedException e) {
+            throw e;
         } catch (Exception e) {
-            e.printStackTrace();
+            logger.warn("Bullet enhancement failed, using fallback: {}", e.toString());
             return "Enhanced: " + bulletPoint + " (Mocked fallback)";
         }
     }
 
-    public String generateCoverLetter(String resumeText, String jobDescription) {
+    /**
+     * Rewrites several bullets with one Gemini call. Unlike
+     * {@link #enhanceBulletPoint} this throws if the reply is not a JSON array
+     * with one entry per input bullet, so callers can fall back per bullet.
+     */
+    public List<String> enhanceBulletPoints(List<String> bulletPoints, String targetJob, boolean isPro)
+            throws Exception {
         if (apiKey == null || apiKey.isEmpty() || "YOUR_KEY_HERE".equals(apiKey)) {
-            return "Dear Hiring Manager,\n\nI am writing to express my strong interest in the open position. Please find my resume attached.\n\nSincerely,\nCandidate (Mocked)";
+            return bulletPoints.stream().map(bullet -> MOCK_ENHANCED_BULLET).toList();
         }
-        try {
-            String prompt = "You are an expert career coach and executive recruiter. Write a highly compelling, modern cover letter based on the following resume and job description. "
-                    +
-                    "The letter must be concise (under 300 words), have a strong opening hook, clearly outline the candidate's unique value proposition, and end with a confident call to action. "
-                    +
-                    "Do not use generic cliches like 'I am writing to apply for...'. " +
-                    "Format it cleanly with appropriate paragraph breaks. Do not include placeholder signature headers (like [Date] or [Company Address]).\n\n";
-            if (jobDescription != null && !jobDescription.isBlank()) {
-                prompt += "TARGET JOB DESCRIPTION:\n" + jobDescription + "\n\n";
+        String prompt = BULLET_REWRITE_INSTRUCTIONS + targetJobClause(targetJob)
+                + "Rewrite EACH of the following " + bulletPoints.size() + " bullet points independently.\n"
+                + "Original bullet points (JSON array):\n" + objectMapper.writeValueAsString(bulletPoints)
+                + "\n\nReturn EXACTLY AND ONLY a JSON array of " + bulletPoints.size()
+                + " strings, the rewritten bullets in the same order. Do not include markdown formatting like ```json.";
+
+        String response = generateContent(FLASH_MODEL, prompt, isPro);
+
+        JsonNode rewritten = objectMapper.readTree(stripMarkdownFences(extractTextFromGeminiResponse(response)));
+        if (!rewritten.isArray() || rewritten.size() != bulletPoints.size()) {
+            throw new IllegalStateException("Gemini returned " + rewritten.size() + " bullets for "
+                    + bulletPoints.size() + " inputs");
+        }
+        List<String> results = new ArrayList<>(rewritten.size());
+        for (JsonNode bullet : rewritten) {
+            if (!bullet.isTextual() || bullet.asText().isBlank()) {
+                throw new IllegalStateException("Gemini returned an empty bullet");
             }
-            prompt += "CANDIDATE RESUME:\n" + resumeText + "\n\n";
-            prompt += "Return EXACTLY AND ONLY the text of the cover letter.";
-
-            Map<String, Object> requestBody = Map.of(
-                    "contents", new Object[] {
-                            Map.of("parts", new Object[] {
-                                    Map.of("text", prompt)
-                            })
-                    });
+            results.add(bullet.asText().trim());
+        }
+        return results;
+    }
+
+    private String targetJobClause(String targetJob) {
+        if (targetJob != null && !targetJob.isBlank()) {
+            return "Tailor it specifically to highlight skills relevant to this role: " + targetJob + ". ";
+        }
+        return "";
+    }
 
-            String response = restClient.post()
-                    .uri("/v1beta/models/gemini-1.5-flash:generateContent?key={key}", apiKey)
-                    .body(requestBody)
-                    .retrieve()
-                    .body(String.class);
+    public String generateCoverLetter(String resumeText, String jobDescription, boolean isPro) {
+        if (apiKey == null || apiKey.isEmpty() || "YOUR_KEY_HERE".equals(apiKey)) {
+            return MOCK_COVER_LETTER;
+        }
+        try {
+            String prompt = buildCoverLetterPrompt(resumeText, jobDescription);
+
+            String response = generateContent(FLASH_MODEL, prompt, isPro);
 
             return extractTextFromGeminiResponse(response);
+        } catch (ServiceOverloadedException e) {
+            throw e;
         } catch (Exception e) {
-            e.printStackTrace();
+            logger.warn("Cover letter generation failed, using fallback: {}", e.toString());
             return "Error generating cover letter. (Mocked fallback)";
         }
     }
 
-    public String generateInterviewQuestions(String resumeText, String jobDescription) {
+    /**
+     * Streaming variant of {@link #generateCoverLetter}. Each text chunk is handed
+     * to {@code onChunk} as Gemini produces it; the assembled letter is returned.
+     */
+    public String streamCoverLetter(String resumeText, String jobDescription, boolean isPro,
+            Consumer<String> onChunk) {
         if (apiKey == null || apiKey.isEmpty() || "YOUR_KEY_HERE".equals(apiKey)) {
-            return "[{\"question\":\"Tell me about a challenging project you worked on and how you overcame the obstacles.\",\"tip\":\"Use the STAR method: Situation, Task, Action, Result.\",\"category\":\"Behavioural\"},{\"question\":\"How do you approach debugging a complex production issue?\",\"tip\":\"Mention systematic isolation, logging, and collaboration.\",\"category\":\"Technical\"},{\"question\":\"Describe a time when you disagreed with a technical decision. How did you handle it?\",\"tip\":\"Show maturity and ability to advocate constructively.\",\"category\":\"Behavioural\"},{\"question\":\"What is your approach to writing maintainable, scalable code?\",\"tip\":\"Mention SOLID principles, code reviews, tests.\",\"category\":\"Technical\"},{\"question\":\"Where do you see yourself professionally in 3 years?\",\"tip\":\"Align your growth with the company direction.\",\"category\":\"Career\"}]";
+            return streamMockText(MOCK_COVER_LETTER, onChunk);
         }
-        try {
-            String prompt = "You are a senior engineering hiring manager at a top tech company conducting a technical interview. "
-                    +
-                    "Based on the candidate's resume and the job description provided, generate EXACTLY 5 highly targeted interview questions. "
-                    +
-                    "The questions should be a mix of: behavioural (2 questions), technical (2 questions), and career/motivation (1 question). "
-                    +
-                    "Each question must be specific to the candidate's actual experience and the role—do NOT use generic cookie-cutter questions. "
-                    +
-                    "Return ONLY a valid JSON array (no markdown, no explanation) in this exact format: " +
-                    "[{\"question\": \"...\", \"tip\": \"Brief 1-sentence coaching tip for answering this question well.\", \"category\": \"Behavioural|Technical|Career\"}]\\n\\n";
-
-            if (jobDescription != null && !jobDescription.isBlank()) {
-                prompt += "TARGET ROLE / JOB DESCRIPTION:\\n" + jobDescription + "\\n\\n";
-            }
-            prompt += "CANDIDATE RESUME:\\n" + resumeText;
+        return streamWithFallback(FLASH_MODEL, buildCoverLetterPrompt(resumeText, jobDescription), isPro, onChunk,
+                "Error generating cover letter. (Mocked fallback)");
+    }
 
-            Map<String, Object> requestBody = Map.of(
-                    "contents", new Object[] {
-                            Map.of("parts", new Object[] {
-                                    Map.of("text", prompt)
-                            })
-                    });
+    public String generateInterviewQuestions(String resumeText, String jobDescription, boolean isPro) {
+        if (apiKey == null || apiKey.isEmpty() || "YOUR_KEY_HERE".equals(apiKey)) {
+            return MOCK_INTERVIEW_QUESTIONS;
+        }
+        try {
+            String prompt = buildInterviewQuestionsPrompt(resumeText, jobDescription);
 
-            String response = restClient.post()
-                    .uri("/v1beta/models/gemini-1.5-flash:generateContent?key={key}", apiKey)
-                    .body(requestBody)
-                    .retrieve()
-                    .body(String.class);
+            String response = generateContent(FLASH_MODEL, prompt, isPro);
 
             return extractTextFromGeminiResponse(response);
+        } catch (ServiceOverloadedException e) {
+            throw e;
         } catch (Exception e) {
-            e.printStackTrace();
+            logger.warn("Interview question generation failed, using fallback: {}", e.toString());
             return "[]";
         }
     }
 
-    private String buildPrompt(String resumeText, String jobDescription) {
+    /**
+     * Streaming variant of {@link #generateInterviewQuestions}. Chunks are raw model
+     * output; only the returned, fully assembled text is guaranteed to be valid JSON.
+     */
+    public String streamInterviewQuestions(String resumeText, String jobDescription, boolean isPro,
+            Consumer<String> onChunk) {
+        if (apiKey == null || apiKey.isEmpty() || "YOUR_KEY_HERE".equals(apiKey)) {
+            return streamMockText(MOCK_INTERVIEW_QUESTIONS, onChunk);
+        }
+        return streamWithFallback(FLASH_MODEL, buildInterviewQuestionsPrompt(resumeText, jobDescription), isPro,
+                onChunk, "[]");
+    }
+
+    /**
+     * Removes the markdown code fences Gemini sometimes wraps JSON in.
+     */
+    public static String stripMarkdownFences(String text) {
+        String cleaned = text.trim();
+        if (cleaned.startsWith("```json"))
+            cleaned = cleaned.substring(7);
+        if (cleaned.startsWith("```"))
+            cleaned = cleaned.substring(3);
+        if (cleaned.endsWith("```"))
+            cleaned = cleaned.substring(0, cleaned.length() - 3);
+        return cleaned.trim();
+    }
+
+    String buildCoverLetterPrompt(String resumeText, String jobDescription) {
+        String prompt = "You are an expert career coach and executive recruiter. Write a highly compelling, modern cover letter based on the following resume and job description. "
+                +
+                "The letter must be concise (under 300 words), have a strong opening hook, clearly outline the candidate's unique value proposition, and end with a confident call to action. "
+                +
+                "Do not use generic cliches like 'I am writing to apply for...'. " +
+                "Format it cleanly with appropriate paragraph breaks. Do not include placeholder signature headers (like [Date] or [Company Address]).\n\n";
+        if (jobDescription != null && !jobDescription.isBlank()) {
+            prompt += "TARGET JOB DESCRIPTION:\n" + jobDescription + "\n\n";
+        }
+        prompt += "CANDIDATE RESUME:\n" + promptResumeText(resumeText) + "\n\n";
+        prompt += "Return EXACTLY AND ONLY the text of the cover letter.";
+        return prompt;
+    }
+
+    String buildInterviewQuestionsPrompt(String resumeText, String jobDescription) {
+        String prompt = "You are a senior engineering hiring manager at a top tech company conducting a technical interview. "
+                +
+                "Based on the candidate's resume and the job description provided, generate EXACTLY 5 highly targeted interview questions. "
+                +
+                "The questions should be a mix of: behavioural (2 questions), technical (2 questions), and career/motivation (1 question). "
+                +
+                "Each question must be specific to the candidate's actual experience and the role—do NOT use generic cookie-cutter questions. "
+                +
+                "Return ONLY a valid JSON array (no markdown, no explanation) in this exact format: " +
+                "[{\"question\": \"...\", \"tip\": \"Brief 1-sentence coaching tip for answering this question well.\", \"category\": \"Behavioural|Technical|Career\"}]\\n\\n";
+
+        if (jobDescription != null && !jobDescription.isBlank()) {
+            prompt += "TARGET ROLE / JOB DESCRIPTION:\\n" + jobDescription + "\\n\\n";
+        }
+        prompt += "CANDIDATE RESUME:\\n" + promptResumeText(segmenter.select(resumeText, INTERVIEW_SECTIONS));
+        return prompt;
+    }
+
+    /**
+     * Sends a single non-streaming generateContent call. Identical concurrent
+     * requests (same model and prompt) are collapsed into one upstream call, and
+     * only that call occupies a bulkhead slot. The call fails fast while the
+     * model's circuit is open, and flash calls may be hedged.
+     */
+    private String generateContent(String model, String prompt, boolean isPro) throws Exception {
+        return inFlightRequests.execute(model + ":" + HashUtils.sha256Hex(prompt),
+                () -> circuitBreaker.call(model, () -> hedger.execute(model,
+                        () -> postGenerateContent(model, prompt), bulkhead.acquire(model, isPro),
+                        () -> bulkhead.tryAcquire(model))));
+    }
+
+    private String postGenerateContent(String model, String prompt) {
+        Map<String, Object> requestBody = Map.of(
+                "contents", new Object[] {
+                        Map.of("parts", new Object[] {
+                                Map.of("text", prompt)
+                        })
+                });
+
+        return clientFor(model).post()
+                .uri("/v1beta/models/" + model + ":generateContent?key={key}", apiKey)
+                .body(requestBody)
+                .retrieve()
+                .body(String.class);
+    }
+
+    private String streamWithFallback(String model, String prompt, boolean isPro, Consumer<String> onChunk,
+            String fallback) {
+        AtomicBoolean emitted = new AtomicBoolean(false);
+        // The slot is held for the whole stream since the upstream connection stays open
+        try {
+            return circuitBreaker.call(model, () -> {
+                try (GeminiBulkhead.Permit permit = bulkhead.acquire(model, isPro)) {
+                    return streamGenerateContent(model, prompt, chunk -> {
+                        emitted.set(true);
+                        onChunk.accept(chunk);
+                    });
+                }
+            });
+        } catch (ServiceOverloadedException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.warn("Gemini stream failed: {}", e.toString());
+            // Only substitute the fallback if the client has not seen partial output yet
+            if (!emitted.get()) {
+                onChunk.accept(fallback);
+                return fallback;
+            }
+            throw new IllegalStateException("Gemini stream was interrupted", e);
+        }
+    }
+
+    /**
+     * Calls {@code streamGenerateContent} with SSE framing and relays each text
+     * part as it arrives. Returns the concatenation of all parts.
+     */
+    private String streamGenerateContent(String model, String prompt, Consumer<String> onChunk) {
+        Map<String, Object> requestBody = Map.of(
+                "contents", new Object[] {
+                        Map.of("parts", new Object[] {
+                                Map.of("text", prompt)
+                        })
+                });
+
+        return clientFor(model).post()
+                .uri("/v1beta/models/" + model + ":streamGenerateContent?alt=sse&key={key}", apiKey)
+                .body(requestBody)
+                .exchange((request, response) -> {
+                    if (response.getStatusCode().isError()) {
+                        throw new RestClientResponseException("Gemini stream failed", response.getStatusCode(),
+                                response.getStatusText(), response.getHeaders(), null, null);
+                    }
+                    StringBuilder assembled = new StringBuilder();
+                    try (BufferedReader reader = new BufferedReader(
+                            new InputStreamReader(response.getBody(), StandardCharsets.UTF_8))) {
+                        String line;
+                        while ((line = reader.readLine()) != null) {
+                            if (!line.startsWith("data:")) {
+                                continue;
+                            }
+                            String chunk = extractChunkText(line.substring(5).trim());
+                            if (!chunk.isEmpty()) {
+                                assembled.append(chunk);
+                                onChunk.accept(chunk);
+                            }
+                        }
+                    }
+                    return assembled.toString();
+                });
+    }
+
+    private String extractChunkText(String json) throws IOException {
+        JsonNode root = objectMapper.readTree(json);
+        // Stream chunks are not trimmed; whitespace at chunk borders is significant
+        return root.path("candidates").path(0).path("content").path("parts").path(0).path("text").asText("");
+    }
+
+    private String streamMockText(String text, Consumer<String> onChunk) {
+        for (String word : text.split("(?<= )")) {
+            onChunk.accept(word);
+        }
+        return text;
+    }
+
+    String buildPrompt(String resumeText, String jobDescription) {
         String base = "You are an elite executive career coach and a ruthless Applicant Tracking System (ATS) algorithm for top-tier tech companies. "
                 +
                 "Evaluate the following resume with extreme scrutiny, extracting detailed numerical scores. " +
                 "You MUST return your response ENTIRELY and EXCLUSIVELY as a valid JSON object. Do not include markdown formatting like ```json. "
                 +
                 "The JSON object MUST contain the exact following keys and data types:\n" +
-                "- 'atsScore' (integer 0-100: overall parseability and relevance)\n" +
-                "- 'impactScore' (integer 0-100: measures use of quantifiable metrics, percentages, and dollar amounts)\n"
+                ANALYSIS_FIELDS + "\n";
+
+        base += jobDescriptionSection(jobDescription);
+        base += "RESUME TEXT TO EVALUATE:\n" + promptResumeText(resumeText);
+        return base;
+    }
+
+    /**
+     * One prompt for the analysis, cover letter and interview questions, so the
+     * resume and job description are only sent (and billed) once.
+     */
+    String buildFullReportPrompt(String resumeText, String jobDescription) {
+        String base = "You are an elite executive career coach, a ruthless Applicant Tracking System (ATS) algorithm for top-tier tech companies, "
                 +
-                "- 'brevityScore' (integer 0-100: penalizes walls of text; rewards concise, scannable bullet points)\n"
+                "and a senior hiring manager. Produce three artifacts for the candidate below in a single response. " +
+                "You MUST return your response ENTIRELY and EXCLUSIVELY as a valid JSON object. Do not include markdown formatting like ```json. "
+                +
+                "The JSON object MUST contain exactly these top-level keys:\n" +
+                "- 'analysis' (object: evaluate the resume with extreme scrutiny; it MUST contain the exact following keys and data types:\n"
+                + ANALYSIS_FIELDS + ")\n" +
+                "- 'coverLetter' (string: a highly compelling, modern cover letter under 300 words with a strong opening hook, the candidate's unique value proposition "
                 +
-                "- 'actionVerbScore' (integer 0-100: evaluates whether bullets start with strong power verbs vs weak passive verbs)\n"
+                "and a confident call to action; no generic cliches like 'I am writing to apply for...' and no placeholder signature headers; use \\n for paragraph breaks)\n"
                 +
-                "- 'summary' (string: a concise, 2-sentence brutal but constructive evaluation)\n" +
-                "- 'strengths' (string: a bulleted list using • of 3 key strengths)\n" +
-                "- 'weaknesses' (string: a bulleted list using • of 3 critical flaws or missing elements)\n" +
-                "- 'suggestedImprovements' (string: a bulleted list using • of 3 highly actionable, specific commands to improve the resume)\n"
+                "- 'interviewQuestions' (array of EXACTLY 5 objects {\"question\": \"...\", \"tip\": \"Brief 1-sentence coaching tip\", \"category\": \"Behavioural|Technical|Career\"}: "
                 +
-                "- 'foundKeywords' (string: comma separated list of recognized hard skills)\n" +
-                "- 'missingKeywords' (string: comma separated list of important skills that are missing).\n\n";
+                "2 behavioural, 2 technical and 1 career/motivation question, each specific to the candidate's actual experience and the role).\n\n";
+
+        base += jobDescriptionSection(jobDescription);
+        base += "RESUME TEXT TO EVALUATE:\n" + promptResumeText(resumeText);
+        return base;
+    }
+
+    private String promptResumeText(String resumeText) {
+        return compactor.compactForPrompt(resumeText).text();
+    }
 
+    private String jobDescriptionSection(String jobDescription) {
         if (jobDescription != null && !jobDescription.isBlank()) {
-            base += "Analyze the resume specifically against this JOB DESCRIPTION:\n" + jobDescription + "\n\n";
-            base += "Be extremely diligent in identifying 'missingKeywords' from the Job Description that do not appear in the Resume.\n\n";
-        } else {
-            base += "Since no job description was provided, evaluate it against general best practices for a modern Software Engineering or Tech role.\n\n";
+            return "Analyze the resume specifically against this JOB DESCRIPTION:\n" + jobDescription + "\n\n"
+                    + "Be extremely diligent in identifying 'missingKeywords' from the Job Description that do not appear in the Resume.\n\n";
         }
-
-        base += "RESUME TEXT TO EVALUATE:\n" + resumeText;
-        return base;
+        return "Since no job description was provided, evaluate it against general best practices for a modern Software Engineering or Tech role.\n\n";
     }
 
-    private AnalysisResult parseResponse(String rawResponse) {
-        try {
-            String text = extractTextFromGeminiResponse(rawResponse);
-            // Clean up Markdown JSON blocks if present
-            if (text.startsWith("```json")) {
-                text = text.substring(7);
-            } else if (text.startsWith("```")) {
-                text = text.substring(3);
-            }
-            if (text.endsWith("```")) {
-                text = text.substring(0, text.length() - 3);
-            }
-            return objectMapper.readValue(text.trim(), AnalysisResult.class);
-        } catch (Exception e) {
-            e.printStackTrace();
-            return getMockResult(false);
+    private AnalysisResult parseResponse(String rawResponse) throws JsonProcessingException {
+        String text = extractTextFromGeminiResponse(rawResponse);
+        // Clean up Markdown JSON blocks if present
+        if (text.startsWith("```json")) {
+            text = text.substring(7);
+        } else if (text.startsWith("```")) {
+            text = text.substring(3);
+        }
+        if (text.endsWith("```")) {
+            text = text.substring(0, text.length() - 3);
         }
+        // Throwing here keeps unparseable responses out of the analysis cache
+        return objectMapper.readValue(text.trim(), AnalysisResult.class);
     }
 
     private String extractTextFromGeminiResponse(String response) {
         try {
-            com.fasterxml.jackson.databind.JsonNode root = objectMapper.readTree(response);
+            JsonNode root = objectMapper.readTree(response);
             return root.path("candidates").get(0).path("content").path("parts").get(0).path("text").asText().trim();
         } catch (Exception e) {
             return "Error parsing AI response";
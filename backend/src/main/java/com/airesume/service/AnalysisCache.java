@@ -0,0 +1,153 @@
+package com.airesume.service;
+
+import com.airesume.entity.AnalysisCacheEntry;
+import com.airesume.entity.AnalysisResult;
+import com.airesume.repository.AnalysisCacheEntryRepository;
+import com.airesume.util.HashUtils;
+import com.airesume.util.LruCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Two-tier cache of full analysis results: an in-memory LRU in front of the
+ * {@code analysis_cache} table. Entries always hold the complete Pro analysis;
+ * callers derive the free-tier view on read.
+ */
+@Service
+public class AnalysisCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisCache.class);
+
+    private final AnalysisCacheEntryRepository repository;
+    private final ObjectMapper objectMapper;
+    private final LruCache<String, String> memory;
+    private final Duration ttl;
+
+    private final Counter memoryHits;
+    private final Counter databaseHits;
+    private final Counter misses;
+
+    public AnalysisCache(AnalysisCacheEntryRepository repository,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${analysis.cache.max-entries:1000}") int maxEntries,
+            @Value("${analysis.cache.ttl-hours:168}") long ttlHours) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.memory = new LruCache<>(maxEntries, ttl);
+
+        this.memoryHits = Counter.builder("analysis.cache.requests")
+                .tag("result", "hit").tag("tier", "memory").register(meterRegistry);
+        this.databaseHits = Counter.builder("analysis.cache.requests")
+                .tag("result", "hit").tag("tier", "database").register(meterRegistry);
+        this.misses = Counter.builder("analysis.cache.requests")
+                .tag("result", "miss").tag("tier", "none").register(meterRegistry);
+        Gauge.builder("analysis.cache.memory.size", memory, LruCache::size).register(meterRegistry);
+    }
+
+    /**
+     * Builds the cache key. Whitespace differences in the resume text or job
+     * description do not produce distinct entries.
+     */
+    public static String keyFor(String resumeText, String jobDescription, String model, String promptVersion) {
+        return HashUtils.sha256Hex(normalize(resumeText), normalize(jobDescription), model, promptVersion);
+    }
+
+    /**
+     * Hashes a job description the same way {@link #keyFor} sees it, so stored
+     * results can be matched to a later request for the same posting.
+     */
+    public static String jobDescriptionKey(String jobDescription) {
+        return HashUtils.sha256Hex(normalize(jobDescription));
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.strip().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Returns a fresh copy of the cached full analysis, so callers are free to
+     * mutate and persist it.
+     */
+    public Optional<AnalysisResult> get(String key) {
+        String payload = memory.get(key);
+        if (payload != null) {
+            memoryHits.increment();
+            return Optional.ofNullable(deserialize(payload));
+        }
+
+        try {
+            Optional<AnalysisCacheEntry> stored = repository.findByCacheKey(key);
+            if (stored.isPresent() && !isExpired(stored.get())) {
+                AnalysisResult result = deserialize(stored.get().getPayload());
+                if (result != null) {
+                    memory.put(key, stored.get().getPayload());
+                    databaseHits.increment();
+                    return Optional.of(result);
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Analysis cache lookup failed for key {}", key, e);
+        }
+
+        misses.increment();
+        return Optional.empty();
+    }
+
+    public void put(String key, String model, String promptVersion, AnalysisResult fullResult) {
+        String payload;
+        try {
+            AnalysisResult copy = objectMapper.readValue(objectMapper.writeValueAsString(fullResult),
+                    AnalysisResult.class);
+            copy.setId(null);
+            copy.setResumeId(null);
+            copy.setPartialAnalysis(false);
+            payload = objectMapper.writeValueAsString(copy);
+        } catch (Exception e) {
+            logger.warn("Could not serialize analysis result for caching", e);
+            return;
+        }
+
+        memory.put(key, payload);
+
+        try {
+            AnalysisCacheEntry entry = repository.findByCacheKey(key).orElseGet(AnalysisCacheEntry::new);
+            entry.setCacheKey(key);
+            entry.setModel(model);
+            entry.setPromptVersion(promptVersion);
+            entry.setPayload(payload);
+            entry.setCreatedAt(LocalDateTime.now());
+            repository.save(entry);
+        } catch (Exception e) {
+            // A concurrent writer may have stored the same key first; the memory tier is still populated.
+            logger.warn("Could not persist analysis cache entry for key {}", key, e);
+        }
+    }
+
+    private boolean isExpired(AnalysisCacheEntry entry) {
+        return entry.getCreatedAt() != null && entry.getCreatedAt().plus(ttl).isBefore(LocalDateTime.now());
+    }
+
+    private AnalysisResult deserialize(String payload) {
+        try {
+            return objectMapper.readValue(payload, AnalysisResult.class);
+        } catch (Exception e) {
+            logger.warn("Discarding unreadable analysis cache entry", e);
+            return null;
+        }
+    }
+}
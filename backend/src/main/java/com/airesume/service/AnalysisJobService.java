@@ -0,0 +1,318 @@
+package com.airesume.service;
+
+import com.airesume.entity.AnalysisJob;
+import com.airesume.entity.AnalysisResult;
+import com.airesume.entity.Resume;
+import com.airesume.entity.User;
+import com.airesume.repository.AnalysisJobRepository;
+import com.airesume.repository.AnalysisResultRepository;
+import com.airesume.repository.ResumeRepository;
+import com.airesume.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs resume analyses off the request thread. Jobs are persisted before they
+ * are queued on a bounded executor, so queued work survives a restart, and
+ * clients follow progress by polling or over Server-Sent Events.
+ */
+@Service
+public class AnalysisJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisJobService.class);
+
+    private static final EnumSet<AnalysisJob.Status> PENDING = EnumSet.of(AnalysisJob.Status.QUEUED,
+            AnalysisJob.Status.RUNNING);
+
+    private final AnalysisJobRepository jobRepository;
+    private final AiAnalysisService aiAnalysisService;
+    private final ResumeRepository resumeRepository;
+    private final AnalysisResultRepository analysisResultRepository;
+    private final UserRepository userRepository;
+    private final PdfPrerenderService pdfPrerenderService;
+    private final ThreadPoolExecutor executor;
+    private final long sseTimeoutMs;
+
+    private final Map<String, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+    private final Timer waitTimer;
+    private final Timer runTimer;
+
+    public AnalysisJobService(AnalysisJobRepository jobRepository,
+            AiAnalysisService aiAnalysisService,
+            ResumeRepository resumeRepository,
+            AnalysisResultRepository analysisResultRepository,
+            UserRepository userRepository,
+            PdfPrerenderService pdfPrerenderService,
+            MeterRegistry meterRegistry,
+            @Value("${analysis.jobs.pool-size:4}") int poolSize,
+            @Value("${analysis.jobs.queue-capacity:200}") int queueCapacity,
+            @Value("${analysis.jobs.sse-timeout-ms:300000}") long sseTimeoutMs) {
+        this.jobRepository = jobRepository;
+        this.aiAnalysisService = aiAnalysisService;
+        this.resumeRepository = resumeRepository;
+        this.analysisResultRepository = analysisResultRepository;
+        this.userRepository = userRepository;
+        this.pdfPrerenderService = pdfPrerenderService;
+        this.sseTimeoutMs = sseTimeoutMs;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "analysis-job-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        Gauge.builder("analysis.jobs.queue.depth", executor, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder("analysis.jobs.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+        this.waitTimer = Timer.builder("analysis.jobs.wait")
+                .description("Time between a job being queued and starting")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("analysis.jobs.duration")
+                .description("Time spent running a queued analysis")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns true if a free user's already-used scans plus their pending jobs
+     * would exceed the free quota.
+     */
+    public boolean wouldExceedFreeQuota(User user, int freeScanLimit) {
+        long pending = jobRepository.countByUserIdAndStatusIn(user.getId(), PENDING);
+        return user.getScansUsed() + pending >= freeScanLimit;
+    }
+
+    /**
+     * The latest stored Gemini analysis of the resume against the same job
+     * description at the caller's tier, from the current model and prompt.
+     * Local, degraded and mock results are never reused.
+     */
+    public Optional<AnalysisResult> findReusableResult(Resume resume, String jobDescription, boolean isPro) {
+        return analysisResultRepository
+                .findFirstByResumeIdAndJobDescriptionHashAndIsPartialAnalysisAndSourceAndModelAndPromptVersionOrderByIdDesc(
+                        resume.getId(), AnalysisCache.jobDescriptionKey(jobDescription), !isPro,
+                        AnalysisResult.Source.GEMINI, AiAnalysisService.ANALYSIS_MODEL,
+                        AiAnalysisService.ANALYSIS_PROMPT_VERSION);
+    }
+
+    public AnalysisJob submit(Resume resume, String jobDescription, User user) {
+        AnalysisJob job = new AnalysisJob();
+        job.setId(UUID.randomUUID().toString());
+        job.setResumeId(resume.getId());
+        job.setJobDescription(jobDescription);
+        if (user != null) {
+            job.setUserId(user.getId());
+            job.setPro(user.isPro());
+        }
+        AnalysisJob saved = jobRepository.save(job);
+
+        try {
+            enqueue(saved.getId());
+        } catch (RejectedExecutionException e) {
+            saved.setStatus(AnalysisJob.Status.FAILED);
+            saved.setErrorMessage("Analysis queue is full");
+            saved.setCompletedAt(LocalDateTime.now());
+            jobRepository.save(saved);
+            throw new ServiceOverloadedException("Too many analyses are queued. Please try again shortly.", 10);
+        }
+        return saved;
+    }
+
+    public Optional<AnalysisJob> findJob(String jobId) {
+        return jobRepository.findById(jobId);
+    }
+
+    /**
+     * Opens an SSE stream for the job. The current state is sent immediately and
+     * the stream completes once the job reaches a terminal state.
+     */
+    public SseEmitter subscribe(AnalysisJob job) {
+        SseEmitter emitter = newEmitter();
+        if (job.getStatus().isTerminal()) {
+            sendAndComplete(emitter, job);
+            return emitter;
+        }
+
+        List<SseEmitter> jobEmitters = emitters.computeIfAbsent(job.getId(), id -> new CopyOnWriteArrayList<>());
+        jobEmitters.add(emitter);
+        emitter.onCompletion(() -> jobEmitters.remove(emitter));
+        emitter.onTimeout(() -> jobEmitters.remove(emitter));
+        emitter.onError(error -> jobEmitters.remove(emitter));
+
+        // Re-read in case the job finished between the caller's lookup and registration
+        AnalysisJob current = jobRepository.findById(job.getId()).orElse(job);
+        send(emitter, current);
+        if (current.getStatus().isTerminal()) {
+            emitter.complete();
+        }
+        return emitter;
+    }
+
+    public Map<String, Object> describe(AnalysisJob job) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("jobId", job.getId());
+        view.put("resumeId", job.getResumeId());
+        view.put("status", job.getStatus().name());
+        view.put("createdAt", job.getCreatedAt());
+        view.put("startedAt", job.getStartedAt());
+        view.put("completedAt", job.getCompletedAt());
+        if (job.getStatus() == AnalysisJob.Status.COMPLETED && job.getAnalysisResultId() != null) {
+            analysisResultRepository.findById(job.getAnalysisResultId()).ifPresent(r -> view.put("result", r));
+        }
+        if (job.getErrorMessage() != null) {
+            view.put("error", job.getErrorMessage());
+        }
+        return view;
+    }
+
+    /**
+     * Re-queues work that was accepted but not finished before the last shutdown.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePendingJobs() {
+        List<AnalysisJob> pending = jobRepository.findAllByStatusInOrderByCreatedAtAsc(PENDING);
+        if (pending.isEmpty()) {
+            return;
+        }
+        logger.info("Re-queuing {} analysis job(s) left over from the previous run", pending.size());
+        for (AnalysisJob job : pending) {
+            if (job.getStatus() == AnalysisJob.Status.RUNNING) {
+                job.setStatus(AnalysisJob.Status.QUEUED);
+                job.setStartedAt(null);
+                jobRepository.save(job);
+            }
+            try {
+                enqueue(job.getId());
+            } catch (RejectedExecutionException e) {
+                logger.warn("Analysis queue full while recovering; job {} stays queued until next restart",
+                        job.getId());
+            }
+        }
+    }
+
+    SseEmitter newEmitter() {
+        return new SseEmitter(sseTimeoutMs);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void enqueue(String jobId) {
+        executor.execute(() -> run(jobId));
+    }
+
+    private void run(String jobId) {
+        AnalysisJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null || job.getStatus() != AnalysisJob.Status.QUEUED) {
+            return;
+        }
+
+        job.setStatus(AnalysisJob.Status.RUNNING);
+        job.setStartedAt(LocalDateTime.now());
+        job = jobRepository.save(job);
+        waitTimer.record(Duration.between(job.getCreatedAt(), job.getStartedAt()));
+        publish(job);
+
+        long start = System.nanoTime();
+        try {
+            Resume resume = resumeRepository.findById(job.getResumeId())
+                    .orElseThrow(() -> new IllegalStateException("Resume not found"));
+            User user = job.getUserId() != null ? userRepository.findById(job.getUserId()).orElse(null) : null;
+            boolean isProUser = user != null ? user.isPro() : job.isPro();
+
+            AnalysisResult result = aiAnalysisService.analyzeResume(resume.getExtractedText(),
+                    job.getJobDescription(), isProUser);
+            result.setResumeId(resume.getId());
+            result.setJobDescriptionHash(AnalysisCache.jobDescriptionKey(job.getJobDescription()));
+            AnalysisResult savedResult = analysisResultRepository.save(result);
+            pdfPrerenderService.schedule(resume, isProUser);
+
+            // Same quota accounting as the synchronous endpoint
+            if (user != null && !isProUser) {
+                user.setScansUsed(user.getScansUsed() + 1);
+                userRepository.save(user);
+            }
+
+            job.setAnalysisResultId(savedResult.getId());
+            job.setStatus(AnalysisJob.Status.COMPLETED);
+        } catch (Exception e) {
+            logger.error("Analysis job {} failed", jobId, e);
+            job.setStatus(AnalysisJob.Status.FAILED);
+            job.setErrorMessage(e.getMessage());
+        } finally {
+            runTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            job.setCompletedAt(LocalDateTime.now());
+            try {
+                job = jobRepository.save(job);
+            } catch (Exception e) {
+                // Subscribers still get the outcome; the row is re-queued on the next restart
+                logger.error("Failed to record the outcome of analysis job {}", jobId, e);
+            }
+            publish(job);
+        }
+    }
+
+    private void publish(AnalysisJob job) {
+        List<SseEmitter> jobEmitters = emitters.get(job.getId());
+        if (jobEmitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : jobEmitters) {
+            if (job.getStatus().isTerminal()) {
+                sendAndComplete(emitter, job);
+            } else {
+                send(emitter, job);
+            }
+        }
+        if (job.getStatus().isTerminal()) {
+            emitters.remove(job.getId());
+        }
+    }
+
+    private void sendAndComplete(SseEmitter emitter, AnalysisJob job) {
+        if (send(emitter, job)) {
+            emitter.complete();
+        }
+    }
+
+    private boolean send(SseEmitter emitter, AnalysisJob job) {
+        try {
+            emitter.send(SseEmitter.event().name("status").data(describe(job)));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the completion callbacks drop the emitter
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.airesume.service;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk upload: one status per file in upload order, plus totals
+ * and the achieved throughput.
+ */
+public record BulkIngestionReport(List<FileStatus> files, int created, int duplicates, int failed,
+        long elapsedMs, double resumesPerSecond) {
+
+    /**
+     * @param status   {@code created}, {@code duplicate} or {@code failed}
+     * @param resumeId the new resume, or the existing one for a duplicate
+     */
+    public record FileStatus(String fileName, String status, Long resumeId, String error) {
+    }
+}
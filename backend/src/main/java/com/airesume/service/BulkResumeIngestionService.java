@@ -0,0 +1,370 @@
+package com.airesume.service;
+
+import com.airesume.entity.Resume;
+import com.airesume.entity.ResumeSection;
+import com.airesume.entity.User;
+import com.airesume.repository.ResumeBatchWriter;
+import com.airesume.repository.ResumeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Ingests many resumes in one request. Files arrive as PDFs, or as ZIP
+ * archives whose entries are read one at a time straight off the request
+ * stream, so the archive is never held in memory or on disk in full. Each
+ * PDF is spooled and hashed, then parsed on the shared parse pool with a few
+ * documents in flight at once. Finished resumes are inserted in JDBC batches,
+ * each in its own transaction; a batch that cannot be written fails only its
+ * own files. Files the user has uploaded before are reported as duplicates and not
+ * parsed again.
+ */
+@Service
+public class BulkResumeIngestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkResumeIngestionService.class);
+
+    private final PdfParserService pdfParserService;
+    private final PdfParseExecutor pdfParseExecutor;
+    private final ResumeTextCompactor compactor;
+    private final ResumeSegmenter segmenter;
+    private final ResumeRepository resumeRepository;
+    private final ResumeBatchWriter batchWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxFiles;
+    private final long maxFileBytes;
+    private final int maxInFlight;
+    private final int insertBatchSize;
+
+    private final Counter createdFiles;
+    private final Counter duplicateFiles;
+    private final Counter failedFiles;
+    private final Timer duration;
+
+    public BulkResumeIngestionService(PdfParserService pdfParserService,
+            PdfParseExecutor pdfParseExecutor,
+            ResumeTextCompactor compactor,
+            ResumeSegmenter segmenter,
+            ResumeRepository resumeRepository,
+            ResumeBatchWriter batchWriter,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${resume.bulk.max-files:500}") int maxFiles,
+            @Value("${resume.bulk.max-file-bytes:10485760}") long maxFileBytes,
+            @Value("${resume.bulk.max-in-flight:0}") int maxInFlight,
+            @Value("${resume.bulk.insert-batch-size:50}") int insertBatchSize) {
+        this.pdfParserService = pdfParserService;
+        this.pdfParseExecutor = pdfParseExecutor;
+        this.compactor = compactor;
+        this.segmenter = segmenter;
+        this.resumeRepository = resumeRepository;
+        this.batchWriter = batchWriter;
+        this.transactionTemplate = transactionTemplate;
+        this.maxFiles = maxFiles;
+        this.maxFileBytes = maxFileBytes;
+        // Enough to keep every parse worker busy while the next file is being spooled
+        this.maxInFlight = maxInFlight > 0 ? maxInFlight : pdfParseExecutor.poolSize() * 2;
+        this.insertBatchSize = Math.max(1, insertBatchSize);
+
+        this.createdFiles = filesCounter(meterRegistry, "created");
+        this.duplicateFiles = filesCounter(meterRegistry, "duplicate");
+        this.failedFiles = filesCounter(meterRegistry, "failed");
+        this.duration = Timer.builder("resume.bulk.duration").register(meterRegistry);
+    }
+
+    /**
+     * Ingests a ZIP archive read from the stream.
+     */
+    public BulkIngestionReport ingestZip(InputStream archive, User user) throws IOException {
+        Ingestion ingestion = new Ingestion(user);
+        try {
+            ingestion.addArchive(archive);
+            return ingestion.finish();
+        } finally {
+            ingestion.abandon();
+        }
+    }
+
+    /**
+     * Ingests uploaded files. A file named {@code *.zip} is expanded, anything
+     * else is treated as a PDF.
+     */
+    public BulkIngestionReport ingestFiles(List<MultipartFile> files, User user) throws IOException {
+        Ingestion ingestion = new Ingestion(user);
+        try {
+            for (MultipartFile file : files) {
+                try (InputStream in = file.getInputStream()) {
+                    if (isZip(file.getOriginalFilename())) {
+                        ingestion.addArchive(in);
+                    } else {
+                        ingestion.add(file.getOriginalFilename(), in);
+                    }
+                }
+            }
+            return ingestion.finish();
+        } finally {
+            ingestion.abandon();
+        }
+    }
+
+    private static boolean isZip(String name) {
+        return name != null && name.toLowerCase(Locale.ROOT).endsWith(".zip");
+    }
+
+    private static Counter filesCounter(MeterRegistry meterRegistry, String status) {
+        return Counter.builder("resume.bulk.files").tag("status", status).register(meterRegistry);
+    }
+
+    /**
+     * One file of the upload. Duplicates point at the resume they duplicate,
+     * which may only get its id when its batch is written.
+     */
+    private static final class Entry {
+
+        final String fileName;
+        String status;
+        Resume resume;
+        Long existingId;
+        String error;
+
+        Entry(String fileName) {
+            this.fileName = fileName;
+        }
+
+        void fail(String message) {
+            status = "failed";
+            error = message;
+        }
+    }
+
+    private record InFlight(Entry entry, PdfParserService.SpooledUpload upload,
+            PdfParseExecutor.PendingParse parse) {
+    }
+
+    /**
+     * State of a single bulk request.
+     */
+    private final class Ingestion {
+
+        private final User user;
+        private final long startedAt = System.nanoTime();
+        private final List<Entry> entries = new ArrayList<>();
+        private final Map<String, Long> existingByHash = new HashMap<>();
+        private final Map<String, Entry> newByHash = new HashMap<>();
+        private final Deque<InFlight> inFlight = new ArrayDeque<>();
+        private final List<Resume> pendingResumes = new ArrayList<>();
+        private final List<Entry> pendingEntries = new ArrayList<>();
+        private final List<ResumeSection> pendingSections = new ArrayList<>();
+        // The resume each pending section belongs to, by index; ids are only known after insert
+        private final List<Resume> sectionOwners = new ArrayList<>();
+
+        Ingestion(User user) {
+            this.user = user;
+            for (ResumeRepository.ContentHashView existing : resumeRepository.findAllByUserAndContentHashIsNotNull(user)) {
+                existingByHash.putIfAbsent(existing.getContentHash(), existing.getId());
+            }
+        }
+
+        void addArchive(InputStream archive) throws IOException {
+            ZipInputStream zip = new ZipInputStream(archive);
+            ZipEntry zipEntry;
+            while ((zipEntry = zip.getNextEntry()) != null) {
+                String name = zipEntry.getName();
+                String baseName = name.substring(name.lastIndexOf('/') + 1);
+                // Folders and the metadata macOS adds to archives
+                if (zipEntry.isDirectory() || name.startsWith("__MACOSX/") || baseName.startsWith(".")) {
+                    continue;
+                }
+                add(baseName, zip);
+            }
+        }
+
+        void add(String fileName, InputStream in) throws IOException {
+            Entry entry = new Entry(fileName);
+            entries.add(entry);
+            if (entries.size() > maxFiles) {
+                entry.fail("Only " + maxFiles + " files can be uploaded at once.");
+                return;
+            }
+            if (fileName == null || !fileName.toLowerCase(Locale.ROOT).endsWith(".pdf")) {
+                entry.fail("Not a PDF file.");
+                return;
+            }
+
+            PdfParserService.SpooledUpload upload;
+            try {
+                upload = pdfParserService.spool(in, maxFileBytes);
+            } catch (IllegalArgumentException e) {
+                entry.fail(e.getMessage());
+                return;
+            }
+
+            Long existingId = existingByHash.get(upload.sha256());
+            Entry earlier = newByHash.get(upload.sha256());
+            if (existingId != null || earlier != null) {
+                entry.status = "duplicate";
+                entry.existingId = existingId;
+                entry.resume = earlier != null ? earlier.resume : null;
+                upload.close();
+                return;
+            }
+            entry.resume = new Resume();
+            newByHash.put(upload.sha256(), entry);
+
+            while (inFlight.size() >= maxInFlight) {
+                complete(inFlight.poll());
+            }
+            PdfParseExecutor.PendingParse parse = null;
+            while (parse == null) {
+                try {
+                    parse = pdfParseExecutor.submit(upload.path());
+                } catch (ServiceOverloadedException e) {
+                    // The pool is shared with single uploads; make room by finishing our oldest parse
+                    if (inFlight.isEmpty()) {
+                        entry.fail(e.getMessage());
+                        upload.close();
+                        return;
+                    }
+                    complete(inFlight.poll());
+                }
+            }
+            inFlight.add(new InFlight(entry, upload, parse));
+        }
+
+        BulkIngestionReport finish() throws IOException {
+            while (!inFlight.isEmpty()) {
+                complete(inFlight.poll());
+            }
+            flush();
+
+            List<BulkIngestionReport.FileStatus> files = new ArrayList<>(entries.size());
+            int created = 0;
+            int duplicates = 0;
+            for (Entry entry : entries) {
+                if (entry.status == null && entry.resume != null) {
+                    entry.status = "created";
+                }
+                // A duplicate of a file that failed later in the same upload has nothing to point at
+                if ("duplicate".equals(entry.status) && entry.existingId == null
+                        && (entry.resume == null || entry.resume.getId() == null)) {
+                    entry.fail("Duplicate of a file that could not be processed.");
+                }
+                Long resumeId = entry.existingId != null ? entry.existingId
+                        : entry.resume != null ? entry.resume.getId() : null;
+                switch (entry.status) {
+                    case "created" -> {
+                        created++;
+                        createdFiles.increment();
+                    }
+                    case "duplicate" -> {
+                        duplicates++;
+                        duplicateFiles.increment();
+                    }
+                    default -> failedFiles.increment();
+                }
+                files.add(new BulkIngestionReport.FileStatus(entry.fileName, entry.status, resumeId, entry.error));
+            }
+
+            long elapsedNanos = System.nanoTime() - startedAt;
+            duration.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            double seconds = elapsedNanos / 1e9;
+            double perSecond = seconds > 0 ? created / seconds : 0;
+            logger.info("Bulk upload: {} created, {} duplicates, {} failed in {} ms", created, duplicates,
+                    entries.size() - created - duplicates, TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+            return new BulkIngestionReport(files, created, duplicates, entries.size() - created - duplicates,
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos), perSecond);
+        }
+
+        /**
+         * Cancels parses still in flight and removes their temp files, for when
+         * the request fails part way through.
+         */
+        void abandon() {
+            for (InFlight pending : inFlight) {
+                pending.parse().cancel();
+                try {
+                    pending.upload().close();
+                } catch (IOException e) {
+                    logger.warn("Could not delete spooled upload {}", pending.upload().path());
+                }
+            }
+            inFlight.clear();
+        }
+
+        private void complete(InFlight pending) throws IOException {
+            Entry entry = pending.entry();
+            try (PdfParserService.SpooledUpload upload = pending.upload()) {
+                String text = compactor.compactPages(pending.parse().await()).text();
+                Resume resume = entry.resume;
+                resume.setFileName(entry.fileName);
+                resume.setExtractedText(text);
+                resume.setContentHash(upload.sha256());
+                resume.setUser(user);
+                pendingResumes.add(resume);
+                pendingEntries.add(entry);
+                for (ResumeSection section : segmenter.segment(text)) {
+                    pendingSections.add(section);
+                    sectionOwners.add(resume);
+                }
+            } catch (IOException | RuntimeException e) {
+                entry.resume = null;
+                entry.fail(e.getMessage() != null ? e.getMessage() : "Could not read this PDF.");
+                return;
+            }
+            if (pendingResumes.size() >= insertBatchSize) {
+                flush();
+            }
+        }
+
+        /**
+         * Writes the pending resumes and their sections in one transaction. If
+         * the batch fails, its files are reported as failed and the upload
+         * carries on with the next batch.
+         */
+        private void flush() {
+            if (pendingResumes.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    batchWriter.insertResumes(pendingResumes);
+                    for (int i = 0; i < pendingSections.size(); i++) {
+                        pendingSections.get(i).setResumeId(sectionOwners.get(i).getId());
+                    }
+                    batchWriter.insertSections(pendingSections);
+                });
+            } catch (RuntimeException e) {
+                logger.warn("Could not save a batch of {} resumes", pendingResumes.size(), e);
+                for (Entry entry : pendingEntries) {
+                    // Ids drawn before the rollback point at nothing; duplicates of these files fail too
+                    entry.resume.setId(null);
+                    entry.resume = null;
+                    entry.fail("Could not save this resume.");
+                }
+            }
+            pendingResumes.clear();
+            pendingEntries.clear();
+            pendingSections.clear();
+            sectionOwners.clear();
+        }
+    }
+}
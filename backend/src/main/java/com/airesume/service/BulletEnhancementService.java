@@ -0,0 +1,170 @@
+package com.airesume.service;
+
+import com.airesume.util.HashUtils;
+import com.airesume.util.LruCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Enhances resume bullet points in batches. Each (bullet, target job) pair is
+ * cached, so unchanged bullets are never re-sent. Uncached bullets are grouped
+ * into multi-bullet prompts, and the groups run in parallel on a small bounded
+ * pool. If a group's reply cannot be matched to its inputs, each bullet in it
+ * falls back to the single-bullet prompt.
+ */
+@Service
+public class BulletEnhancementService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulletEnhancementService.class);
+
+    static final String ENHANCE_PROMPT_VERSION = "v1";
+
+    private final AiAnalysisService aiAnalysisService;
+    private final LruCache<String, String> cache;
+    private final int batchSize;
+    private final ThreadPoolExecutor executor;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public BulletEnhancementService(AiAnalysisService aiAnalysisService,
+            MeterRegistry meterRegistry,
+            @Value("${ai.enhance.batch-size:5}") int batchSize,
+            @Value("${ai.enhance.pool-size:4}") int poolSize,
+            @Value("${ai.enhance.queue-capacity:100}") int queueCapacity,
+            @Value("${ai.enhance.cache.max-entries:5000}") int cacheMaxEntries,
+            @Value("${ai.enhance.cache.ttl-hours:168}") long cacheTtlHours) {
+        this.aiAnalysisService = aiAnalysisService;
+        this.batchSize = Math.max(1, batchSize);
+        this.cache = new LruCache<>(cacheMaxEntries, Duration.ofHours(cacheTtlHours));
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "bullet-enhance-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        this.hits = Counter.builder("ai.enhance.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("ai.enhance.cache.requests").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("ai.enhance.cache.size", cache, LruCache::size).register(meterRegistry);
+    }
+
+    public String enhance(String bulletPoint, String targetJob, boolean isPro) {
+        return enhanceAll(List.of(bulletPoint), targetJob, isPro).get(0);
+    }
+
+    /**
+     * Returns the enhanced bullets in input order. Blank bullets are returned
+     * unchanged.
+     */
+    public List<String> enhanceAll(List<String> bulletPoints, String targetJob, boolean isPro) {
+        Map<String, String> enhanced = new HashMap<>();
+        LinkedHashSet<String> pending = new LinkedHashSet<>();
+        for (String bullet : bulletPoints) {
+            if (bullet == null || bullet.isBlank() || enhanced.containsKey(bullet) || pending.contains(bullet)) {
+                continue;
+            }
+            String cached = cache.get(keyFor(bullet, targetJob));
+            if (cached != null) {
+                hits.increment();
+                enhanced.put(bullet, cached);
+            } else {
+                misses.increment();
+                pending.add(bullet);
+            }
+        }
+
+        List<List<String>> groups = partition(new ArrayList<>(pending));
+        if (groups.size() == 1) {
+            enhanced.putAll(enhanceGroup(groups.get(0), targetJob, isPro));
+        } else if (!groups.isEmpty()) {
+            List<CompletableFuture<Map<String, String>>> futures = new ArrayList<>(groups.size());
+            for (List<String> group : groups) {
+                futures.add(submit(group, targetJob, isPro));
+            }
+            try {
+                futures.forEach(future -> enhanced.putAll(future.join()));
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        List<String> results = new ArrayList<>(bulletPoints.size());
+        for (String bullet : bulletPoints) {
+            results.add(enhanced.getOrDefault(bullet, bullet));
+        }
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    static String keyFor(String bulletPoint, String targetJob) {
+        return HashUtils.sha256Hex(AnalysisCache.normalize(bulletPoint), AnalysisCache.normalize(targetJob),
+                AiAnalysisService.FLASH_MODEL, ENHANCE_PROMPT_VERSION);
+    }
+
+    private Map<String, String> enhanceGroup(List<String> group, String targetJob, boolean isPro) {
+        Map<String, String> enhanced = new HashMap<>();
+        try {
+            List<String> rewritten = aiAnalysisService.enhanceBulletPoints(group, targetJob, isPro);
+            for (int i = 0; i < group.size(); i++) {
+                enhanced.put(group.get(i), rewritten.get(i));
+                cache.put(keyFor(group.get(i), targetJob), rewritten.get(i));
+            }
+        } catch (ServiceOverloadedException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.warn("Batch enhancement of {} bullets failed, falling back to one call each: {}", group.size(),
+                    e.getMessage());
+            // Fallback results may be placeholder text on failure, so they are not cached
+            for (String bullet : group) {
+                enhanced.put(bullet, aiAnalysisService.enhanceBulletPoint(bullet, targetJob, isPro));
+            }
+        }
+        return enhanced;
+    }
+
+    private CompletableFuture<Map<String, String>> submit(List<String> group, String targetJob, boolean isPro) {
+        try {
+            return CompletableFuture.supplyAsync(() -> enhanceGroup(group, targetJob, isPro), executor);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceOverloadedException("Too many bullets are being enhanced. Please try again shortly.", 5);
+        }
+    }
+
+    private List<List<String>> partition(List<String> bullets) {
+        List<List<String>> groups = new ArrayList<>();
+        for (int start = 0; start < bullets.size(); start += batchSize) {
+            groups.add(bullets.subList(start, Math.min(bullets.size(), start + batchSize)));
+        }
+        return groups;
+    }
+}
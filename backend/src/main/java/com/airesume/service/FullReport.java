@@ -0,0 +1,10 @@
+package com.airesume.service;
+
+import com.airesume.entity.AnalysisResult;
+
+/**
+ * The three AI artifacts shown on the report page. {@code interviewQuestions}
+ * is a JSON array string, matching the /interview-questions endpoint.
+ */
+public record FullReport(AnalysisResult analysis, String coverLetter, String interviewQuestions) {
+}
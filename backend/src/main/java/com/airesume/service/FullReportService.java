@@ -0,0 +1,127 @@
+package com.airesume.service;
+
+import com.airesume.entity.AnalysisResult;
+import com.airesume.entity.Resume;
+import com.airesume.entity.User;
+import com.airesume.repository.AnalysisResultRepository;
+import com.airesume.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Builds the report page's analysis, cover letter and interview questions in
+ * one go. It prefers a single combined Gemini prompt. If the analysis is
+ * already cached, or the combined reply cannot be parsed, the missing pieces
+ * are generated concurrently instead of one after another.
+ */
+@Service
+public class FullReportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FullReportService.class);
+
+    private final AiAnalysisService aiAnalysisService;
+    private final AnalysisResultRepository analysisResultRepository;
+    private final UserRepository userRepository;
+    private final ThreadPoolExecutor executor;
+
+    public FullReportService(AiAnalysisService aiAnalysisService,
+            AnalysisResultRepository analysisResultRepository,
+            UserRepository userRepository,
+            @Value("${ai.full-report.pool-size:6}") int poolSize,
+            @Value("${ai.full-report.queue-capacity:60}") int queueCapacity) {
+        this.aiAnalysisService = aiAnalysisService;
+        this.analysisResultRepository = analysisResultRepository;
+        this.userRepository = userRepository;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "full-report-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Generates and persists the full report. The cover letter and questions are
+     * stored on the saved {@link AnalysisResult}. A free user is charged one scan.
+     */
+    public FullReport generate(Resume resume, String jobDescription, User user) {
+        boolean isProUser = user != null && user.isPro();
+        String resumeText = resume.getExtractedText();
+
+        FullReport report = aiAnalysisService.findCachedAnalysis(resumeText, jobDescription, isProUser)
+                .map(cached -> generateConcurrently(resumeText, jobDescription, isProUser, cached))
+                .orElseGet(() -> generateCombined(resumeText, jobDescription, isProUser));
+
+        AnalysisResult analysis = report.analysis();
+        analysis.setResumeId(resume.getId());
+        analysis.setCoverLetter(report.coverLetter());
+        analysis.setInterviewQuestions(report.interviewQuestions());
+        AnalysisResult saved = analysisResultRepository.save(analysis);
+
+        if (user != null && !isProUser) {
+            user.setScansUsed(user.getScansUsed() + 1);
+            userRepository.save(user);
+        }
+
+        return new FullReport(saved, report.coverLetter(), report.interviewQuestions());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private FullReport generateCombined(String resumeText, String jobDescription, boolean isPro) {
+        try {
+            return aiAnalysisService.generateFullReport(resumeText, jobDescription, isPro);
+        } catch (ServiceOverloadedException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.warn("Combined full report prompt failed, falling back to separate calls: {}", e.getMessage());
+            return generateConcurrently(resumeText, jobDescription, isPro, null);
+        }
+    }
+
+    private FullReport generateConcurrently(String resumeText, String jobDescription, boolean isPro,
+            AnalysisResult knownAnalysis) {
+        CompletableFuture<AnalysisResult> analysis = knownAnalysis != null
+                ? CompletableFuture.completedFuture(knownAnalysis)
+                : submit(() -> aiAnalysisService.analyzeResume(resumeText, jobDescription, isPro));
+        CompletableFuture<String> coverLetter = submit(
+                () -> aiAnalysisService.generateCoverLetter(resumeText, jobDescription, isPro));
+        CompletableFuture<String> questions = submit(() -> AiAnalysisService.stripMarkdownFences(
+                aiAnalysisService.generateInterviewQuestions(resumeText, jobDescription, isPro)));
+
+        try {
+            return new FullReport(analysis.join(), coverLetter.join(), questions.join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceOverloadedException("Too many reports are being generated. Please try again shortly.",
+                    5);
+        }
+    }
+}
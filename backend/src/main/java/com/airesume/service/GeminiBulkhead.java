@@ -0,0 +1,220 @@
+package com.airesume.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Caps concurrent upstream Gemini calls per model family (pro vs flash). When
+ * a compartment is full, callers wait in a priority queue that serves Pro users
+ * first (FIFO within a tier). Callers that cannot get a slot within the maximum
+ * wait, or arrive to a full queue, are rejected with
+ * {@link ServiceOverloadedException}.
+ */
+@Component
+public class GeminiBulkhead {
+
+    private final Compartment pro;
+    private final Compartment flash;
+    private final int maxQueue;
+    private final long maxWaitNanos;
+
+    public GeminiBulkhead(MeterRegistry meterRegistry,
+            @Value("${gemini.bulkhead.pro.max-concurrent:4}") int proMaxConcurrent,
+            @Value("${gemini.bulkhead.flash.max-concurrent:8}") int flashMaxConcurrent,
+            @Value("${gemini.bulkhead.max-queue:100}") int maxQueue,
+            @Value("${gemini.bulkhead.max-wait-ms:15000}") long maxWaitMs) {
+        this.maxQueue = maxQueue;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.pro = new Compartment("pro", proMaxConcurrent, meterRegistry);
+        this.flash = new Compartment("flash", flashMaxConcurrent, meterRegistry);
+    }
+
+    /**
+     * Blocks until a slot for the model is free. The returned permit must be
+     * closed once the upstream call has finished.
+     */
+    public Permit acquire(String model, boolean priority) {
+        Compartment compartment = model.contains("-pro") ? pro : flash;
+        return compartment.acquire(priority);
+    }
+
+    /**
+     * Takes a slot only if one is free right now and nobody is queued, else
+     * returns {@code null}. Used for optional extra work such as hedged requests.
+     */
+    public Permit tryAcquire(String model) {
+        Compartment compartment = model.contains("-pro") ? pro : flash;
+        return compartment.tryAcquire();
+    }
+
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private final class Compartment {
+
+        private final String name;
+        private final int maxConcurrent;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final PriorityQueue<Waiter> waiters = new PriorityQueue<>(
+                Comparator.comparing((Waiter w) -> !w.priority).thenComparingLong(w -> w.sequence));
+        private int inUse;
+        private long sequence;
+
+        private final Timer proWait;
+        private final Timer freeWait;
+        private final Counter rejected;
+
+        Compartment(String name, int maxConcurrent, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.maxConcurrent = maxConcurrent;
+            Gauge.builder("gemini.bulkhead.queue.length", this, c -> c.queued()).tag("model", name)
+                    .register(meterRegistry);
+            Gauge.builder("gemini.bulkhead.in.use", this, c -> c.inUse()).tag("model", name)
+                    .register(meterRegistry);
+            this.proWait = waitTimer(meterRegistry, "pro");
+            this.freeWait = waitTimer(meterRegistry, "free");
+            this.rejected = Counter.builder("gemini.bulkhead.rejected").tag("model", name).register(meterRegistry);
+        }
+
+        private Timer waitTimer(MeterRegistry meterRegistry, String tier) {
+            return Timer.builder("gemini.bulkhead.wait")
+                    .tag("model", name)
+                    .tag("tier", tier)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry);
+        }
+
+        Permit acquire(boolean priority) {
+            long start = System.nanoTime();
+            lock.lock();
+            try {
+                if (inUse < maxConcurrent && waiters.isEmpty()) {
+                    inUse++;
+                    return granted(priority, start);
+                }
+                if (waiters.size() >= maxQueue) {
+                    rejected.increment();
+                    throw new ServiceOverloadedException("The AI service is at capacity. Please try again shortly.",
+                            5);
+                }
+
+                Waiter waiter = new Waiter(priority, sequence++, lock.newCondition());
+                waiters.add(waiter);
+                long remaining = maxWaitNanos;
+                try {
+                    while (!waiter.granted) {
+                        if (remaining <= 0) {
+                            waiters.remove(waiter);
+                            rejected.increment();
+                            throw new ServiceOverloadedException(
+                                    "Timed out waiting for the AI service. Please try again shortly.", 10);
+                        }
+                        remaining = waiter.condition.awaitNanos(remaining);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    if (waiter.granted) {
+                        release();
+                    } else {
+                        waiters.remove(waiter);
+                    }
+                    throw new ServiceOverloadedException("Interrupted while waiting for the AI service.", 5);
+                }
+                return granted(priority, start);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        Permit tryAcquire() {
+            lock.lock();
+            try {
+                if (inUse < maxConcurrent && waiters.isEmpty()) {
+                    inUse++;
+                    return newPermit();
+                }
+                return null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private Permit granted(boolean priority, long start) {
+            (priority ? proWait : freeWait).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return newPermit();
+        }
+
+        private Permit newPermit() {
+            return new Permit() {
+                private boolean closed;
+
+                @Override
+                public void close() {
+                    if (!closed) {
+                        closed = true;
+                        release();
+                    }
+                }
+            };
+        }
+
+        private void release() {
+            lock.lock();
+            try {
+                // Hand the slot straight to the next waiter so a newcomer cannot jump the queue
+                Waiter next = waiters.poll();
+                if (next != null) {
+                    next.granted = true;
+                    next.condition.signal();
+                } else {
+                    inUse--;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int queued() {
+            lock.lock();
+            try {
+                return waiters.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int inUse() {
+            lock.lock();
+            try {
+                return inUse;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static final class Waiter {
+        private final boolean priority;
+        private final long sequence;
+        private final Condition condition;
+        private boolean granted;
+
+        Waiter(boolean priority, long sequence, Condition condition) {
+            this.priority = priority;
+            this.sequence = sequence;
+            this.condition = condition;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.airesume.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consecutive-failure circuit breaker per model family (pro vs flash). After
+ * {@code failure-threshold} upstream failures in a row (I/O errors, timeouts,
+ * 5xx or 429), the circuit opens. Calls then fail fast with
+ * {@link GeminiUnavailableException} so callers can degrade immediately. After
+ * {@code open-duration-ms} a single trial call is let through; if it succeeds
+ * the circuit closes again.
+ */
+@Component
+public class GeminiCircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeminiCircuitBreaker.class);
+
+    enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    private final Circuit pro;
+    private final Circuit flash;
+    private final int failureThreshold;
+    private final long openDurationNanos;
+
+    public GeminiCircuitBreaker(MeterRegistry meterRegistry,
+            @Value("${gemini.circuit-breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${gemini.circuit-breaker.open-duration-ms:30000}") long openDurationMs) {
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMs);
+        this.pro = new Circuit("pro", meterRegistry);
+        this.flash = new Circuit("flash", meterRegistry);
+    }
+
+    public <T> T call(String model, Callable<T> call) throws Exception {
+        Circuit circuit = circuitFor(model);
+        circuit.admit();
+        try {
+            T result = call.call();
+            circuit.onSuccess();
+            return result;
+        } catch (Exception e) {
+            if (isUpstreamFailure(e)) {
+                circuit.onFailure(e);
+            } else {
+                // The upstream answered (e.g. a 400), or we never reached it
+                circuit.onNeutral(e instanceof RestClientResponseException);
+            }
+            throw e;
+        }
+    }
+
+    State state(String model) {
+        return circuitFor(model).state;
+    }
+
+    private Circuit circuitFor(String model) {
+        return model.contains("-pro") ? pro : flash;
+    }
+
+    private static boolean isUpstreamFailure(Exception e) {
+        if (e instanceof ResourceAccessException) {
+            return true;
+        }
+        if (e instanceof RestClientResponseException response) {
+            return response.getStatusCode().is5xxServerError() || response.getStatusCode().value() == 429;
+        }
+        return false;
+    }
+
+    private static boolean isTimeout(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SocketTimeoutException || cause instanceof HttpTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private final class Circuit {
+
+        private final String name;
+        private final Counter rejected;
+        private final Counter opened;
+        private final Counter timeouts;
+
+        private State state = State.CLOSED;
+        private int consecutiveFailures;
+        private long openedAt;
+        private boolean trialInFlight;
+
+        Circuit(String name, MeterRegistry meterRegistry) {
+            this.name = name;
+            Gauge.builder("gemini.circuit.state", this, c -> c.stateOrdinal()).tag("model", name)
+                    .description("0 = closed, 1 = half-open, 2 = open").register(meterRegistry);
+            this.rejected = Counter.builder("gemini.circuit.rejected").tag("model", name).register(meterRegistry);
+            this.opened = Counter.builder("gemini.circuit.opened").tag("model", name).register(meterRegistry);
+            this.timeouts = Counter.builder("gemini.requests.timeouts").tag("model", name).register(meterRegistry);
+        }
+
+        synchronized void admit() {
+            if (state == State.OPEN && System.nanoTime() - openedAt >= openDurationNanos) {
+                state = State.HALF_OPEN;
+                trialInFlight = false;
+            }
+            if (state == State.CLOSED) {
+                return;
+            }
+            if (state == State.HALF_OPEN && !trialInFlight) {
+                trialInFlight = true;
+                return;
+            }
+            rejected.increment();
+            throw new GeminiUnavailableException("Gemini " + name + " circuit is open");
+        }
+
+        synchronized void onSuccess() {
+            consecutiveFailures = 0;
+            if (state == State.HALF_OPEN) {
+                logger.info("Gemini {} circuit closed after a successful trial call", name);
+                state = State.CLOSED;
+                trialInFlight = false;
+            }
+        }
+
+        synchronized void onFailure(Exception e) {
+            if (isTimeout(e)) {
+                timeouts.increment();
+            }
+            consecutiveFailures++;
+            if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+                logger.warn("Gemini {} circuit opened after {} consecutive failures: {}", name, consecutiveFailures,
+                        e.getMessage());
+                state = State.OPEN;
+                openedAt = System.nanoTime();
+                trialInFlight = false;
+                opened.increment();
+            }
+        }
+
+        synchronized void onNeutral(boolean upstreamResponded) {
+            if (upstreamResponded) {
+                onSuccess();
+            } else if (state == State.HALF_OPEN) {
+                // Let another caller run the trial
+                trialInFlight = false;
+            }
+        }
+
+        synchronized int stateOrdinal() {
+            return state.ordinal();
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.airesume.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Times upstream Gemini calls and, for flash models when enabled, hedges them.
+ * If the first attempt has not answered after the hedge delay, a second
+ * identical attempt is sent and whichever succeeds first wins. The delay is
+ * the observed p95 latency unless a fixed {@code delay-ms} is configured. A
+ * hedge is only sent when the bulkhead has a spare slot, so hedging never
+ * queues behind real traffic.
+ */
+@Component
+public class GeminiHedger {
+
+    private static final int MIN_SAMPLES_FOR_P95 = 20;
+
+    private final boolean enabled;
+    private final long fixedDelayMs;
+    private final long minDelayMs;
+    private final long defaultDelayMs;
+    private final ThreadPoolExecutor executor;
+
+    private final Timer proLatency;
+    private final Timer flashLatency;
+    private final Counter hedgesSent;
+    private final Counter hedgesSkipped;
+    private final Counter primaryWins;
+    private final Counter hedgeWins;
+
+    public GeminiHedger(MeterRegistry meterRegistry,
+            @Value("${gemini.hedging.enabled:false}") boolean enabled,
+            @Value("${gemini.hedging.delay-ms:0}") long fixedDelayMs,
+            @Value("${gemini.hedging.min-delay-ms:250}") long minDelayMs,
+            @Value("${gemini.hedging.default-delay-ms:3000}") long defaultDelayMs,
+            @Value("${gemini.hedging.max-threads:32}") int maxThreads) {
+        this.enabled = enabled;
+        this.fixedDelayMs = fixedDelayMs;
+        this.minDelayMs = minDelayMs;
+        this.defaultDelayMs = defaultDelayMs;
+
+        // Callers already hold a bulkhead slot, so the bulkhead bounds this pool in practice
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(0, maxThreads, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "gemini-hedge-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+
+        this.proLatency = latencyTimer(meterRegistry, "pro");
+        this.flashLatency = latencyTimer(meterRegistry, "flash");
+        this.hedgesSent = Counter.builder("gemini.hedge.requests").tag("outcome", "sent").register(meterRegistry);
+        this.hedgesSkipped = Counter.builder("gemini.hedge.requests").tag("outcome", "skipped")
+                .register(meterRegistry);
+        this.primaryWins = Counter.builder("gemini.hedge.wins").tag("winner", "primary").register(meterRegistry);
+        this.hedgeWins = Counter.builder("gemini.hedge.wins").tag("winner", "hedge").register(meterRegistry);
+    }
+
+    /**
+     * Runs the call, hedging it if enabled for this model. Each attempt holds
+     * its bulkhead permit until that attempt finishes, even after the other
+     * one has won.
+     *
+     * @param permit    the caller's bulkhead permit, held by the first attempt
+     * @param spareSlot returns a bulkhead permit for the hedge, or {@code null}
+     *                  if none is free
+     */
+    public <T> T execute(String model, Callable<T> call, GeminiBulkhead.Permit permit,
+            Supplier<GeminiBulkhead.Permit> spareSlot) throws Exception {
+        Timer latency = model.contains("-pro") ? proLatency : flashLatency;
+        if (!enabled || latency == proLatency) {
+            try (permit) {
+                return timed(latency, call);
+            }
+        }
+
+        CompletableFuture<T> primary = supplyAsync(latency, call, permit);
+        try {
+            return primary.get(hedgeDelayMs(latency), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Slow primary; fall through and hedge
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        }
+
+        GeminiBulkhead.Permit hedgePermit = spareSlot.get();
+        if (hedgePermit == null) {
+            hedgesSkipped.increment();
+            return await(primary);
+        }
+        hedgesSent.increment();
+        CompletableFuture<T> hedge = supplyAsync(latency, call, hedgePermit);
+
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        primary.whenComplete((result, error) -> settle(winner, result, error, failures, true));
+        hedge.whenComplete((result, error) -> settle(winner, result, error, failures, false));
+        try {
+            return await(winner);
+        } finally {
+            // Only detaches the futures; the losing attempt keeps running and holds its permit until done
+            primary.cancel(false);
+            hedge.cancel(false);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    long hedgeDelayMs(Timer latency) {
+        if (fixedDelayMs > 0) {
+            return fixedDelayMs;
+        }
+        if (latency.count() < MIN_SAMPLES_FOR_P95) {
+            return defaultDelayMs;
+        }
+        for (ValueAtPercentile percentile : latency.takeSnapshot().percentileValues()) {
+            if (percentile.percentile() == 0.95) {
+                return Math.max(minDelayMs, (long) percentile.value(TimeUnit.MILLISECONDS));
+            }
+        }
+        return defaultDelayMs;
+    }
+
+    private <T> void settle(CompletableFuture<T> winner, T result, Throwable error, AtomicInteger failures,
+            boolean primary) {
+        if (error == null) {
+            // Count the win before completing, so it is visible once the caller resumes
+            synchronized (winner) {
+                if (!winner.isDone()) {
+                    (primary ? primaryWins : hedgeWins).increment();
+                    winner.complete(result);
+                }
+            }
+        } else if (failures.incrementAndGet() == 2) {
+            // Both attempts failed; report the later error
+            winner.completeExceptionally(error);
+        }
+    }
+
+    private <T> CompletableFuture<T> supplyAsync(Timer latency, Callable<T> call, GeminiBulkhead.Permit permit) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (permit) {
+                return timed(latency, call);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    private static <T> T timed(Timer latency, Callable<T> call) throws Exception {
+        long start = System.nanoTime();
+        T result = call.call();
+        latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    private static Exception unwrap(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof Exception exception) {
+            return exception;
+        }
+        throw (Error) cause;
+    }
+
+    private static Timer latencyTimer(MeterRegistry meterRegistry, String family) {
+        return Timer.builder("gemini.requests.latency")
+                .tag("model", family)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,12 @@
+package com.airesume.service;
+
+/**
+ * Thrown without contacting Gemini while its circuit breaker is open. Callers
+ * should take their degraded path straight away.
+ */
+public class GeminiUnavailableException extends RuntimeException {
+
+    public GeminiUnavailableException(String message) {
+        super(message);
+    }
+}
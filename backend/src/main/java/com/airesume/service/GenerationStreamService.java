@@ -0,0 +1,110 @@
+package com.airesume.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Relays streamed Gemini output to the browser over Server-Sent Events. Each
+ * text fragment is sent as a {@code chunk} event and the assembled text follows
+ * in a final {@code complete} event.
+ */
+@Service
+public class GenerationStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GenerationStreamService.class);
+
+    private final AiAnalysisService aiAnalysisService;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+
+    public GenerationStreamService(AiAnalysisService aiAnalysisService,
+            @Value("${ai.streaming.pool-size:8}") int poolSize,
+            @Value("${ai.streaming.queue-capacity:50}") int queueCapacity,
+            @Value("${ai.streaming.timeout-ms:120000}") long timeoutMs) {
+        this.aiAnalysisService = aiAnalysisService;
+        this.timeoutMs = timeoutMs;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "ai-stream-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public SseEmitter streamCoverLetter(String resumeText, String jobDescription, boolean isPro) {
+        return relay(onChunk -> aiAnalysisService.streamCoverLetter(resumeText, jobDescription, isPro, onChunk),
+                "coverLetter");
+    }
+
+    public SseEmitter streamInterviewQuestions(String resumeText, String jobDescription, boolean isPro) {
+        return relay(onChunk -> AiAnalysisService.stripMarkdownFences(
+                aiAnalysisService.streamInterviewQuestions(resumeText, jobDescription, isPro, onChunk)),
+                "questions");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private SseEmitter relay(StreamingCall call, String resultField) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        try {
+            executor.execute(() -> {
+                try {
+                    String assembled = call.run(chunk -> {
+                        try {
+                            emitter.send(SseEmitter.event().name("chunk").data(Map.of("text", chunk)));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                    emitter.send(SseEmitter.event().name("complete").data(Map.of(resultField, assembled)));
+                    emitter.complete();
+                } catch (UncheckedIOException | IOException e) {
+                    // The client disconnected; nothing left to deliver
+                    emitter.completeWithError(e);
+                } catch (ServiceOverloadedException e) {
+                    sendError(emitter, Map.of("error", "Overloaded", "message", e.getMessage(),
+                            "retryAfterSeconds", e.getRetryAfterSeconds()));
+                } catch (Exception e) {
+                    logger.error("Streaming generation failed", e);
+                    sendError(emitter, Map.of("error", "Generation failed"));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            throw new ServiceOverloadedException("Too many streams in progress. Please try again shortly.", 5);
+        }
+        return emitter;
+    }
+
+    private void sendError(SseEmitter emitter, Map<String, Object> body) {
+        try {
+            emitter.send(SseEmitter.event().name("error").data(body));
+        } catch (IOException ignored) {
+            // Client already gone
+        }
+        emitter.complete();
+    }
+
+    @FunctionalInterface
+    private interface StreamingCall {
+        String run(Consumer<String> onChunk) throws Exception;
+    }
+}
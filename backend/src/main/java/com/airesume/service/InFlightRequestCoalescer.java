@@ -0,0 +1,76 @@
+package com.airesume.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Single-flight execution: concurrent callers using the same key share one
+ * invocation and its outcome. The key is released as soon as the leading call
+ * finishes, successfully or not, so later callers always trigger a fresh call.
+ */
+@Component
+public class InFlightRequestCoalescer {
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final long waitTimeoutMs;
+    private final Counter collapsed;
+
+    public InFlightRequestCoalescer(MeterRegistry meterRegistry,
+            @Value("${gemini.coalesce.wait-timeout-ms:60000}") long waitTimeoutMs) {
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.collapsed = Counter.builder("gemini.requests.coalesced")
+                .description("Calls that joined an identical in-flight Gemini request instead of sending their own")
+                .register(meterRegistry);
+        Gauge.builder("gemini.requests.inflight.keys", inFlight, Map::size).register(meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Callable<T> call) throws Exception {
+        CompletableFuture<Object> leader = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, leader);
+        if (existing != null) {
+            collapsed.increment();
+            return (T) await(existing);
+        }
+
+        try {
+            T value = call.call();
+            leader.complete(value);
+            return value;
+        } catch (Throwable t) {
+            leader.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.remove(key, leader);
+        }
+    }
+
+    private Object await(CompletableFuture<Object> future) throws Exception {
+        try {
+            return future.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception exception) {
+                throw exception;
+            }
+            throw (Error) cause;
+        } catch (TimeoutException e) {
+            // Only this follower gives up; the leading call keeps running for the others
+            throw new TimeoutException("Timed out waiting for an identical in-flight request");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+}
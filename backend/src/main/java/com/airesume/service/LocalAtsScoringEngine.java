@@ -0,0 +1,446 @@
+package com.airesume.service;
+
+import com.airesume.entity.AnalysisResult;
+import com.airesume.entity.ResumeSection;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Deterministic, in-process ATS scoring. It is a zero-cost alternative to
+ * Gemini for free-tier scans. Keywords come from a skill dictionary compiled at
+ * startup, bullet openers are checked against an action-verb lexicon, and
+ * impact is measured by how many bullets carry numbers, percentages or dollar
+ * amounts. Scoring a typical resume takes well under a millisecond.
+ */
+@Component
+public class LocalAtsScoringEngine {
+
+    private static final String BULLET_MARKERS = "•●▪◦■‣·–-*";
+    private static final Pattern EMAIL = Pattern.compile("[\\w.+-]+@[\\w-]+\\.[\\w.]+");
+    private static final Pattern PHONE = Pattern.compile("\\+?\\d[\\d ().-]{7,}\\d");
+    // Sections a parseable resume is expected to have
+    private static final Set<ResumeSection.Type> REQUIRED_SECTIONS = EnumSet.of(ResumeSection.Type.EXPERIENCE,
+            ResumeSection.Type.EDUCATION, ResumeSection.Type.SKILLS);
+
+    private static final int IDEAL_BULLET_WORDS = 25;
+    private static final int MAX_BULLET_WORDS = 40;
+    private static final int IDEAL_TOTAL_WORDS = 800;
+
+    // Phrase (space-joined tokens) -> canonical skill name
+    private final Map<String, String> skills = new HashMap<>();
+    // First token of a phrase -> longest phrase length starting with it
+    private final Map<String, Integer> phraseLengths = new HashMap<>();
+    private final Set<String> actionVerbs;
+    private final Set<String> weakVerbs;
+    private final ResumeSegmenter segmenter;
+
+    public LocalAtsScoringEngine(ResumeSegmenter segmenter) {
+        this.segmenter = segmenter;
+        for (String line : readLexicon("ats/skills.txt")) {
+            String[] names = line.split("\\|");
+            for (String name : names) {
+                addSkill(name, names[0].strip());
+            }
+        }
+        this.actionVerbs = new HashSet<>(readLexicon("ats/action-verbs.txt"));
+        this.weakVerbs = new HashSet<>(readLexicon("ats/weak-verbs.txt"));
+    }
+
+    /**
+     * Scores the resume against the job description (which may be blank). The
+     * result is a full, Pro-level view; callers apply the tier view.
+     */
+    public AnalysisResult score(String resumeText, String jobDescription) {
+        String text = resumeText != null ? resumeText : "";
+        Set<String> found = findSkills(text);
+        Set<String> wanted = jobDescription != null && !jobDescription.isBlank()
+                ? findSkills(jobDescription)
+                : Set.of();
+        List<String> missing = wanted.stream().filter(skill -> !found.contains(skill)).toList();
+        List<String> bullets = extractBullets(text);
+
+        int keywordScore = wanted.isEmpty()
+                ? Math.min(100, 40 + found.size() * 4)
+                : percent(wanted.size() - missing.size(), wanted.size());
+        int sectionScore = sectionScore(text);
+        int impactScore = impactScore(bullets);
+        int brevityScore = brevityScore(bullets, countWords(text));
+        List<String> weakOpeners = new ArrayList<>();
+        int actionVerbScore = actionVerbScore(bullets, weakOpeners);
+
+        AnalysisResult result = new AnalysisResult();
+        result.setAtsScore(clamp(Math.round(keywordScore * 0.65f + sectionScore * 0.35f)));
+        result.setImpactScore(impactScore);
+        result.setBrevityScore(brevityScore);
+        result.setActionVerbScore(actionVerbScore);
+        result.setFoundKeywords(String.join(", ", found));
+        result.setMissingKeywords(String.join(", ", missing));
+        result.setSummary(summary(found, wanted, missing, impactScore, brevityScore, actionVerbScore));
+        result.setStrengths(strengths(found, impactScore, brevityScore, actionVerbScore, sectionScore));
+        result.setWeaknesses(weaknesses(missing, impactScore, brevityScore, actionVerbScore, weakOpeners));
+        result.setSuggestedImprovements(improvements(missing, impactScore, brevityScore, weakOpeners, sectionScore));
+        result.setPartialAnalysis(false);
+        return result;
+    }
+
+    /**
+     * Canonical names of dictionary skills in the text, in order of first
+     * appearance.
+     */
+    Set<String> findSkills(String text) {
+        List<String> tokens = tokenize(text);
+        Set<String> found = new LinkedHashSet<>();
+        StringBuilder phrase = new StringBuilder();
+        for (int i = 0; i < tokens.size(); i++) {
+            Integer maxLength = phraseLengths.get(tokens.get(i));
+            if (maxLength == null) {
+                continue;
+            }
+            // Prefer the longest match, e.g. "react native" over "react"
+            for (int length = Math.min(maxLength, tokens.size() - i); length >= 1; length--) {
+                phrase.setLength(0);
+                for (int j = i; j < i + length; j++) {
+                    if (j > i) {
+                        phrase.append(' ');
+                    }
+                    phrase.append(tokens.get(j));
+                }
+                String skill = skills.get(phrase.toString());
+                if (skill != null) {
+                    found.add(skill);
+                    i += length - 1;
+                    break;
+                }
+            }
+        }
+        return found;
+    }
+
+    private void addSkill(String name, String canonical) {
+        List<String> tokens = tokenize(name);
+        if (tokens.isEmpty()) {
+            return;
+        }
+        skills.putIfAbsent(String.join(" ", tokens), canonical);
+        phraseLengths.merge(tokens.get(0), tokens.size(), Math::max);
+    }
+
+    /**
+     * Lower-cases and splits on anything that is not a letter, digit or one of
+     * {@code + # . / -} inside a word, so "C++", "CI/CD" and "Node.js" stay whole.
+     * Trailing punctuation is dropped.
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '.') {
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < length && isTokenChar(text.charAt(i))) {
+                i++;
+            }
+            int end = i;
+            while (end > start && ".-/".indexOf(text.charAt(end - 1)) >= 0) {
+                end--;
+            }
+            if (end > start && (end - start > 1 || Character.isLetterOrDigit(text.charAt(start)))) {
+                tokens.add(text.substring(start, end).toLowerCase(Locale.ROOT));
+            }
+            if (i == start) {
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isTokenChar(char c) {
+        return Character.isLetterOrDigit(c) || "+#./-".indexOf(c) >= 0;
+    }
+
+    private List<String> extractBullets(String text) {
+        List<String> marked = new ArrayList<>();
+        List<String> sentences = new ArrayList<>();
+        for (String rawLine : text.lines().toList()) {
+            String line = rawLine.strip();
+            if (line.isEmpty()) {
+                continue;
+            }
+            if (BULLET_MARKERS.indexOf(line.charAt(0)) >= 0) {
+                String bullet = line.substring(1).strip();
+                if (!bullet.isEmpty()) {
+                    marked.add(bullet);
+                }
+            } else if (countWords(line) >= 6) {
+                sentences.add(line);
+            }
+        }
+        // Some PDFs lose their bullet glyphs; fall back to sentence-like lines
+        return marked.size() >= 3 ? marked : sentences;
+    }
+
+    private int impactScore(List<String> bullets) {
+        if (bullets.isEmpty()) {
+            return 0;
+        }
+        long quantified = bullets.stream().filter(LocalAtsScoringEngine::hasMetric).count();
+        // Quantifying 60% of bullets is treated as excellent
+        return clamp(Math.round(quantified * 100f / (bullets.size() * 0.6f)));
+    }
+
+    /**
+     * True if the bullet has a dollar amount, a percentage or a standalone
+     * number such as "40", "1,200", "2M" or "10x". Four-digit years do not
+     * count. This is a hand-rolled scanner because a regex per bullet dominated
+     * scoring time.
+     */
+    static boolean hasMetric(String bullet) {
+        int length = bullet.length();
+        int i = 0;
+        while (i < length) {
+            char c = bullet.charAt(i);
+            if (c == '$') {
+                int next = i + 1 < length && bullet.charAt(i + 1) == ' ' ? i + 2 : i + 1;
+                if (next < length && Character.isDigit(bullet.charAt(next))) {
+                    return true;
+                }
+                i++;
+                continue;
+            }
+            if (!Character.isDigit(c)) {
+                i++;
+                continue;
+            }
+            boolean standalone = i == 0 || !Character.isLetterOrDigit(bullet.charAt(i - 1));
+            int start = i;
+            while (i < length && (Character.isDigit(bullet.charAt(i)) || bullet.charAt(i) == ','
+                    || bullet.charAt(i) == '.')) {
+                i++;
+            }
+            int end = i;
+            while (end > start && !Character.isDigit(bullet.charAt(end - 1))) {
+                end--;
+            }
+            int after = i < length && bullet.charAt(i) == ' ' ? i + 1 : i;
+            if (after < length && bullet.charAt(after) == '%') {
+                return true;
+            }
+            if (!standalone || isYear(bullet, start, end)) {
+                continue;
+            }
+            int suffix = i;
+            if (suffix < length && "kKmMbBxX+".indexOf(bullet.charAt(suffix)) >= 0) {
+                suffix++;
+            }
+            if (suffix >= length || !Character.isLetterOrDigit(bullet.charAt(suffix))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isYear(String text, int start, int end) {
+        return end - start == 4 && (text.startsWith("19", start) || text.startsWith("20", start));
+    }
+
+    private int brevityScore(List<String> bullets, int totalWords) {
+        double score = 100;
+        if (!bullets.isEmpty()) {
+            double sum = 0;
+            for (String bullet : bullets) {
+                int words = countWords(bullet);
+                if (words <= IDEAL_BULLET_WORDS) {
+                    sum += 1;
+                } else if (words < MAX_BULLET_WORDS) {
+                    sum += 1 - 0.7 * (words - IDEAL_BULLET_WORDS) / (MAX_BULLET_WORDS - IDEAL_BULLET_WORDS);
+                }
+            }
+            score = sum * 100 / bullets.size();
+        }
+        if (totalWords > IDEAL_TOTAL_WORDS) {
+            score -= (totalWords - IDEAL_TOTAL_WORDS) / 20.0;
+        }
+        return clamp((int) Math.round(score));
+    }
+
+    private int actionVerbScore(List<String> bullets, List<String> weakOpeners) {
+        if (bullets.isEmpty()) {
+            return 0;
+        }
+        double sum = 0;
+        for (String bullet : bullets) {
+            String opener = firstWord(bullet);
+            if (actionVerbs.contains(opener)) {
+                sum += 1;
+            } else if (weakVerbs.contains(opener)) {
+                if (!weakOpeners.contains(opener)) {
+                    weakOpeners.add(opener);
+                }
+            } else {
+                sum += 0.5;
+            }
+        }
+        return clamp((int) Math.round(sum * 100 / bullets.size()));
+    }
+
+    private int sectionScore(String text) {
+        int score = EMAIL.matcher(text).find() || PHONE.matcher(text).find() ? 25 : 0;
+        Set<ResumeSection.Type> present = EnumSet.noneOf(ResumeSection.Type.class);
+        for (ResumeSection section : segmenter.segment(text)) {
+            present.add(section.getSectionType());
+        }
+        present.retainAll(REQUIRED_SECTIONS);
+        return score + 25 * present.size();
+    }
+
+    private String summary(Set<String> found, Set<String> wanted, List<String> missing, int impact,
+            int brevity, int actionVerbs) {
+        String coverage = wanted.isEmpty()
+                ? "The resume lists " + found.size() + " recognised skills"
+                : "The resume matches " + (wanted.size() - missing.size()) + " of " + wanted.size()
+                        + " skills named in the job description";
+        String focus = impact <= brevity && impact <= actionVerbs ? "quantifying results"
+                : actionVerbs <= brevity ? "opening bullets with strong action verbs" : "tightening long bullets";
+        return coverage + ". The biggest gain available is " + focus + ".";
+    }
+
+    private String strengths(Set<String> found, int impact, int brevity, int actionVerbs, int sections) {
+        List<String> lines = new ArrayList<>();
+        if (!found.isEmpty()) {
+            lines.add("- Relevant skills: " + found.stream().limit(5).collect(Collectors.joining(", ")));
+        }
+        if (impact >= 60) {
+            lines.add("- Many bullets are backed by concrete numbers");
+        }
+        if (actionVerbs >= 70) {
+            lines.add("- Bullets open with strong action verbs");
+        }
+        if (brevity >= 80) {
+            lines.add("- Concise, scannable bullet points");
+        }
+        if (sections == 100) {
+            lines.add("- Clear structure with contact details, experience, education and skills");
+        }
+        if (lines.isEmpty()) {
+            lines.add("- Parses cleanly as text, so ATS systems can read it");
+        }
+        return String.join("\n", lines.subList(0, Math.min(3, lines.size())));
+    }
+
+    private String weaknesses(List<String> missing, int impact, int brevity, int actionVerbs,
+            List<String> weakOpeners) {
+        List<String> lines = new ArrayList<>();
+        if (!missing.isEmpty()) {
+            lines.add("- Missing " + missing.size() + " skills the job description asks for");
+        }
+        if (impact < 50) {
+            lines.add("- Few bullets include numbers, percentages or dollar amounts to prove impact");
+        }
+        if (!weakOpeners.isEmpty()) {
+            lines.add("- Uses weak openers like '" + String.join("', '", weakOpeners.subList(0,
+                    Math.min(3, weakOpeners.size()))) + "'");
+        } else if (actionVerbs < 60) {
+            lines.add("- Many bullets do not start with an action verb");
+        }
+        if (brevity < 70) {
+            lines.add("- Several bullets are too long to scan quickly");
+        }
+        if (lines.isEmpty()) {
+            lines.add("- No major issues detected; tailor keywords to each application");
+        }
+        return String.join("\n", lines.subList(0, Math.min(3, lines.size())));
+    }
+
+    private String improvements(List<String> missing, int impact, int brevity, List<String> weakOpeners,
+            int sections) {
+        List<String> lines = new ArrayList<>();
+        if (!missing.isEmpty()) {
+            // Names stay in missingKeywords, which the free-tier view locks
+            lines.add("- Work the " + missing.size()
+                    + " missing job-description skills into your bullets where you genuinely have them");
+        }
+        if (impact < 80) {
+            lines.add("- Quantify outcomes (%, $, time saved, users served) in at least half of your bullets");
+        }
+        if (!weakOpeners.isEmpty()) {
+            lines.add("- Replace '" + weakOpeners.get(0) + "' with verbs like Led, Built, Reduced or Delivered");
+        }
+        if (brevity < 80) {
+            lines.add("- Keep each bullet under " + IDEAL_BULLET_WORDS + " words");
+        }
+        if (sections < 100) {
+            lines.add("- Use standard section headings (Experience, Education, Skills) and include contact details");
+        }
+        if (lines.isEmpty()) {
+            lines.add("- Mirror the exact wording of the job description for your strongest skills");
+        }
+        return String.join("\n", lines);
+    }
+
+    private String firstWord(String bullet) {
+        int end = 0;
+        while (end < bullet.length() && Character.isLetter(bullet.charAt(end))) {
+            end++;
+        }
+        return bullet.substring(0, end).toLowerCase(Locale.ROOT);
+    }
+
+    private static int countWords(String text) {
+        int words = 0;
+        boolean inWord = false;
+        for (int i = 0; i < text.length(); i++) {
+            boolean whitespace = Character.isWhitespace(text.charAt(i));
+            if (!whitespace && !inWord) {
+                words++;
+            }
+            inWord = !whitespace;
+        }
+        return words;
+    }
+
+    private static int percent(int part, int whole) {
+        return whole == 0 ? 0 : Math.round(part * 100f / whole);
+    }
+
+    private static int clamp(int score) {
+        return Math.max(0, Math.min(100, score));
+    }
+
+    private static List<String> readLexicon(String path) {
+        List<String> entries = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new ClassPathResource(path).getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.strip();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    entries.add(line);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load ATS lexicon " + path, e);
+        }
+        return entries;
+    }
+}
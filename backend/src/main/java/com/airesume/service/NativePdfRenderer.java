@@ -0,0 +1,634 @@
+package com.airesume.service;
+
+import org.apache.fontbox.ttf.NamingTable;
+import org.apache.fontbox.ttf.TTFParser;
+import org.apache.fontbox.ttf.TrueTypeFont;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDFontDescriptor;
+import org.apache.pdfbox.pdmodel.font.PDType0Font;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.apache.pdfbox.pdmodel.graphics.state.PDExtendedGraphicsState;
+import org.apache.pdfbox.util.Matrix;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.context.Context;
+
+import java.awt.Color;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Lays out the built-in resume templates directly with PDFBox, skipping
+ * Flying Saucer's XHTML parsing, CSS resolution and box tree. Each layout
+ * follows its HTML template: a title block, the contact details, one section
+ * heading and the resume text, wrapped to the column and continued on new
+ * letter-size pages.
+ * <p>
+ * Fonts come from each template's own CSS font-family list, which is also
+ * what the HTML templates end up using. A family found in
+ * {@code pdf.fonts.dir} is embedded as a subset; otherwise the list resolves
+ * to a standard 14 font the way Flying Saucer resolves it. Characters the font cannot show are replaced with '?'.
+ */
+@Component
+public class NativePdfRenderer {
+
+    private static final Logger logger = LoggerFactory.getLogger(NativePdfRenderer.class);
+
+    static final String BASIC = "resume-template";
+    static final String MODERN = "resume-template-modern";
+    static final String EXECUTIVE = "resume-template-executive";
+
+    private static final PDRectangle PAGE = PDRectangle.LETTER;
+    private static final float PAGE_WIDTH = PAGE.getWidth();
+    private static final float PAGE_HEIGHT = PAGE.getHeight();
+    // CSS px as Flying Saucer maps them: 96 per inch
+    private static final float PX = 0.75f;
+    // Bezier control point offset for quarter circles
+    private static final float KAPPA = 0.552284749831f;
+
+    // The family names Flying Saucer knows without pdf.fonts.dir; others in a font-family list are skipped
+    private static final Map<String, Standard14Fonts.FontName> STANDARD_FAMILIES = Map.ofEntries(
+            Map.entry("serif", Standard14Fonts.FontName.TIMES_ROMAN),
+            Map.entry("times", Standard14Fonts.FontName.TIMES_ROMAN),
+            Map.entry("timesroman", Standard14Fonts.FontName.TIMES_ROMAN),
+            Map.entry("sans-serif", Standard14Fonts.FontName.HELVETICA),
+            Map.entry("sansserif", Standard14Fonts.FontName.HELVETICA),
+            Map.entry("helvetica", Standard14Fonts.FontName.HELVETICA),
+            Map.entry("dialog", Standard14Fonts.FontName.HELVETICA),
+            Map.entry("monospace", Standard14Fonts.FontName.COURIER),
+            Map.entry("monospaced", Standard14Fonts.FontName.COURIER),
+            Map.entry("courier", Standard14Fonts.FontName.COURIER),
+            Map.entry("dialoginput", Standard14Fonts.FontName.COURIER));
+
+    // Unescaped copies of resumeName and extractedText, which are XML-escaped for the HTML templates
+    static final String PLAIN_NAME = "plainResumeName";
+    static final String PLAIN_TEXT = "plainExtractedText";
+
+    private static final String WATERMARK = "Created with ElevateAI";
+
+    // Lower-case family name -> font file bytes, read once from pdf.fonts.dir
+    private final Map<String, FontFiles> embeddableFamilies;
+
+    public NativePdfRenderer(@Value("${pdf.fonts.dir:}") String fontsDirectory) {
+        this.embeddableFamilies = fontsDirectory.isBlank() ? Map.of() : scanFonts(Path.of(fontsDirectory));
+    }
+
+    public static boolean supports(String templateFile) {
+        return PdfGeneratorService.TEMPLATE_FILES.contains(templateFile);
+    }
+
+    /**
+     * Lays out the template using the same context variables as its HTML
+     * version, preferring the unescaped name and text when present. The
+     * caller owns, saves and closes the returned document.
+     */
+    public PDDocument layout(String templateFile, Context context) throws IOException {
+        String name = variable(context, PLAIN_NAME, variable(context, "resumeName", "Professional Resume"));
+        String email = variable(context, "email", "student@example.com");
+        String phone = variable(context, "phone", "(123) 456-7890");
+        String text = variable(context, PLAIN_TEXT, variable(context, "extractedText", ""));
+        boolean isPro = Boolean.TRUE.equals(context.getVariable("isPro"));
+
+        PDDocument document = new PDDocument();
+        try {
+            switch (templateFile) {
+                case MODERN -> layoutModern(document, name, email, phone, text, isPro);
+                case EXECUTIVE -> layoutExecutive(document, name, email, phone, text, isPro);
+                case BASIC -> layoutBasic(document, name, email, phone, text, isPro);
+                default -> throw new IllegalArgumentException("No native layout for template " + templateFile);
+            }
+            return document;
+        } catch (IOException | RuntimeException e) {
+            document.close();
+            throw e;
+        }
+    }
+
+    private void layoutBasic(PDDocument document, String name, String email, String phone, String text,
+            boolean isPro) throws IOException {
+        Fonts fonts = fonts(document, "Georgia, serif");
+        Color ink = new Color(0x111827);
+        float margin = 72;
+        float width = PAGE_WIDTH - 2 * margin;
+
+        Canvas canvas = new Canvas(document, margin, margin, margin,
+                isPro ? null : new Watermark(fonts.bold(), new Color(200, 200, 200), 0.2f));
+        canvas.newPage();
+
+        canvas.space(21.4f);
+        canvas.lines(new Style(fonts.bold(), 32, 40, ink, -1 * PX), name, margin, width);
+        canvas.space(20 * PX);
+        canvas.rule(margin, width, 4 * PX, ink);
+
+        canvas.space(15 * PX);
+        canvas.lines(new Style(fonts.bold(), 11, 17.6f, new Color(0x4b5563), 0),
+                email + "   •   " + phone, margin, width);
+        canvas.space(30 * PX);
+
+        canvas.space(25 * PX);
+        canvas.rule(margin, width, 3 * PX, ink);
+        canvas.space(8 * PX);
+        canvas.lines(new Style(fonts.bold(), 16, 25.6f, ink, 0), "Professional Profile", margin, width);
+        canvas.space(8 * PX);
+        canvas.rule(margin, width, 1 * PX, ink);
+        canvas.space(15 * PX);
+
+        canvas.justified(new Style(fonts.regular(), 11.5f, 18.4f, ink, 0), text, margin, width);
+        canvas.finish();
+    }
+
+    private void layoutModern(PDDocument document, String name, String email, String phone, String text,
+            boolean isPro) throws IOException {
+        Fonts fonts = fonts(document, "Inter, Helvetica Neue, sans-serif");
+        float padding = 60 * PX;
+        float width = PAGE_WIDTH - 2 * padding;
+
+        // Page margin 0 as in the HTML; continuation pages get a margin so text does not touch the edge
+        Canvas canvas = new Canvas(document, 0, 36, 36,
+                isPro ? null : new Watermark(fonts.bold(), new Color(200, 200, 200), 0.15f));
+        canvas.newPage();
+
+        // Header band, sized to its wrapped title
+        Style title = new Style(fonts.bold(), 38, 41.8f, Color.WHITE, 2 * PX);
+        Style subtitle = new Style(fonts.regular(), 16, 25.6f, new Color(0x93c5fd), 3 * PX);
+        List<String> titleLines = canvas.wrap(name.toUpperCase(Locale.ROOT), title, width);
+        float headerHeight = 50 * PX + titleLines.size() * title.leading() + 10 * PX + subtitle.leading() + 50 * PX;
+        canvas.fill(0, canvas.y - headerHeight, PAGE_WIDTH, headerHeight, new Color(0x0b3d91));
+        canvas.space(50 * PX);
+        canvas.lines(title, titleLines, padding);
+        canvas.space(10 * PX);
+        canvas.lines(subtitle, "ELEVATEAI PREMIUM PROFILE", padding, width);
+        canvas.space(50 * PX);
+
+        // Contact band
+        Style contact = new Style(fonts.bold(), 10.5f, 16.8f, new Color(0x1e40af), 0);
+        List<String> contactLines = canvas.wrap(email + "   |   " + phone, contact, width);
+        float contactHeight = 20 * PX + contactLines.size() * contact.leading() + 20 * PX;
+        canvas.fill(0, canvas.y - contactHeight, PAGE_WIDTH, contactHeight, new Color(0xeff6ff));
+        canvas.fill(0, canvas.y - contactHeight - 2 * PX, PAGE_WIDTH, 2 * PX, new Color(0xbfdbfe));
+        canvas.space(20 * PX);
+        canvas.lines(contact, contactLines, padding);
+        canvas.space(20 * PX + 2 * PX);
+
+        // Section title with an underline as wide as the text
+        Color navy = new Color(0x1e3a8a);
+        Style section = new Style(fonts.bold(), 14, 22.4f, navy, 1 * PX);
+        String heading = "PROFESSIONAL OVERVIEW";
+        canvas.space(30 * PX + 25 * PX);
+        canvas.lines(section, heading, padding, width);
+        canvas.space(4 * PX);
+        canvas.rule(padding, Math.min(width, canvas.width(heading, section)), 3 * PX, navy);
+        canvas.space(15 * PX);
+
+        canvas.lines(new Style(fonts.regular(), 11, 17.6f, new Color(0x334155), 0), text, padding, width);
+        canvas.finish();
+    }
+
+    private void layoutExecutive(PDDocument document, String name, String email, String phone, String text,
+            boolean isPro) throws IOException {
+        Fonts fonts = fonts(document, "Helvetica, Arial, sans-serif");
+        // Page margin 0 as in the HTML; continuation pages get a margin so text does not touch the edge
+        Canvas canvas = new Canvas(document, 0, 36, 36,
+                isPro ? null : new Watermark(fonts.bold(), Color.BLACK, 0.05f));
+        canvas.newPage();
+        canvas.space(50 * PX);
+        float headerTop = canvas.y;
+
+        // Black title box on the left, rounded on its right side
+        float boxWidth = PAGE_WIDTH * 0.65f;
+        float boxPadding = 40 * PX;
+        Style title = new Style(fonts.bold(), 42, 42, Color.WHITE, -1 * PX);
+        Style subtitle = new Style(fonts.regular(), 24, 36, Color.WHITE, 0);
+        List<String> titleLines = canvas.wrap(name, title, boxWidth - 2 * boxPadding);
+        float boxHeight = 30 * PX + titleLines.size() * title.leading() + 5 * PX + subtitle.leading() + 30 * PX;
+        canvas.roundedRect(0, headerTop - boxHeight, boxWidth, boxHeight, 0, 20 * PX, 20 * PX, 0);
+        canvas.fillPath(Color.BLACK);
+        canvas.y = headerTop - 30 * PX;
+        canvas.lines(title, titleLines, boxPadding);
+        canvas.space(5 * PX);
+        canvas.lines(subtitle, "Executive Profile", boxPadding, boxWidth - 2 * boxPadding);
+
+        // Outlined contact box on the right
+        float contactWidth = PAGE_WIDTH * 0.28f;
+        float contactX = PAGE_WIDTH - 40 * PX - contactWidth;
+        float contactPadding = 20 * PX;
+        float border = 2 * PX;
+        float innerWidth = contactWidth - 2 * contactPadding - 2 * border;
+        Style contact = new Style(fonts.bold(), 11, 16.5f, new Color(0x333333), 0);
+        List<List<String>> contactLines = new ArrayList<>();
+        float contactHeight = 2 * contactPadding + 2 * border;
+        for (String line : List.of(phone, email, "United States")) {
+            List<String> wrapped = canvas.wrap(line, contact, innerWidth);
+            contactLines.add(wrapped);
+            contactHeight += wrapped.size() * contact.leading() + 5 * PX;
+        }
+        float contactTop = headerTop - 20 * PX;
+        canvas.roundedRect(contactX + border / 2, contactTop - contactHeight + border / 2, contactWidth - border,
+                contactHeight - border, 15 * PX, 15 * PX, 15 * PX, 15 * PX);
+        canvas.strokePath(Color.BLACK, border);
+        canvas.y = contactTop - border - contactPadding;
+        for (List<String> wrapped : contactLines) {
+            canvas.lines(contact, wrapped, contactX + border + contactPadding);
+            canvas.space(5 * PX);
+        }
+
+        canvas.y = Math.min(headerTop - boxHeight, contactTop - contactHeight) - 30 * PX;
+
+        // Section pill over a full-width line
+        float margin = 50 * PX;
+        float width = PAGE_WIDTH - 2 * margin;
+        Style pill = new Style(fonts.bold(), 16, 24, Color.WHITE, 1 * PX);
+        String heading = "Professional Overview";
+        float pillHeight = 8 * PX + pill.leading() + 8 * PX;
+        float pillWidth = Math.min(width, 25 * PX + canvas.width(heading, pill) + 25 * PX);
+        canvas.space(20 * PX + 30 * PX);
+        float pillTop = canvas.y;
+        canvas.fill(margin, pillTop - pillHeight / 2 - 1.5f * PX, width, 3 * PX, Color.BLACK);
+        canvas.roundedRect(margin, pillTop - pillHeight, pillWidth, pillHeight, 12 * PX, 12 * PX, 12 * PX, 12 * PX);
+        canvas.fillPath(Color.BLACK);
+        canvas.space(8 * PX);
+        canvas.lines(pill, heading, margin + 25 * PX, pillWidth);
+        canvas.y = pillTop - pillHeight - 20 * PX;
+
+        canvas.space(15 * PX);
+        canvas.lines(new Style(fonts.regular(), 11.5f, 17.25f, Color.BLACK, 0), text, margin, width);
+        canvas.finish();
+    }
+
+    private static String variable(Context context, String name, String fallback) {
+        Object value = context.getVariable(name);
+        return value != null ? value.toString() : fallback;
+    }
+
+    /**
+     * Picks the first family in a CSS font-family list that is either in
+     * {@code pdf.fonts.dir} or a standard 14 family, falling back to Times as
+     * Flying Saucer does.
+     */
+    private Fonts fonts(PDDocument document, String fontFamily) throws IOException {
+        for (String raw : fontFamily.split(",")) {
+            String family = raw.strip().replace("\"", "").replace("'", "").toLowerCase(Locale.ROOT);
+            FontFiles files = embeddableFamilies.get(family);
+            if (files != null) {
+                PDFont regular = PDType0Font.load(document, new ByteArrayInputStream(files.regular()), true);
+                PDFont bold = files.bold() != null
+                        ? PDType0Font.load(document, new ByteArrayInputStream(files.bold()), true)
+                        : regular;
+                return new Fonts(regular, bold);
+            }
+            Standard14Fonts.FontName standard = STANDARD_FAMILIES.get(family);
+            if (standard != null) {
+                return standardFonts(standard);
+            }
+        }
+        return standardFonts(Standard14Fonts.FontName.TIMES_ROMAN);
+    }
+
+    private static Fonts standardFonts(Standard14Fonts.FontName regular) {
+        Standard14Fonts.FontName bold = switch (regular) {
+            case HELVETICA -> Standard14Fonts.FontName.HELVETICA_BOLD;
+            case COURIER -> Standard14Fonts.FontName.COURIER_BOLD;
+            default -> Standard14Fonts.FontName.TIMES_BOLD;
+        };
+        return new Fonts(new PDType1Font(regular), new PDType1Font(bold));
+    }
+
+    /**
+     * Reads regular and bold TrueType faces by family name. Other styles are
+     * ignored, as are files that fail to parse.
+     */
+    private static Map<String, FontFiles> scanFonts(Path directory) {
+        Map<String, byte[]> regular = new HashMap<>();
+        Map<String, byte[]> bold = new HashMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.{ttf,TTF}")) {
+            for (Path file : files) {
+                byte[] bytes = Files.readAllBytes(file);
+                try (TrueTypeFont font = new TTFParser().parse(new RandomAccessReadBuffer(bytes))) {
+                    NamingTable naming = font.getNaming();
+                    if (naming == null || naming.getFontFamily() == null) {
+                        continue;
+                    }
+                    String family = naming.getFontFamily().toLowerCase(Locale.ROOT);
+                    String style = naming.getFontSubFamily() != null
+                            ? naming.getFontSubFamily().toLowerCase(Locale.ROOT)
+                            : "regular";
+                    if (style.equals("bold")) {
+                        bold.put(family, bytes);
+                    } else if (style.equals("regular") || style.equals("normal") || style.equals("book")) {
+                        regular.put(family, bytes);
+                    }
+                } catch (IOException e) {
+                    logger.warn("Skipping unreadable font {}: {}", file, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not read fonts from {}: {}", directory, e.getMessage());
+        }
+        Map<String, FontFiles> families = new HashMap<>();
+        regular.forEach((family, bytes) -> families.put(family, new FontFiles(bytes, bold.get(family))));
+        return Map.copyOf(families);
+    }
+
+    private record FontFiles(byte[] regular, byte[] bold) {
+    }
+
+    private record Fonts(PDFont regular, PDFont bold) {
+    }
+
+    private record Style(PDFont font, float size, float leading, Color color, float letterSpacing) {
+    }
+
+    private record Watermark(PDFont font, Color color, float alpha) {
+    }
+
+    /**
+     * Drawing state for one document: the open page, its content stream and
+     * the vertical position, with page breaks inside {@link #lines}.
+     */
+    private static final class Canvas {
+
+        private final PDDocument document;
+        private final float firstPageTopMargin;
+        private final float topMargin;
+        private final float bottomMargin;
+        private final Watermark watermark;
+        private final Map<PDFont, Map<Integer, Boolean>> encodable = new HashMap<>();
+
+        private PDPageContentStream stream;
+        private float pageTop;
+        private float y;
+
+        Canvas(PDDocument document, float firstPageTopMargin, float topMargin, float bottomMargin,
+                Watermark watermark) {
+            this.document = document;
+            this.firstPageTopMargin = firstPageTopMargin;
+            this.topMargin = topMargin;
+            this.bottomMargin = bottomMargin;
+            this.watermark = watermark;
+        }
+
+        void newPage() throws IOException {
+            if (stream != null) {
+                stream.close();
+            }
+            PDPage page = new PDPage(PAGE);
+            document.addPage(page);
+            stream = new PDPageContentStream(document, page);
+            if (watermark != null) {
+                drawWatermark();
+            }
+            pageTop = PAGE_HEIGHT - (document.getNumberOfPages() == 1 ? firstPageTopMargin : topMargin);
+            y = pageTop;
+        }
+
+        void finish() throws IOException {
+            stream.close();
+        }
+
+        void space(float height) {
+            y -= height;
+        }
+
+        /**
+         * Writes text in the given style, one wrapped line at a time, starting a
+         * new page whenever the next line would cross the bottom margin. Line
+         * breaks in the text are kept.
+         */
+        void lines(Style style, String text, float x, float width) throws IOException {
+            lines(style, wrap(text, style, width), x);
+        }
+
+        void lines(Style style, List<String> lines, float x) throws IOException {
+            for (String line : lines) {
+                line(style, line, x, 0);
+            }
+        }
+
+        /**
+         * Like {@link #lines(Style, String, float, float)}, but stretches the
+         * spaces of every wrapped line to fill the width, as CSS
+         * {@code text-align: justify} does. The last line of each paragraph
+         * stays left-aligned.
+         */
+        void justified(Style style, String text, float x, float width) throws IOException {
+            for (String paragraph : text.replace("\r\n", "\n").replace('\r', '\n').split("\n", -1)) {
+                List<String> lines = wrap(paragraph, style, width);
+                for (int i = 0; i < lines.size(); i++) {
+                    String line = lines.get(i);
+                    long spaces = line.chars().filter(c -> c == ' ').count();
+                    float extra = i < lines.size() - 1 && spaces > 0
+                            ? Math.max(0, width - width(line, style)) / spaces
+                            : 0;
+                    line(style, line, x, extra);
+                }
+            }
+        }
+
+        private void line(Style style, String line, float x, float extraPerSpace) throws IOException {
+            if (y - style.leading() < bottomMargin && y < pageTop) {
+                newPage();
+            }
+            if (!line.isEmpty()) {
+                PDFontDescriptor descriptor = style.font().getFontDescriptor();
+                float ascent = descriptor != null && descriptor.getAscent() > 0
+                        ? descriptor.getAscent() / 1000 * style.size()
+                        : 0.8f * style.size();
+                float descent = descriptor != null && descriptor.getDescent() < 0
+                        ? -descriptor.getDescent() / 1000 * style.size()
+                        : 0.2f * style.size();
+                float baseline = y - (style.leading() - ascent - descent) / 2 - ascent;
+                stream.beginText();
+                stream.setFont(style.font(), style.size());
+                stream.setNonStrokingColor(style.color());
+                stream.setCharacterSpacing(style.letterSpacing());
+                stream.newLineAtOffset(x, baseline);
+                if (extraPerSpace == 0) {
+                    stream.showText(line);
+                } else {
+                    // Word spacing only applies to single-byte fonts, so words are placed one by one
+                    float spaceWidth = width(" ", style) + extraPerSpace;
+                    int start = 0;
+                    for (int end = line.indexOf(' '); end >= 0; end = line.indexOf(' ', start)) {
+                        String word = line.substring(start, end);
+                        stream.showText(word);
+                        stream.newLineAtOffset(width(word, style) + spaceWidth, 0);
+                        start = end + 1;
+                    }
+                    stream.showText(line.substring(start));
+                }
+                stream.endText();
+            }
+            y -= style.leading();
+        }
+
+        /**
+         * Wraps text to the width at spaces, keeping its line breaks and runs
+         * of spaces, and breaking words that are wider than a whole line.
+         */
+        List<String> wrap(String text, Style style, float width) throws IOException {
+            List<String> lines = new ArrayList<>();
+            float spaceWidth = width(" ", style);
+            for (String paragraph : text.replace("\r\n", "\n").replace('\r', '\n').replace("\t", "    ")
+                    .split("\n", -1)) {
+                paragraph = printable(paragraph, style.font());
+                StringBuilder line = new StringBuilder();
+                float lineWidth = 0;
+                boolean started = false;
+                for (String word : paragraph.split(" ", -1)) {
+                    float wordWidth = width(word, style);
+                    if (started && lineWidth + spaceWidth + wordWidth > width) {
+                        // The space at the break is dropped, as CSS pre-wrap does
+                        lines.add(line.toString());
+                        line.setLength(0);
+                        lineWidth = 0;
+                        started = false;
+                    }
+                    if (wordWidth > width) {
+                        for (int i = 0; i < word.length();) {
+                            int end = i + Character.charCount(word.codePointAt(i));
+                            float charWidth = width(word.substring(i, end), style);
+                            if (lineWidth + charWidth > width && line.length() > 0) {
+                                lines.add(line.toString());
+                                line.setLength(0);
+                                lineWidth = 0;
+                            }
+                            line.append(word, i, end);
+                            lineWidth += charWidth;
+                            i = end;
+                        }
+                    } else {
+                        if (started) {
+                            line.append(' ');
+                            lineWidth += spaceWidth;
+                        }
+                        line.append(word);
+                        lineWidth += wordWidth;
+                    }
+                    started = true;
+                }
+                lines.add(line.toString());
+            }
+            return lines;
+        }
+
+        float width(String text, Style style) throws IOException {
+            return style.font().getStringWidth(text) / 1000 * style.size()
+                    + style.letterSpacing() * text.codePointCount(0, text.length());
+        }
+
+        void rule(float x, float width, float thickness, Color color) throws IOException {
+            fill(x, y - thickness, width, thickness, color);
+            y -= thickness;
+        }
+
+        void fill(float x, float bottom, float width, float height, Color color) throws IOException {
+            stream.addRect(x, bottom, width, height);
+            fillPath(color);
+        }
+
+        void fillPath(Color color) throws IOException {
+            stream.setNonStrokingColor(color);
+            stream.fill();
+        }
+
+        void strokePath(Color color, float lineWidth) throws IOException {
+            stream.setStrokingColor(color);
+            stream.setLineWidth(lineWidth);
+            stream.stroke();
+        }
+
+        /**
+         * Adds a rectangle path with separately rounded corners, radii given
+         * clockwise from the top left.
+         */
+        void roundedRect(float x, float bottom, float width, float height, float topLeft, float topRight,
+                float bottomRight, float bottomLeft) throws IOException {
+            float top = bottom + height;
+            float right = x + width;
+            stream.moveTo(x + bottomLeft, bottom);
+            stream.lineTo(right - bottomRight, bottom);
+            stream.curveTo(right - bottomRight + KAPPA * bottomRight, bottom, right,
+                    bottom + bottomRight - KAPPA * bottomRight, right, bottom + bottomRight);
+            stream.lineTo(right, top - topRight);
+            stream.curveTo(right, top - topRight + KAPPA * topRight, right - topRight + KAPPA * topRight, top,
+                    right - topRight, top);
+            stream.lineTo(x + topLeft, top);
+            stream.curveTo(x + topLeft - KAPPA * topLeft, top, x, top - topLeft + KAPPA * topLeft, x, top - topLeft);
+            stream.lineTo(x, bottom + bottomLeft);
+            stream.curveTo(x, bottom + bottomLeft - KAPPA * bottomLeft, x + bottomLeft - KAPPA * bottomLeft, bottom,
+                    x + bottomLeft, bottom);
+            stream.closePath();
+        }
+
+        private void drawWatermark() throws IOException {
+            float size = 80;
+            float textWidth = watermark.font().getStringWidth(WATERMARK) / 1000 * size;
+            PDExtendedGraphicsState translucent = new PDExtendedGraphicsState();
+            translucent.setNonStrokingAlphaConstant(watermark.alpha());
+
+            stream.saveGraphicsState();
+            stream.setGraphicsStateParameters(translucent);
+            stream.setNonStrokingColor(watermark.color());
+            stream.beginText();
+            stream.setFont(watermark.font(), size);
+            Matrix matrix = Matrix.getRotateInstance(Math.toRadians(45), PAGE_WIDTH / 2, PAGE_HEIGHT / 2);
+            matrix.translate(-textWidth / 2, -size * 0.35f);
+            stream.setTextMatrix(matrix);
+            stream.showText(WATERMARK);
+            stream.endText();
+            stream.restoreGraphicsState();
+        }
+
+        /**
+         * Replaces characters the font cannot encode, and control characters,
+         * with '?'. Results are remembered per font for the document.
+         */
+        private String printable(String text, PDFont font) {
+            Map<Integer, Boolean> known = encodable.computeIfAbsent(font, f -> new HashMap<>());
+            StringBuilder out = null;
+            for (int i = 0; i < text.length();) {
+                int codePoint = text.codePointAt(i);
+                int next = i + Character.charCount(codePoint);
+                boolean ok = !Character.isISOControl(codePoint)
+                        && known.computeIfAbsent(codePoint, cp -> canEncode(font, cp));
+                if (!ok && out == null) {
+                    out = new StringBuilder(text.length()).append(text, 0, i);
+                }
+                if (out != null) {
+                    if (ok) {
+                        out.append(text, i, next);
+                    } else {
+                        out.append('?');
+                    }
+                }
+                i = next;
+            }
+            return out != null ? out.toString() : text;
+        }
+
+        private static boolean canEncode(PDFont font, int codePoint) {
+            try {
+                font.encode(new String(Character.toChars(codePoint)));
+                return true;
+            } catch (IllegalArgumentException | IOException e) {
+                return false;
+            }
+        }
+    }
+}
@@ -1,34 +1,236 @@
 package com.airesume.service;
 
+import com.airesume.util.XmlUtils;
 import com.lowagie.text.DocumentException;
+import com.lowagie.text.pdf.BaseFont;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
+import org.w3c.dom.Document;
 import org.xhtmlrenderer.pdf.ITextRenderer;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
 
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 public class PdfGeneratorService {
 
+    private static final Logger logger = LoggerFactory.getLogger(PdfGeneratorService.class);
+
+    public static final List<String> TEMPLATE_FILES = List.of("resume-template", "resume-template-modern",
+            "resume-template-executive");
+    public static final String DEFAULT_FONT = "Helvetica";
+
     private final TemplateEngine templateEngine;
+    private final NativePdfRenderer nativePdfRenderer;
+    private final Set<String> nativeTemplates;
+    private final String fontsDirectory;
+    private final DocumentBuilderFactory documentBuilderFactory;
+    // Idle renderers; each is used by one thread at a time
+    private final BlockingQueue<PooledRenderer> idleRenderers;
 
     public PdfGeneratorService(TemplateEngine templateEngine) {
+        this(templateEngine, "", 0);
+    }
+
+    public PdfGeneratorService(TemplateEngine templateEngine, String fontsDirectory, int rendererPoolSize) {
+        this(templateEngine, new NativePdfRenderer(fontsDirectory), fontsDirectory, rendererPoolSize, "");
+    }
+
+    @Autowired
+    public PdfGeneratorService(TemplateEngine templateEngine,
+            NativePdfRenderer nativePdfRenderer,
+            @Value("${pdf.fonts.dir:}") String fontsDirectory,
+            @Value("${pdf.render.renderer-pool-size:0}") int rendererPoolSize,
+            @Value("${pdf.render.native-templates:}") String nativeTemplates) {
         this.templateEngine = templateEngine;
+        this.nativePdfRenderer = nativePdfRenderer;
+        this.nativeTemplates = Arrays.stream(nativeTemplates.split(","))
+                .map(String::strip)
+                .filter(template -> !template.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        for (String template : this.nativeTemplates) {
+            if (!NativePdfRenderer.supports(template)) {
+                throw new IllegalArgumentException("pdf.render.native-templates: no native layout for " + template);
+            }
+        }
+        this.fontsDirectory = fontsDirectory;
+        this.idleRenderers = new ArrayBlockingQueue<>(
+                rendererPoolSize > 0 ? rendererPoolSize : Runtime.getRuntime().availableProcessors());
+
+        this.documentBuilderFactory = DocumentBuilderFactory.newInstance();
+        documentBuilderFactory.setNamespaceAware(true);
+        try {
+            // The templates use numeric character references only, so the XHTML DTD is never needed
+            documentBuilderFactory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd",
+                    false);
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("XML parser does not support disabling external DTDs", e);
+        }
+    }
+
+    /**
+     * Maps the template option sent by the frontend to its Thymeleaf file.
+     */
+    public static String templateFile(String template) {
+        if ("modern".equals(template)) {
+            return "resume-template-modern";
+        } else if ("executive".equals(template)) {
+            return "resume-template-executive";
+        }
+        return "resume-template";
+    }
+
+    /**
+     * The name shown on an exported resume: the uploaded file name without
+     * its .pdf extension.
+     */
+    public static String exportName(String uploadedFileName) {
+        return uploadedFileName != null ? uploadedFileName.replace(".pdf", "") : "My Resume";
+    }
+
+    /**
+     * Template variables for a PDF export. The resume text and name are
+     * XML-escaped here for the HTML templates; {@link NativePdfRenderer} gets
+     * them unescaped as well.
+     */
+    public static Context exportContext(String name, String extractedText, String font, boolean isPro) {
+        Context context = new Context();
+        context.setVariable("resumeName", XmlUtils.escapeXml(name));
+        context.setVariable("extractedText", XmlUtils.escapeXml(extractedText));
+        context.setVariable(NativePdfRenderer.PLAIN_NAME, name);
+        context.setVariable(NativePdfRenderer.PLAIN_TEXT, extractedText);
+        context.setVariable("fontFamily", font);
+        // Watermark flag based on pro status
+        context.setVariable("isPro", isPro);
+        return context;
     }
 
     public byte[] generatePdfFromHtml(String templateName, Context context) throws IOException, DocumentException {
-        // Render the HTML using Thymeleaf
-        String htmlContent = templateEngine.process(templateName, context);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(64 * 1024);
+        layout(templateName, context).writeTo(outputStream);
+        return outputStream.toByteArray();
+    }
 
-        // Convert HTML string to PDF byte array
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    /**
+     * Processes the template and lays it out, the CPU-heavy part of an export,
+     * without writing anything yet. Errors surface here, while the response
+     * can still be changed.
+     * <p>
+     * Renderers are pooled rather than built per call, so the shared context,
+     * user agent and font resolver, with the fonts from {@code pdf.fonts.dir}
+     * already registered, are set up once per pooled renderer. The HTML is
+     * parsed here without loading the XHTML DTD, which Flying Saucer would
+     * otherwise read and parse on every render. A renderer that fails
+     * mid-render is discarded.
+     * <p>
+     * Templates listed in {@code pdf.render.native-templates} are laid out by
+     * {@link NativePdfRenderer} instead, falling back to the HTML path if that
+     * fails. Their PDF is saved here too, which is cheap next to the layout,
+     * so no document is left open if it is never written.
+     */
+    public LaidOutPdf layout(String templateName, Context context) throws IOException, DocumentException {
+        return layout(templateName, context, () -> templateEngine.process(templateName, context));
+    }
+
+    /**
+     * Like {@link #layout(String, Context)}, but takes the template's HTML from
+     * {@code html}, e.g. an already rendered copy. It is only asked for when
+     * the template is not laid out natively.
+     */
+    public LaidOutPdf layout(String templateName, Context context, Supplier<String> html)
+            throws IOException, DocumentException {
+        if (nativeTemplates.contains(templateName)) {
+            try (PDDocument document = nativePdfRenderer.layout(templateName, context)) {
+                ByteArrayOutputStream saved = new ByteArrayOutputStream(64 * 1024);
+                document.save(saved);
+                byte[] pdf = saved.toByteArray();
+                return out -> out.write(pdf);
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Native layout of {} failed, rendering from HTML instead", templateName, e);
+            }
+        }
+
+        String htmlContent = html.get();
+
+        PooledRenderer pooled = borrowRenderer();
+        pooled.renderer().setDocument(pooled.parse(htmlContent), null);
+        pooled.renderer().layout();
+        return out -> {
+            pooled.renderer().createPDF(out);
+            // Only returned on success; a pool that is already full just drops it
+            idleRenderers.offer(pooled);
+        };
+    }
+
+    private PooledRenderer borrowRenderer() throws IOException, DocumentException {
+        PooledRenderer pooled = idleRenderers.poll();
+        return pooled != null ? pooled : newRenderer();
+    }
+
+    private PooledRenderer newRenderer() throws IOException, DocumentException {
         ITextRenderer renderer = new ITextRenderer();
-        renderer.setDocumentFromString(htmlContent);
-        renderer.layout();
-        renderer.createPDF(outputStream);
+        if (!fontsDirectory.isBlank()) {
+            if (!new File(fontsDirectory).isDirectory()) {
+                throw new IOException("pdf.fonts.dir is not a directory: " + fontsDirectory);
+            }
+            // Registers every .ttf/.otf there under its family name, e.g. "Inter" or "Garamond"
+            renderer.getFontResolver().addFontDirectory(fontsDirectory, BaseFont.EMBEDDED);
+        }
+        // DocumentBuilderFactory is not thread-safe
+        synchronized (documentBuilderFactory) {
+            try {
+                return new PooledRenderer(renderer, documentBuilderFactory.newDocumentBuilder());
+            } catch (ParserConfigurationException e) {
+                throw new IllegalStateException("Could not create an XML parser", e);
+            }
+        }
+    }
 
-        return outputStream.toByteArray();
+    /**
+     * A laid-out document, waiting to be written.
+     */
+    @FunctionalInterface
+    public interface LaidOutPdf {
+
+        /**
+         * Paints the PDF straight into {@code out}, so nothing is buffered
+         * beyond what the stream itself holds. Call at most once; resources
+         * held since layout are released afterwards.
+         */
+        void writeTo(OutputStream out) throws IOException, DocumentException;
+    }
+
+    private record PooledRenderer(ITextRenderer renderer, DocumentBuilder documentBuilder) {
+
+        Document parse(String html) throws IOException {
+            try {
+                return documentBuilder.parse(new InputSource(new StringReader(html)));
+            } catch (SAXException e) {
+                throw new IOException("Rendered template is not well-formed XHTML", e);
+            } finally {
+                documentBuilder.reset();
+            }
+        }
     }
 }
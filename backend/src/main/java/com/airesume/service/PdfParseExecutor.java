@@ -0,0 +1,183 @@
+package com.airesume.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs PDF text extraction on a dedicated, bounded pool so a burst of uploads
+ * or a pathological PDF cannot take over the request threads. Parses beyond
+ * the queue limit are rejected with {@link ServiceOverloadedException}. Each
+ * document gets a wall-clock budget, measured from submission, after which the
+ * parse is cancelled and the upload rejected.
+ */
+@Service
+public class PdfParseExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(PdfParseExecutor.class);
+
+    private final PdfParserService pdfParserService;
+    private final long timeoutMs;
+    private final ThreadPoolExecutor executor;
+
+    private final Timer queueWait;
+    private final Timer parseSuccess;
+    private final Timer parseFailure;
+    private final Counter timeouts;
+    private final Counter rejected;
+
+    public PdfParseExecutor(PdfParserService pdfParserService,
+            MeterRegistry meterRegistry,
+            @Value("${pdf.parse.pool-size:0}") int poolSize,
+            @Value("${pdf.parse.queue-capacity:20}") int queueCapacity,
+            @Value("${pdf.parse.timeout-ms:15000}") long timeoutMs) {
+        this.pdfParserService = pdfParserService;
+        this.timeoutMs = timeoutMs;
+
+        if (poolSize <= 0) {
+            poolSize = Runtime.getRuntime().availableProcessors();
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "pdf-parse-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        this.queueWait = Timer.builder("pdf.parse.queue.wait")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.parseSuccess = parseTimer(meterRegistry, "success");
+        this.parseFailure = parseTimer(meterRegistry, "failure");
+        this.timeouts = Counter.builder("pdf.parse.timeouts").register(meterRegistry);
+        this.rejected = Counter.builder("pdf.parse.rejected").register(meterRegistry);
+        Gauge.builder("pdf.parse.queue.size", executor, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder("pdf.parse.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+    }
+
+    /**
+     * Extracts per-page text from a spooled PDF on the parse pool, blocking the
+     * caller until it finishes.
+     *
+     * @throws ServiceOverloadedException if the parse queue is full
+     * @throws IllegalArgumentException   if the PDF does not parse within the timeout
+     */
+    public List<String> extractPages(Path pdf) throws IOException {
+        return submit(pdf).await();
+    }
+
+    /**
+     * Queues a parse without waiting for it, so callers with many documents can
+     * keep several in flight. The timeout still runs from submission.
+     *
+     * @throws ServiceOverloadedException if the parse queue is full
+     */
+    public PendingParse submit(Path pdf) {
+        long submittedAt = System.nanoTime();
+        try {
+            Future<List<String>> future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                queueWait.record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+                try {
+                    List<String> pages = pdfParserService.extractPages(pdf);
+                    parseSuccess.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                    return pages;
+                } catch (IOException | RuntimeException e) {
+                    parseFailure.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                    throw e;
+                }
+            });
+            return new PendingParse(future, submittedAt + TimeUnit.MILLISECONDS.toNanos(timeoutMs));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServiceOverloadedException("Too many resumes are being processed. Please try again shortly.",
+                    5);
+        }
+    }
+
+    public int poolSize() {
+        return executor.getMaximumPoolSize();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * A queued or running parse with its deadline.
+     */
+    public final class PendingParse {
+
+        private final Future<List<String>> future;
+        private final long deadlineNanos;
+
+        private PendingParse(Future<List<String>> future, long deadlineNanos) {
+            this.future = future;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * Waits for the pages, cancelling the parse once its deadline passes.
+         *
+         * @throws IllegalArgumentException if the PDF does not parse within the timeout
+         */
+        public List<String> await() throws IOException {
+            try {
+                return future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                timeouts.increment();
+                logger.warn("PDF parse exceeded {} ms and was cancelled", timeoutMs);
+                throw new IllegalArgumentException(
+                        "This PDF took too long to process. Please upload a simpler file.");
+            } catch (InterruptedException e) {
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for PDF parse", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException io) {
+                    throw io;
+                }
+                if (e.getCause() instanceof UncheckedIOException io) {
+                    throw io.getCause();
+                }
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw new IOException(e.getCause());
+            }
+        }
+
+        public void cancel() {
+            future.cancel(true);
+        }
+    }
+
+    private static Timer parseTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("pdf.parse.duration")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
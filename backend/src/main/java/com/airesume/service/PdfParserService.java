@@ -1,27 +1,300 @@
 package com.airesume.service;
 
+import com.airesume.util.HashUtils;
+import jakarta.annotation.PreDestroy;
 import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.io.RandomAccessReadBufferedFile;
+import org.apache.pdfbox.io.RandomAccessReadMemoryMappedFile;
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 
 @Service
 public class PdfParserService {
 
+    private static final long DEFAULT_MAX_MAIN_MEMORY_BYTES = 4 * 1024 * 1024;
+    private static final int DEFAULT_PARALLEL_MIN_PAGES = 12;
+    private static final int DEFAULT_PAGES_PER_TASK = 4;
+    private static final int DEFAULT_MAX_PAGES = 50;
+    private static final int DEFAULT_MAX_OBJECTS = 50_000;
+
+    private final long maxMainMemoryBytes;
+    private final File spoolDirectory;
+    private final boolean memoryMapped;
+    private final int parallelMinPages;
+    private final int pagesPerTask;
+    private final int maxPages;
+    private final int maxObjects;
+    private final ForkJoinPool extractionPool;
+
+    public PdfParserService() {
+        this(DEFAULT_MAX_MAIN_MEMORY_BYTES, "", false, DEFAULT_PARALLEL_MIN_PAGES, 0, DEFAULT_PAGES_PER_TASK,
+                DEFAULT_MAX_PAGES, DEFAULT_MAX_OBJECTS);
+    }
+
+    @Autowired
+    public PdfParserService(@Value("${pdf.ingest.max-main-memory-bytes:4194304}") long maxMainMemoryBytes,
+            @Value("${pdf.ingest.spool-dir:}") String spoolDirectory,
+            @Value("${pdf.ingest.memory-mapped:false}") boolean memoryMapped,
+            @Value("${pdf.parse.parallel-min-pages:12}") int parallelMinPages,
+            @Value("${pdf.parse.parallelism:0}") int parallelism,
+            @Value("${pdf.parse.pages-per-task:4}") int pagesPerTask,
+            @Value("${pdf.parse.max-pages:50}") int maxPages,
+            @Value("${pdf.parse.max-objects:50000}") int maxObjects) {
+        this.maxMainMemoryBytes = maxMainMemoryBytes;
+        this.spoolDirectory = spoolDirectory.isBlank() ? null : new File(spoolDirectory);
+        this.memoryMapped = memoryMapped;
+        this.parallelMinPages = parallelMinPages;
+        this.pagesPerTask = Math.max(1, pagesPerTask);
+        this.maxPages = maxPages;
+        this.maxObjects = maxObjects;
+        this.extractionPool = new ForkJoinPool(
+                parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
     public String extractTextFromPdf(MultipartFile file) throws IOException {
+        return String.join("", extractPages(file));
+    }
+
+    /**
+     * Extracts the text of each page separately. The concatenation equals
+     * {@link #extractTextFromPdf}.
+     * <p>
+     * The upload is streamed to a temp file and parsed from there rather than
+     * from a heap copy. PDF streams PDFBox needs to buffer go to a scratch file
+     * once they exceed {@code pdf.ingest.max-main-memory-bytes}, so heap use
+     * per upload does not grow with the size of the PDF.
+     */
+    public List<String> extractPages(MultipartFile file) throws IOException {
+        try (SpooledUpload upload = spool(file)) {
+            return extractPages(upload.path());
+        }
+    }
+
+    /**
+     * Streams the upload to a temp file, computing its SHA-256 on the way so
+     * the bytes are read only once. Closing the result deletes the file.
+     */
+    public SpooledUpload spool(MultipartFile file) throws IOException {
         if (file.isEmpty()) {
             throw new IllegalArgumentException("Cannot parse an empty file.");
         }
+        try (InputStream in = file.getInputStream()) {
+            return spool(in, Long.MAX_VALUE);
+        }
+    }
 
-        try (PDDocument document = Loader.loadPDF(file.getBytes())) {
+    /**
+     * Spools and hashes a stream the same way, failing once more than
+     * {@code maxBytes} have been read. The stream is not closed, so it can be
+     * an entry of an archive that is still being read.
+     */
+    public SpooledUpload spool(InputStream in, long maxBytes) throws IOException {
+        Path spooled = spoolDirectory != null
+                ? Files.createTempFile(spoolDirectory.toPath(), "upload-", ".pdf")
+                : Files.createTempFile("upload-", ".pdf");
+        MessageDigest digest = HashUtils.newSha256();
+        try (OutputStream out = Files.newOutputStream(spooled)) {
+            byte[] buffer = new byte[8192];
+            long total = 0;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                total += read;
+                if (total > maxBytes) {
+                    throw new IllegalArgumentException("File exceeds the " + maxBytes + " byte limit.");
+                }
+                digest.update(buffer, 0, read);
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(spooled);
+            throw e;
+        }
+        return new SpooledUpload(spooled, HexFormat.of().formatHex(digest.digest()));
+    }
+
+    /**
+     * Extracts per-page text from a PDF on disk. Documents with at least
+     * {@code pdf.parse.parallel-min-pages} pages are split into page ranges and
+     * extracted in parallel. Each worker opens its own {@link PDDocument}, since
+     * PDFBox documents are not thread-safe. The output is identical to a serial
+     * pass.
+     * <p>
+     * Documents over {@code pdf.parse.max-pages} pages or
+     * {@code pdf.parse.max-objects} indirect objects are rejected before any
+     * text is extracted. Extraction stops at the next page boundary once the
+     * calling thread is interrupted.
+     */
+    public List<String> extractPages(Path pdf) throws IOException {
+        int pageCount;
+        try (RandomAccessRead source = openSpooled(pdf);
+                PDDocument document = Loader.loadPDF(source, scratchMemory().streamCache)) {
             if (document.isEncrypted()) {
                 throw new IllegalArgumentException("Cannot parse encrypted PDF.");
             }
-            PDFTextStripper stripper = new PDFTextStripper();
-            return stripper.getText(document);
+            pageCount = document.getNumberOfPages();
+            checkLimits(document, pageCount);
+            if (parallelMinPages <= 0 || pageCount < parallelMinPages) {
+                return extractRange(document, 1, Integer.MAX_VALUE, Thread.currentThread());
+            }
+        }
+        return extractInParallel(pdf, pageCount);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        extractionPool.shutdownNow();
+    }
+
+    private List<String> extractInParallel(Path pdf, int pageCount) throws IOException {
+        List<int[]> ranges = new ArrayList<>();
+        for (int start = 1; start <= pageCount; start += pagesPerTask) {
+            ranges.add(new int[] { start, Math.min(pageCount, start + pagesPerTask - 1) });
+        }
+        // Range workers watch the caller's interrupt flag so a cancelled parse stops them too
+        Thread caller = Thread.currentThread();
+        try {
+            List<List<String>> rangePages = extractionPool.submit(() -> ranges.parallelStream()
+                    .map(range -> extractRange(pdf, range[0], range[1], caller))
+                    .toList()).get();
+            List<String> pages = new ArrayList<>(pageCount);
+            rangePages.forEach(pages::addAll);
+            return pages;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while extracting PDF text", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private List<String> extractRange(Path pdf, int startPage, int endPage, Thread caller) {
+        try (RandomAccessRead source = openSpooled(pdf);
+                PDDocument document = Loader.loadPDF(source, scratchMemory().streamCache)) {
+            return extractRange(document, startPage, endPage, caller);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<String> extractRange(PDDocument document, int startPage, int endPage, Thread caller)
+            throws IOException {
+        PageTrackingTextStripper stripper = new PageTrackingTextStripper(caller);
+        stripper.setStartPage(startPage);
+        stripper.setEndPage(endPage);
+        StringWriter writer = new StringWriter();
+        stripper.writeText(document, writer);
+        return stripper.pages(writer.toString());
+    }
+
+    private void checkLimits(PDDocument document, int pageCount) {
+        if (maxPages > 0 && pageCount > maxPages) {
+            throw new IllegalArgumentException("PDF has " + pageCount + " pages; the limit is " + maxPages + ".");
+        }
+        int objectCount = document.getDocument().getXrefTable().size();
+        if (maxObjects > 0 && objectCount > maxObjects) {
+            throw new IllegalArgumentException("PDF is too complex to parse (" + objectCount + " objects).");
+        }
+    }
+
+    private RandomAccessRead openSpooled(Path spooled) throws IOException {
+        return memoryMapped
+                ? new RandomAccessReadMemoryMappedFile(spooled)
+                : new RandomAccessReadBufferedFile(spooled);
+    }
+
+    private MemoryUsageSetting scratchMemory() {
+        MemoryUsageSetting setting = MemoryUsageSetting.setupMixed(maxMainMemoryBytes);
+        if (spoolDirectory != null) {
+            setting.setTempDir(spoolDirectory);
+        }
+        return setting;
+    }
+
+    /**
+     * An upload spooled to disk together with the SHA-256 of its bytes.
+     */
+    public record SpooledUpload(Path path, String sha256) implements AutoCloseable {
+
+        @Override
+        public void close() throws IOException {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Records where each page ends in the output so the text can be split back
+     * into pages, and aborts between pages once the owning thread is interrupted.
+     */
+    private static class PageTrackingTextStripper extends PDFTextStripper {
+
+        private final List<Integer> pageEnds = new ArrayList<>();
+        private final Thread owner;
+
+        PageTrackingTextStripper(Thread owner) {
+            this.owner = owner;
+        }
+
+        @Override
+        protected void startPage(PDPage page) throws IOException {
+            if (owner.isInterrupted()) {
+                throw new InterruptedIOException("PDF text extraction was cancelled");
+            }
+            super.startPage(page);
+        }
+
+        @Override
+        protected void endPage(PDPage page) throws IOException {
+            output.flush();
+            pageEnds.add(((StringWriter) output).getBuffer().length());
+            super.endPage(page);
+        }
+
+        List<String> pages(String text) {
+            List<String> pages = new ArrayList<>(pageEnds.size());
+            int start = 0;
+            for (int end : pageEnds) {
+                pages.add(text.substring(start, end));
+                start = end;
+            }
+            if (start < text.length()) {
+                // Anything written after the last page (document end) belongs to it
+                if (pages.isEmpty()) {
+                    pages.add(text.substring(start));
+                } else {
+                    int last = pages.size() - 1;
+                    pages.set(last, pages.get(last) + text.substring(start));
+                }
+            }
+            return pages;
         }
     }
 }
@@ -0,0 +1,208 @@
+package com.airesume.service;
+
+import com.airesume.entity.Resume;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Renders every template of a freshly analyzed resume into
+ * {@link RenderedPdfCache} in the background, with the default font and the
+ * user's watermark setting, so the first export after analysis is a cache
+ * hit. Rendering goes through {@link ResumeRenderPipeline}, which warms the
+ * preview HTML as well. Each template is rendered on the {@link RenderExecutor}
+ * pool as a background render, which only starts while the pool has nothing
+ * else running or queued. While the pool is busy the attempt is re-scheduled
+ * rather than waited for, so one deferred resume does not hold up the
+ * others; a template that cannot start within
+ * {@code pdf.prerender.max-defer-ms} is given up. Scheduling a resume again
+ * cancels the pre-render still pending for it.
+ */
+@Service
+public class PdfPrerenderService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PdfPrerenderService.class);
+
+    private static final long IDLE_POLL_MS = 25;
+
+    private final ResumeRenderPipeline renderPipeline;
+    private final RenderedPdfCache renderedPdfCache;
+    private final RenderExecutor renderExecutor;
+    private final boolean enabled;
+    private final int queueCapacity;
+    private final long maxDeferMs;
+    private final ScheduledThreadPoolExecutor executor;
+
+    // Latest pre-render per resume id; its size bounds the backlog
+    private final Map<Long, Prerender> pending = new ConcurrentHashMap<>();
+
+    private final Counter rendered;
+    private final Counter alreadyCached;
+    private final Counter cancellations;
+    private final Counter gaveUp;
+    private final Counter dropped;
+    private final Counter failed;
+
+    public PdfPrerenderService(ResumeRenderPipeline renderPipeline,
+            RenderedPdfCache renderedPdfCache,
+            RenderExecutor renderExecutor,
+            MeterRegistry meterRegistry,
+            @Value("${pdf.prerender.enabled:true}") boolean enabled,
+            @Value("${pdf.prerender.queue-capacity:50}") int queueCapacity,
+            @Value("${pdf.prerender.max-defer-ms:30000}") long maxDeferMs) {
+        this.renderPipeline = renderPipeline;
+        this.renderedPdfCache = renderedPdfCache;
+        this.renderExecutor = renderExecutor;
+        this.enabled = enabled;
+        this.queueCapacity = queueCapacity;
+        this.maxDeferMs = maxDeferMs;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "pdf-prerender-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.rendered = outcome(meterRegistry, "rendered");
+        this.alreadyCached = outcome(meterRegistry, "cached");
+        this.cancellations = outcome(meterRegistry, "cancelled");
+        this.gaveUp = outcome(meterRegistry, "deferred-too-long");
+        this.dropped = outcome(meterRegistry, "queue-full");
+        this.failed = outcome(meterRegistry, "failed");
+        Gauge.builder("pdf.prerender.queue.size", pending, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Queues pre-renders of every template for the resume as it is now. Never
+     * throws; when the queue is full the resume is simply not pre-rendered.
+     */
+    public void schedule(Resume resume, boolean isPro) {
+        if (!enabled || resume.getId() == null) {
+            return;
+        }
+        Prerender prerender = new Prerender(resume.getId(), PdfGeneratorService.exportName(resume.getFileName()),
+                resume.getExtractedText() != null ? resume.getExtractedText() : "", isPro);
+        Prerender previous = pending.put(prerender.resumeId, prerender);
+        if (previous != null) {
+            previous.cancel();
+        } else if (pending.size() > queueCapacity) {
+            pending.remove(prerender.resumeId, prerender);
+            dropped.increment();
+            return;
+        }
+        try {
+            executor.execute(prerender::attempt);
+        } catch (RejectedExecutionException e) {
+            pending.remove(prerender.resumeId, prerender);
+            dropped.increment();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static Counter outcome(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("pdf.prerender").tag("outcome", outcome).register(meterRegistry);
+    }
+
+    /**
+     * The pre-render of one resume, advanced one template at a time by
+     * {@link #attempt()} on the pre-render thread.
+     */
+    private final class Prerender {
+
+        final long resumeId;
+        final String name;
+        final String text;
+        final boolean isPro;
+        volatile boolean cancelled;
+
+        // Only touched on the pre-render thread
+        private int nextTemplate;
+        private long deadline;
+
+        Prerender(long resumeId, String name, String text, boolean isPro) {
+            this.resumeId = resumeId;
+            this.name = name;
+            this.text = text;
+            this.isPro = isPro;
+            this.deadline = deadlineFromNow();
+        }
+
+        void cancel() {
+            cancelled = true;
+        }
+
+        /**
+         * Renders and caches the remaining templates while the render pool is
+         * idle. When it is not, tries again shortly after, leaving the thread to other resumes in the meantime.
+         */
+        void attempt() {
+            try {
+                while (nextTemplate < PdfGeneratorService.TEMPLATE_FILES.size()) {
+                    if (cancelled) {
+                        cancellations.increment();
+                        break;
+                    }
+                    ResumeRenderPipeline.Version version = renderPipeline.version(resumeId, name, text,
+                            PdfGeneratorService.TEMPLATE_FILES.get(nextTemplate), PdfGeneratorService.DEFAULT_FONT,
+                            isPro);
+                    // Checked on every attempt, since the export being waited for may have been this one
+                    if (renderedPdfCache.contains(version.key())) {
+                        alreadyCached.increment();
+                        advance();
+                        continue;
+                    }
+                    Optional<byte[]> pdf = renderExecutor.callIfIdle("prerender",
+                            () -> renderPipeline.renderPdf(version));
+                    if (pdf.isEmpty()) {
+                        if (System.nanoTime() - deadline > 0) {
+                            gaveUp.increment();
+                            break;
+                        }
+                        executor.schedule(this::attempt, IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                        return;
+                    }
+                    if (cancelled) {
+                        cancellations.increment();
+                        break;
+                    }
+                    renderedPdfCache.put(version.key(), pdf.get());
+                    rendered.increment();
+                    advance();
+                }
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+            } catch (Exception e) {
+                failed.increment();
+                logger.warn("Pre-rendering resume {} failed", resumeId, e);
+            }
+            pending.remove(resumeId, this);
+        }
+
+        private void advance() {
+            nextTemplate++;
+            deadline = deadlineFromNow();
+        }
+
+        private long deadlineFromNow() {
+            return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDeferMs);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.airesume.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs template rendering and PDF layout and painting on a dedicated, bounded
+ * pool, so a burst of exports or previews cannot occupy every core and slow
+ * down cheap endpoints. Renders beyond the queue limit, or still queued after
+ * {@code pdf.render.queue-timeout-ms}, are rejected with
+ * {@link ServiceOverloadedException}. Once a render has started it runs to
+ * completion. Background renders run one at a time and only when the pool is
+ * otherwise idle, so a request waits behind at most one of them.
+ */
+@Service
+public class RenderExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final long queueTimeoutMs;
+    private final MeterRegistry meterRegistry;
+    // Held by the one background render allowed at a time
+    private final Semaphore backgroundPermit = new Semaphore(1);
+    // Renders submitted and not yet finished or given up; unlike the pool's active count, it drops to zero
+    // before a finished render's caller sees its result
+    private final AtomicInteger unfinished = new AtomicInteger();
+
+    private final Timer queueWait;
+    private final Counter rejected;
+    private final Counter queueTimeouts;
+
+    public RenderExecutor(MeterRegistry meterRegistry,
+            @Value("${pdf.render.pool-size:0}") int poolSize,
+            @Value("${pdf.render.queue-capacity:20}") int queueCapacity,
+            @Value("${pdf.render.queue-timeout-ms:5000}") long queueTimeoutMs) {
+        this.meterRegistry = meterRegistry;
+        this.queueTimeoutMs = queueTimeoutMs;
+
+        if (poolSize <= 0) {
+            poolSize = Runtime.getRuntime().availableProcessors();
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "render-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        this.queueWait = Timer.builder("pdf.render.queue.wait")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejected = Counter.builder("pdf.render.rejected").tag("reason", "queue-full").register(meterRegistry);
+        this.queueTimeouts = Counter.builder("pdf.render.rejected").tag("reason", "queue-timeout")
+                .register(meterRegistry);
+        Gauge.builder("pdf.render.queue.size", executor, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder("pdf.render.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+    }
+
+    /**
+     * Runs the task on the render pool and waits for its result. {@code kind}
+     * tags the duration metric, e.g. "pdf" or "html".
+     *
+     * @throws ServiceOverloadedException if the queue is full, or the task is
+     *                                    still queued after the queue timeout
+     */
+    public <T> T call(String kind, Callable<T> task) throws IOException {
+        long submittedAt = System.nanoTime();
+        // Claimed by whichever comes first: the worker starting the task, or the caller giving up on it
+        AtomicBoolean claimed = new AtomicBoolean();
+        Future<T> future;
+        unfinished.incrementAndGet();
+        try {
+            future = executor.submit(() -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    throw new CancellationException();
+                }
+                long startedAt = System.nanoTime();
+                queueWait.record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+                String outcome = "failure";
+                try {
+                    T result = task.call();
+                    outcome = "success";
+                    return result;
+                } finally {
+                    unfinished.decrementAndGet();
+                    renderTimer(kind, outcome).record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            unfinished.decrementAndGet();
+            rejected.increment();
+            throw overloaded();
+        }
+
+        try {
+            try {
+                return future.get(queueTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (claimed.compareAndSet(false, true)) {
+                    unfinished.decrementAndGet();
+                    future.cancel(false);
+                    // Free its queue slot now rather than when a worker reaches it
+                    executor.remove((Runnable) future);
+                    queueTimeouts.increment();
+                    throw overloaded();
+                }
+                // Already running; wait for it to finish
+                return future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for render", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Runs a background task on the render pool and waits for its result, but
+     * only if no other render is running or queued. Returns empty without
+     * running it otherwise, or if the pool turned busy before it started.
+     */
+    public <T> Optional<T> callIfIdle(String kind, Callable<T> task) throws IOException {
+        if (!backgroundPermit.tryAcquire()) {
+            return Optional.empty();
+        }
+        try {
+            if (!isIdle()) {
+                return Optional.empty();
+            }
+            return Optional.ofNullable(call(kind, task));
+        } catch (ServiceOverloadedException e) {
+            return Optional.empty();
+        } finally {
+            backgroundPermit.release();
+        }
+    }
+
+    private boolean isIdle() {
+        return unfinished.get() == 0;
+    }
+
+    public int poolSize() {
+        return executor.getMaximumPoolSize();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static ServiceOverloadedException overloaded() {
+        return new ServiceOverloadedException("Too many documents are being rendered. Please try again shortly.", 5);
+    }
+
+    private Timer renderTimer(String kind, String outcome) {
+        return Timer.builder("pdf.render.duration")
+                .tag("kind", kind)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,360 @@
+package com.airesume.service;
+
+import com.airesume.util.HashUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Cache of rendered resume PDFs, so exporting the same resume with the same
+ * template, font and watermark setting twice renders it only once. The memory
+ * tier is an LRU bounded by total bytes. When {@code pdf.render-cache.spill-dir}
+ * is set, entries evicted from memory move to files there, bounded separately;
+ * spilled files do not survive a restart.
+ * <p>
+ * The key doubles as the ETag. It includes a fingerprint of the template
+ * files, the templates laid out natively and the fonts in
+ * {@code pdf.fonts.dir}, so changing any of them after a deploy changes every
+ * ETag and spilled file name.
+ */
+@Service
+public class RenderedPdfCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(RenderedPdfCache.class);
+
+    private final long maxMemoryBytes;
+    private final Path spillDirectory;
+    private final long maxSpillBytes;
+    private final String templateVersion;
+
+    // Both maps are in access order and guarded by this
+    private final LinkedHashMap<String, byte[]> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Long> spilled = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryBytes;
+    private long spilledBytes;
+
+    private final Counter memoryHits;
+    private final Counter diskHits;
+    private final Counter misses;
+
+    public RenderedPdfCache(MeterRegistry meterRegistry, long maxMemoryBytes, String spillDirectory,
+            long maxSpillBytes) throws IOException {
+        this(meterRegistry, maxMemoryBytes, spillDirectory, maxSpillBytes, "", "");
+    }
+
+    @Autowired
+    public RenderedPdfCache(MeterRegistry meterRegistry,
+            @Value("${pdf.render-cache.max-memory-bytes:67108864}") long maxMemoryBytes,
+            @Value("${pdf.render-cache.spill-dir:}") String spillDirectory,
+            @Value("${pdf.render-cache.max-spill-bytes:536870912}") long maxSpillBytes,
+            @Value("${pdf.render.native-templates:}") String nativeTemplates,
+            @Value("${pdf.fonts.dir:}") String fontsDirectory) throws IOException {
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.spillDirectory = spillDirectory.isBlank() ? null : Path.of(spillDirectory);
+        this.maxSpillBytes = maxSpillBytes;
+        this.templateVersion = templateFingerprint(nativeTemplates, fontsDirectory);
+        if (this.spillDirectory != null) {
+            Files.createDirectories(this.spillDirectory);
+            clearSpillDirectory();
+        }
+
+        this.memoryHits = Counter.builder("pdf.render.cache.requests")
+                .tag("result", "hit").tag("tier", "memory").register(meterRegistry);
+        this.diskHits = Counter.builder("pdf.render.cache.requests")
+                .tag("result", "hit").tag("tier", "disk").register(meterRegistry);
+        this.misses = Counter.builder("pdf.render.cache.requests")
+                .tag("result", "miss").tag("tier", "none").register(meterRegistry);
+        Gauge.builder("pdf.render.cache.memory.bytes", this, RenderedPdfCache::memoryBytes).register(meterRegistry);
+        Gauge.builder("pdf.render.cache.spill.bytes", this, RenderedPdfCache::spilledBytes).register(meterRegistry);
+    }
+
+    /**
+     * Builds the key for one render. The resume text and file name are hashed
+     * rather than compared, so an edited resume gets a new key.
+     */
+    public String keyFor(long resumeId, String fileName, String extractedText, String templateFile, String font,
+            boolean isPro) {
+        return HashUtils.sha256Hex(Long.toString(resumeId), HashUtils.sha256Hex(fileName, extractedText),
+                templateFile, font, Boolean.toString(isPro), templateVersion);
+    }
+
+    public static String etag(String key) {
+        return "\"" + key + "\"";
+    }
+
+    /**
+     * Whether an {@code If-None-Match} header names the given ETag, or is
+     * {@code *}. Weak validators match too, since the PDF bytes for a key do
+     * not change.
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.strip();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public Optional<byte[]> get(String key) {
+        synchronized (this) {
+            byte[] pdf = memory.get(key);
+            if (pdf != null) {
+                memoryHits.increment();
+                return Optional.of(pdf);
+            }
+        }
+
+        if (spillDirectory != null) {
+            byte[] pdf = readSpilled(key);
+            if (pdf != null) {
+                diskHits.increment();
+                return Optional.of(pdf);
+            }
+        }
+
+        misses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Whether the key is cached in either tier. Unlike {@link #get}, this
+     * does not count as a hit or miss.
+     */
+    public synchronized boolean contains(String key) {
+        return memory.containsKey(key) || spilled.containsKey(key);
+    }
+
+    /**
+     * Stores a rendered PDF. The array must not be modified afterwards; it is
+     * handed out as-is on later hits.
+     */
+    public void put(String key, byte[] pdf) {
+        List<Map.Entry<String, byte[]>> evicted = new ArrayList<>();
+        synchronized (this) {
+            if (pdf.length > maxMemoryBytes) {
+                evicted.add(Map.entry(key, pdf));
+            } else {
+                byte[] previous = memory.put(key, pdf);
+                memoryBytes += pdf.length - (previous != null ? previous.length : 0);
+                Iterator<Map.Entry<String, byte[]>> eldest = memory.entrySet().iterator();
+                while (memoryBytes > maxMemoryBytes && eldest.hasNext()) {
+                    Map.Entry<String, byte[]> entry = eldest.next();
+                    eldest.remove();
+                    memoryBytes -= entry.getValue().length;
+                    evicted.add(entry);
+                }
+            }
+        }
+        // Disk writes happen outside the lock so a slow disk does not stall memory hits
+        if (spillDirectory != null) {
+            evicted.forEach(entry -> spill(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    /**
+     * Wraps a response stream so the bytes written through it are also
+     * kept, to be cached by {@link Capture#store()} once the PDF is complete.
+     * A PDF too large for the cache stops being copied as soon as it exceeds
+     * the limit.
+     */
+    public Capture capture(String key, OutputStream out) {
+        return new Capture(key, out);
+    }
+
+    public synchronized long memoryBytes() {
+        return memoryBytes;
+    }
+
+    public synchronized long spilledBytes() {
+        return spilledBytes;
+    }
+
+    private long maxEntryBytes() {
+        return spillDirectory != null ? Math.max(maxMemoryBytes, maxSpillBytes) : maxMemoryBytes;
+    }
+
+    private byte[] readSpilled(String key) {
+        synchronized (this) {
+            if (!spilled.containsKey(key)) {
+                return null;
+            }
+        }
+        try {
+            return Files.readAllBytes(spillFile(key));
+        } catch (NoSuchFileException e) {
+            // Evicted from disk between the index check and the read
+            return null;
+        } catch (IOException e) {
+            logger.warn("Could not read spilled PDF {}", key, e);
+            return null;
+        }
+    }
+
+    private void spill(String key, byte[] pdf) {
+        if (pdf.length > maxSpillBytes) {
+            return;
+        }
+        try {
+            Path temp = Files.createTempFile(spillDirectory, "spill-", ".tmp");
+            Files.write(temp, pdf);
+            Files.move(temp, spillFile(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Could not spill rendered PDF {} to disk", key, e);
+            return;
+        }
+
+        List<String> dropped = new ArrayList<>();
+        synchronized (this) {
+            Long previous = spilled.put(key, (long) pdf.length);
+            spilledBytes += pdf.length - (previous != null ? previous : 0);
+            Iterator<Map.Entry<String, Long>> eldest = spilled.entrySet().iterator();
+            while (spilledBytes > maxSpillBytes && eldest.hasNext()) {
+                Map.Entry<String, Long> entry = eldest.next();
+                eldest.remove();
+                spilledBytes -= entry.getValue();
+                dropped.add(entry.getKey());
+            }
+        }
+        for (String droppedKey : dropped) {
+            try {
+                Files.deleteIfExists(spillFile(droppedKey));
+            } catch (IOException e) {
+                logger.warn("Could not delete spilled PDF {}", droppedKey, e);
+            }
+        }
+    }
+
+    private Path spillFile(String key) {
+        return spillDirectory.resolve(key + ".pdf");
+    }
+
+    private void clearSpillDirectory() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(spillDirectory, "*.{pdf,tmp}")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * A pass-through stream that keeps a copy of what is written for the cache.
+     */
+    public final class Capture extends FilterOutputStream {
+
+        private final String key;
+        private ByteArrayOutputStream copy = new ByteArrayOutputStream(64 * 1024);
+
+        private Capture(String key, OutputStream out) {
+            super(out);
+            this.key = key;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            if (keep(1)) {
+                copy.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            if (keep(len)) {
+                copy.write(b, off, len);
+            }
+        }
+
+        /**
+         * Caches the bytes written so far. Call only once the PDF has been
+         * written completely.
+         */
+        public void store() {
+            if (copy != null) {
+                put(key, copy.toByteArray());
+                copy = null;
+            }
+        }
+
+        private boolean keep(int len) {
+            if (copy != null && copy.size() + (long) len > maxEntryBytes()) {
+                copy = null;
+            }
+            return copy != null;
+        }
+    }
+
+    /**
+     * Hashes what a render depends on besides its key's inputs: the template
+     * files, which templates are laid out natively, and the name, size and
+     * modification time of each font file.
+     */
+    static String templateFingerprint(String nativeTemplates, String fontsDirectory) throws IOException {
+        MessageDigest digest = HashUtils.newSha256();
+        for (String template : PdfGeneratorService.TEMPLATE_FILES) {
+            try (InputStream in = new ClassPathResource("templates/" + template + ".html").getInputStream()) {
+                digest.update(in.readAllBytes());
+            }
+        }
+        List<String> engine = new ArrayList<>();
+        for (String template : nativeTemplates.split(",")) {
+            if (!template.isBlank()) {
+                engine.add("native:" + template.strip());
+            }
+        }
+        if (!fontsDirectory.isBlank() && Files.isDirectory(Path.of(fontsDirectory))) {
+            engine.add("fonts:" + fontsDirectory);
+            try (DirectoryStream<Path> fonts = Files.newDirectoryStream(Path.of(fontsDirectory))) {
+                for (Path font : fonts) {
+                    if (Files.isRegularFile(font)) {
+                        engine.add("font:" + font.getFileName() + ":" + Files.size(font) + ":"
+                                + Files.getLastModifiedTime(font).toMillis());
+                    }
+                }
+            }
+        }
+        // Order-independent, as neither the property nor the directory listing has a meaningful order
+        engine.sort(null);
+        for (String part : engine) {
+            digest.update((part + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
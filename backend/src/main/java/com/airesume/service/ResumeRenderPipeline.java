@@ -0,0 +1,146 @@
+package com.airesume.service;
+
+import com.lowagie.text.DocumentException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * One rendering path for a resume document, shared by preview-html and
+ * export-pdf. A {@link Version} names one (resume text, template, font,
+ * watermark) combination; its HTML is rendered from Thymeleaf once and kept in
+ * a byte-bounded LRU, so a preview followed by a download, or the other way
+ * round, processes and escapes the template only once. The version key is the
+ * same one {@link RenderedPdfCache} stores the PDF under.
+ */
+@Service
+public class ResumeRenderPipeline {
+
+    private final TemplateEngine templateEngine;
+    private final PdfGeneratorService pdfGeneratorService;
+    private final RenderedPdfCache renderedPdfCache;
+    private final long maxMemoryBytes;
+
+    // Access order, guarded by this
+    private final LinkedHashMap<String, String> html = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryBytes;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public ResumeRenderPipeline(TemplateEngine templateEngine,
+            PdfGeneratorService pdfGeneratorService,
+            RenderedPdfCache renderedPdfCache,
+            MeterRegistry meterRegistry,
+            @Value("${pdf.html-cache.max-memory-bytes:16777216}") long maxMemoryBytes) {
+        this.templateEngine = templateEngine;
+        this.pdfGeneratorService = pdfGeneratorService;
+        this.renderedPdfCache = renderedPdfCache;
+        this.maxMemoryBytes = maxMemoryBytes;
+
+        this.hits = Counter.builder("pdf.html.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("pdf.html.cache.requests").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("pdf.html.cache.memory.bytes", this, ResumeRenderPipeline::memoryBytes)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Describes one rendering of a resume. {@code name} is the export name,
+     * see {@link PdfGeneratorService#exportName}.
+     */
+    public Version version(long resumeId, String name, String extractedText, String templateFile, String font,
+            boolean isPro) {
+        String key = renderedPdfCache.keyFor(resumeId, name, extractedText, templateFile, font, isPro);
+        return new Version(key, templateFile, PdfGeneratorService.exportContext(name, extractedText, font, isPro));
+    }
+
+    /**
+     * The ETag of a version's HTML. It differs from the PDF's, which has the
+     * same key.
+     */
+    public static String htmlEtag(Version version) {
+        return RenderedPdfCache.etag("html-" + version.key());
+    }
+
+    /**
+     * The cached HTML of a version, if any; never renders.
+     */
+    public Optional<String> cachedHtml(Version version) {
+        synchronized (this) {
+            String cached = html.get(version.key());
+            if (cached != null) {
+                hits.increment();
+                return Optional.of(cached);
+            }
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * The HTML of a version, rendered and cached on a miss.
+     */
+    public String html(Version version) {
+        return cachedHtml(version).orElseGet(() -> {
+            String rendered = templateEngine.process(version.templateFile(), version.context());
+            put(version.key(), rendered);
+            return rendered;
+        });
+    }
+
+    /**
+     * Lays out the version's PDF from its cached HTML, rendering the HTML
+     * first if needed. Natively laid out templates skip the HTML.
+     */
+    public PdfGeneratorService.LaidOutPdf layoutPdf(Version version) throws IOException, DocumentException {
+        return pdfGeneratorService.layout(version.templateFile(), version.context(), () -> html(version));
+    }
+
+    /**
+     * Lays out and paints the version's PDF, see {@link #layoutPdf}.
+     */
+    public byte[] renderPdf(Version version) throws IOException, DocumentException {
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream(64 * 1024);
+        layoutPdf(version).writeTo(pdf);
+        return pdf.toByteArray();
+    }
+
+    public synchronized long memoryBytes() {
+        return memoryBytes;
+    }
+
+    private void put(String key, String document) {
+        // Two bytes per char at most, whatever the string's internal encoding
+        long size = 2L * document.length();
+        if (size > maxMemoryBytes) {
+            return;
+        }
+        synchronized (this) {
+            String previous = html.put(key, document);
+            memoryBytes += size - (previous != null ? 2L * previous.length() : 0);
+            Iterator<Map.Entry<String, String>> eldest = html.entrySet().iterator();
+            while (memoryBytes > maxMemoryBytes && eldest.hasNext()) {
+                memoryBytes -= 2L * eldest.next().getValue().length();
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * One rendering of a resume: the cache key, template and template
+     * variables.
+     */
+    public record Version(String key, String templateFile, Context context) {
+    }
+}
@@ -0,0 +1,169 @@
+package com.airesume.service;
+
+import com.airesume.entity.ResumeSection;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Splits parsed resume text into sections (contact, summary, experience and so
+ * on) and the bullets within them. A line counts as a heading when it is
+ * short and matches a known section title, optionally followed by a colon.
+ * Bullet lines that PDF extraction wrapped are joined back together. Runs in a
+ * single pass over the lines. This is the one list of section headings:
+ * prompt trimming and local ATS scoring work from its section types.
+ */
+@Component
+public class ResumeSegmenter {
+
+    private static final String BULLET_MARKERS = "•●▪◦■‣·–-*";
+    private static final int MAX_HEADING_LENGTH = 40;
+
+    private static final Map<String, ResumeSection.Type> HEADINGS = new HashMap<>();
+
+    static {
+        headings(ResumeSection.Type.CONTACT, "contact", "contact information", "contact details", "personal details");
+        headings(ResumeSection.Type.SUMMARY, "summary", "professional summary", "career summary", "profile",
+                "professional profile", "objective", "career objective", "about me");
+        headings(ResumeSection.Type.EXPERIENCE, "experience", "work experience", "professional experience",
+                "relevant experience", "employment", "employment history", "work history", "career history");
+        headings(ResumeSection.Type.EDUCATION, "education", "academic background", "education and training");
+        headings(ResumeSection.Type.SKILLS, "skills", "technical skills", "core competencies", "key skills",
+                "technologies", "tools and technologies", "skills and tools");
+        headings(ResumeSection.Type.PROJECTS, "projects", "personal projects", "selected projects",
+                "key projects", "side projects");
+        headings(ResumeSection.Type.OTHER, "certifications", "certificates", "awards", "honors", "achievements",
+                "publications", "languages", "interests", "volunteering", "volunteer experience", "leadership",
+                "references");
+    }
+
+    private static void headings(ResumeSection.Type type, String... titles) {
+        for (String title : titles) {
+            HEADINGS.put(title, type);
+        }
+    }
+
+    /**
+     * Segments the text into sections in document order. Text before the first
+     * heading becomes an untitled {@link ResumeSection.Type#CONTACT} section.
+     * The returned sections are not yet linked to a resume.
+     */
+    public List<ResumeSection> segment(String text) {
+        List<ResumeSection> sections = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return sections;
+        }
+
+        SectionBuilder current = new SectionBuilder(ResumeSection.Type.CONTACT, null);
+        for (String rawLine : text.lines().toList()) {
+            String line = rawLine.strip();
+            ResumeSection.Type headingType = headingType(line);
+            if (headingType != null) {
+                current.addTo(sections);
+                current = new SectionBuilder(headingType, line);
+            } else {
+                current.addLine(line);
+            }
+        }
+        current.addTo(sections);
+        return sections;
+    }
+
+    /**
+     * Returns only the sections of the given types, headings included, in
+     * document order. Falls back to the full text when none are found, so a
+     * resume with unusual headings still reaches the prompt whole.
+     */
+    public String select(String text, Set<ResumeSection.Type> types) {
+        StringBuilder selected = new StringBuilder();
+        for (ResumeSection section : segment(text)) {
+            if (!types.contains(section.getSectionType())) {
+                continue;
+            }
+            if (section.getHeading() != null) {
+                selected.append(section.getHeading()).append('\n');
+            }
+            selected.append(section.getContent()).append("\n\n");
+        }
+        return selected.isEmpty() ? text : selected.toString().strip();
+    }
+
+    public static List<String> bullets(ResumeSection section) {
+        String bullets = section.getBullets();
+        return bullets == null || bullets.isEmpty() ? List.of() : bullets.lines().toList();
+    }
+
+    static ResumeSection.Type headingType(String line) {
+        if (line.isEmpty() || line.length() > MAX_HEADING_LENGTH || isBullet(line)) {
+            return null;
+        }
+        String title = line.endsWith(":") ? line.substring(0, line.length() - 1).strip() : line;
+        return HEADINGS.get(title.toLowerCase(Locale.ROOT).replace("&", "and"));
+    }
+
+    private static boolean isBullet(String line) {
+        char marker = line.charAt(0);
+        if (BULLET_MARKERS.indexOf(marker) < 0) {
+            return false;
+        }
+        // ASCII markers and dashes also start ordinary text ("-based", "– 2020"), so require a space after them
+        return (marker != '-' && marker != '*' && marker != '–')
+                || (line.length() > 1 && Character.isWhitespace(line.charAt(1)));
+    }
+
+    private static final class SectionBuilder {
+
+        private final ResumeSection.Type type;
+        private final String heading;
+        private final StringBuilder content = new StringBuilder();
+        private final List<StringBuilder> bullets = new ArrayList<>();
+        // True while the previous line belonged to a bullet, so wrapped lines can be joined to it
+        private boolean inBullet;
+
+        SectionBuilder(ResumeSection.Type type, String heading) {
+            this.type = type;
+            this.heading = heading;
+        }
+
+        void addLine(String line) {
+            if (!content.isEmpty() || !line.isEmpty()) {
+                content.append(line).append('\n');
+            }
+            if (line.isEmpty()) {
+                inBullet = false;
+            } else if (isBullet(line)) {
+                bullets.add(new StringBuilder(line.substring(1).strip()));
+                inBullet = true;
+            } else if (inBullet && Character.isLowerCase(line.charAt(0))) {
+                bullets.get(bullets.size() - 1).append(' ').append(line);
+            } else {
+                inBullet = false;
+            }
+        }
+
+        void addTo(List<ResumeSection> sections) {
+            String body = content.toString().strip();
+            if (body.isEmpty() && heading == null) {
+                return;
+            }
+            ResumeSection section = new ResumeSection();
+            section.setPosition(sections.size());
+            section.setSectionType(type);
+            section.setHeading(heading);
+            section.setContent(body);
+            List<String> bulletTexts = new ArrayList<>(bullets.size());
+            for (StringBuilder bullet : bullets) {
+                if (!bullet.isEmpty()) {
+                    bulletTexts.add(bullet.toString());
+                }
+            }
+            section.setBullets(String.join("\n", bulletTexts));
+            sections.add(section);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.airesume.service;
+
+import com.airesume.entity.ResumeSection;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Normalizes raw PDFTextStripper output before it is stored or sent to Gemini.
+ * It collapses whitespace, re-joins hyphenated line breaks, and drops page
+ * numbers and running headers/footers repeated on every page. Optionally it
+ * trims the text to a token budget, keeping the most relevant sections.
+ */
+@Component
+public class ResumeTextCompactor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResumeTextCompactor.class);
+
+    private static final Pattern HORIZONTAL_WHITESPACE = Pattern.compile("[\\h\\x0B]+");
+    private static final Pattern HYPHENATED_BREAK = Pattern.compile("(\\p{L})-\\n(\\p{Ll})");
+    private static final Pattern EXCESS_BLANK_LINES = Pattern.compile("\\n{3,}");
+    private static final Pattern PAGE_NUMBER = Pattern.compile(
+            "(?i)^(page\\s*)?\\d{1,3}(\\s*(of|/)\\s*\\d{1,3})?$|^[-–]\\s*\\d{1,3}\\s*[-–]$");
+
+    // Lines at the top and bottom of a page searched for running headers and footers
+    private static final int EDGE_LINES = 3;
+
+    private final ResumeSegmenter segmenter;
+    private final int maxPromptTokens;
+    private final DistributionSummary uploadCharsSaved;
+    private final DistributionSummary uploadTokensSaved;
+    private final DistributionSummary promptCharsSaved;
+    private final DistributionSummary promptTokensSaved;
+
+    public ResumeTextCompactor(MeterRegistry meterRegistry,
+            ResumeSegmenter segmenter,
+            @Value("${resume.compaction.max-prompt-tokens:0}") int maxPromptTokens) {
+        this.segmenter = segmenter;
+        this.maxPromptTokens = maxPromptTokens;
+        this.uploadCharsSaved = savedSummary(meterRegistry, "resume.compaction.chars.saved", "upload");
+        this.uploadTokensSaved = savedSummary(meterRegistry, "resume.compaction.tokens.saved", "upload");
+        this.promptCharsSaved = savedSummary(meterRegistry, "resume.compaction.chars.saved", "prompt");
+        this.promptTokensSaved = savedSummary(meterRegistry, "resume.compaction.tokens.saved", "prompt");
+    }
+
+    public record Compaction(String text, int originalChars, int compactedChars, int originalTokens,
+            int compactedTokens) {
+
+        public int charsSaved() {
+            return originalChars - compactedChars;
+        }
+
+        public int tokensSaved() {
+            return originalTokens - compactedTokens;
+        }
+    }
+
+    /**
+     * Compacts freshly parsed text, one entry per PDF page. Page boundaries let
+     * running headers and footers be recognised.
+     */
+    public Compaction compactPages(List<String> pages) {
+        String original = String.join("", pages);
+        String compacted = compact(pages);
+        Compaction result = new Compaction(compacted, original.length(), compacted.length(),
+                estimateTokens(original), estimateTokens(compacted));
+        uploadCharsSaved.record(result.charsSaved());
+        uploadTokensSaved.record(result.tokensSaved());
+        logger.debug("Compacted parsed resume from {} to {} chars", result.originalChars(), result.compactedChars());
+        return result;
+    }
+
+    /**
+     * Prepares stored resume text for a prompt. It re-applies the normalization
+     * (older rows were stored raw) and then the optional token budget.
+     */
+    public Compaction compactForPrompt(String text) {
+        String original = text != null ? text : "";
+        String compacted = fitToBudget(compact(List.of(original)), maxPromptTokens);
+        Compaction result = new Compaction(compacted, original.length(), compacted.length(),
+                estimateTokens(original), estimateTokens(compacted));
+        promptCharsSaved.record(result.charsSaved());
+        promptTokensSaved.record(result.tokensSaved());
+        return result;
+    }
+
+    /**
+     * Rough token estimate for Gemini's tokenizer (about four characters per token
+     * for English prose).
+     */
+    public static int estimateTokens(String text) {
+        return text == null ? 0 : (text.length() + 3) / 4;
+    }
+
+    String compact(List<String> pages) {
+        List<List<String>> pageLines = new ArrayList<>();
+        for (String page : pages) {
+            pageLines.add(normalizedLines(page));
+        }
+        Set<String> runningLines = pageLines.size() > 1 ? findRunningLines(pageLines) : Set.of();
+        Set<String> keptRunningLines = new HashSet<>();
+
+        StringBuilder out = new StringBuilder();
+        for (List<String> lines : pageLines) {
+            Set<Integer> edges = edgePositions(lines);
+            for (int i = 0; i < lines.size(); i++) {
+                String line = lines.get(i);
+                // Page numbers and running headers only sit at the edges; the same lines in the body of a page
+                // are content, such as a lone figure in a metrics list
+                if (edges.contains(i) && PAGE_NUMBER.matcher(line).matches()) {
+                    continue;
+                }
+                // Keep the first copy of a running header (often the candidate's name)
+                if (edges.contains(i) && runningLines.contains(line) && !keptRunningLines.add(line)) {
+                    continue;
+                }
+                out.append(line).append('\n');
+            }
+        }
+        return EXCESS_BLANK_LINES.matcher(out).replaceAll("\n\n").strip();
+    }
+
+    /**
+     * A page's normalized, de-hyphenated lines. Blank lines are kept.
+     */
+    private List<String> normalizedLines(String page) {
+        String dehyphenated = HYPHENATED_BREAK.matcher(page.replace("\r\n", "\n").replace('\r', '\n')
+                .replace('\f', '\n')).replaceAll("$1$2");
+        List<String> lines = new ArrayList<>();
+        for (String rawLine : dehyphenated.split("\n", -1)) {
+            lines.add(normalizeLine(rawLine));
+        }
+        return lines;
+    }
+
+    /**
+     * Lines at the edges of at least half of the pages (and of two or more) are
+     * treated as running headers or footers.
+     */
+    private Set<String> findRunningLines(List<List<String>> pages) {
+        Map<String, Integer> pageCounts = new HashMap<>();
+        for (List<String> lines : pages) {
+            Set<String> seenOnPage = new HashSet<>();
+            for (int i : edgePositions(lines)) {
+                String line = lines.get(i);
+                if (line.length() <= 80 && !PAGE_NUMBER.matcher(line).matches() && seenOnPage.add(line)) {
+                    pageCounts.merge(line, 1, Integer::sum);
+                }
+            }
+        }
+        int threshold = Math.max(2, (pages.size() + 1) / 2);
+        Set<String> running = new HashSet<>();
+        pageCounts.forEach((line, count) -> {
+            if (count >= threshold) {
+                running.add(line);
+            }
+        });
+        return running;
+    }
+
+    /**
+     * Positions of the first and last {@value #EDGE_LINES} non-blank lines of a
+     * page, where running headers and footers sit.
+     */
+    private static Set<Integer> edgePositions(List<String> lines) {
+        List<Integer> nonBlank = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            if (!lines.get(i).isEmpty()) {
+                nonBlank.add(i);
+            }
+        }
+        if (nonBlank.size() <= 2 * EDGE_LINES) {
+            return new HashSet<>(nonBlank);
+        }
+        Set<Integer> edges = new HashSet<>(nonBlank.subList(0, EDGE_LINES));
+        edges.addAll(nonBlank.subList(nonBlank.size() - EDGE_LINES, nonBlank.size()));
+        return edges;
+    }
+
+    private String normalizeLine(String line) {
+        return HORIZONTAL_WHITESPACE.matcher(line).replaceAll(" ").strip();
+    }
+
+    /**
+     * Trims text to roughly {@code maxTokens}, section by section as
+     * {@link ResumeSegmenter} splits it. The top of the resume (contact
+     * details) and then skills, experience and summary get budget first. Lower
+     * priority sections are cut at a line boundary. Sections stay in their
+     * original order.
+     */
+    String fitToBudget(String text, int maxTokens) {
+        if (maxTokens <= 0 || estimateTokens(text) <= maxTokens) {
+            return text;
+        }
+
+        List<Section> sections = splitSections(text);
+        List<Integer> byPriority = new ArrayList<>();
+        for (int i = 0; i < sections.size(); i++) {
+            byPriority.add(i);
+        }
+        byPriority.sort(Comparator.comparingInt(i -> sections.get(i).priority()));
+
+        int remainingChars = maxTokens * 4;
+        // Kept body per section index; identical sections are still budgeted separately
+        String[] kept = new String[sections.size()];
+        for (int index : byPriority) {
+            if (remainingChars <= 0) {
+                break;
+            }
+            String body = sections.get(index).text();
+            if (body.length() > remainingChars) {
+                int cut = body.lastIndexOf('\n', remainingChars);
+                body = cut > 0 ? body.substring(0, cut) : body.substring(0, remainingChars);
+            }
+            kept[index] = body;
+            remainingChars -= body.length() + 1;
+        }
+
+        StringBuilder out = new StringBuilder();
+        for (String body : kept) {
+            if (body != null && !body.isBlank()) {
+                out.append(body.strip()).append('\n');
+            }
+        }
+        return out.toString().strip();
+    }
+
+    private List<Section> splitSections(String text) {
+        List<Section> sections = new ArrayList<>();
+        for (ResumeSection section : segmenter.segment(text)) {
+            String body = section.getHeading() != null
+                    ? section.getHeading() + "\n" + section.getContent()
+                    : section.getContent();
+            sections.add(new Section(body + "\n", priority(section.getSectionType())));
+        }
+        return sections;
+    }
+
+    /**
+     * Budget priority of a section; lower is kept first. The untitled block at
+     * the top holds the contact details.
+     */
+    private static int priority(ResumeSection.Type type) {
+        return switch (type) {
+            case CONTACT -> 0;
+            case SKILLS -> 1;
+            case EXPERIENCE -> 2;
+            case SUMMARY -> 3;
+            case PROJECTS -> 4;
+            case EDUCATION -> 5;
+            case OTHER -> 6;
+        };
+    }
+
+    private static DistributionSummary savedSummary(MeterRegistry meterRegistry, String name, String stage) {
+        return DistributionSummary.builder(name).tag("stage", stage).register(meterRegistry);
+    }
+
+    private record Section(String text, int priority) {
+    }
+}
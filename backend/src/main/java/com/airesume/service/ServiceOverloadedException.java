@@ -0,0 +1,19 @@
+package com.airesume.service;
+
+/**
+ * Thrown when a bounded worker pool or queue cannot accept more work. Controllers
+ * translate it into a 503 with a Retry-After header instead of letting requests pile up.
+ */
+public class ServiceOverloadedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceOverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,42 @@
+package com.airesume.util;
+
+public final class XmlUtils {
+
+    private XmlUtils() {
+    }
+
+    /**
+     * Escapes the five XML special characters. Runs in one pass and returns the
+     * input itself when nothing needs escaping, since it is applied to every
+     * resume text that goes into a template.
+     */
+    public static String escapeXml(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder out = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            String entity = switch (c) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '"' -> "&quot;";
+                case '\'' -> "&apos;";
+                default -> null;
+            };
+            if (entity == null) {
+                if (out != null) {
+                    out.append(c);
+                }
+                continue;
+            }
+            if (out == null) {
+                out = new StringBuilder(text.length() + 16);
+                out.append(text, 0, i);
+            }
+            out.append(entity);
+        }
+        return out == null ? text : out.toString();
+    }
+}
@@ -1,13 +1,18 @@
 package com.airesume.service;
 
 import com.airesume.entity.AnalysisResult;
+import com.airesume.repository.AnalysisCacheEntryRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.web.client.RestClient;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
 
 class AiAnalysisServiceTest {
 
@@ -16,9 +21,22 @@ class AiAnalysisServiceTest {
     @BeforeEach
     void setUp() {
         // Test with mock behavior when API key is missing
+        aiAnalysisService = service("gemini");
+    }
+
+    private static AiAnalysisService service(String freeTierEngine) {
         RestClient.Builder builder = RestClient.builder();
         ObjectMapper mapper = new ObjectMapper();
-        aiAnalysisService = new AiAnalysisService(builder, "", mapper);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AnalysisCache analysisCache = new AnalysisCache(mock(AnalysisCacheEntryRepository.class), mapper,
+                meterRegistry, 100, 1);
+        return new AiAnalysisService(builder, "", 1000, 1000, 1000, mapper, analysisCache,
+                new InFlightRequestCoalescer(meterRegistry, 1000), new GeminiBulkhead(meterRegistry, 1, 1, 1, 1000),
+                new ResumeTextCompactor(meterRegistry, new ResumeSegmenter(), 0),
+                new LocalAtsScoringEngine(new ResumeSegmenter()), freeTierEngine,
+                new GeminiCircuitBreaker(meterRegistry, 5, 1000),
+                new GeminiHedger(meterRegistry, false, 0, 250, 3000, 4),
+                new ResumeSegmenter());
     }
 
     @Test
@@ -33,5 +51,38 @@ class AiAnalysisServiceTest {
         assertNotNull(result.getStrengths());
         assertNotNull(result.getWeaknesses());
         assertNotNull(result.getSuggestedImprovements());
+        assertEquals(AnalysisResult.Source.MOCK, result.getSource());
+        assertNull(result.getModel());
+    }
+
+    @Test
+    void analyzeResume_LocalFreeTier_IsMarkedLocal() {
+        AnalysisResult result = service("local").analyzeResume("Java developer", "Java role", false);
+
+        assertEquals(AnalysisResult.Source.LOCAL, result.getSource());
+    }
+
+    @Test
+    void streamCoverLetter_WithMockKey_ChunksReassembleToFullText() {
+        StringBuilder received = new StringBuilder();
+
+        String coverLetter = aiAnalysisService.streamCoverLetter("Resume", "Job", false, received::append);
+
+        assertEquals(aiAnalysisService.generateCoverLetter("Resume", "Job", false), coverLetter);
+        assertEquals(coverLetter, received.toString());
+    }
+
+    @Test
+    void stripMarkdownFences_RemovesJsonFence() {
+        assertEquals("[1, 2]", AiAnalysisService.stripMarkdownFences("```json\n[1, 2]\n```"));
+    }
+
+    @Test
+    void generateFullReport_WithMockKey_ReturnsAllSections() throws Exception {
+        FullReport report = aiAnalysisService.generateFullReport("Resume", "Job", false);
+
+        assertTrue(report.analysis().isPartialAnalysis());
+        assertEquals(aiAnalysisService.generateCoverLetter("Resume", "Job", false), report.coverLetter());
+        assertTrue(report.interviewQuestions().startsWith("["));
     }
 }
@@ -0,0 +1,74 @@
+package com.airesume.service;
+
+import com.airesume.entity.AnalysisCacheEntry;
+import com.airesume.entity.AnalysisResult;
+import com.airesume.repository.AnalysisCacheEntryRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class AnalysisCacheTest {
+
+    private AnalysisCacheEntryRepository repository;
+    private SimpleMeterRegistry meterRegistry;
+    private AnalysisCache analysisCache;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(AnalysisCacheEntryRepository.class);
+        when(repository.findByCacheKey(anyString())).thenReturn(Optional.empty());
+        meterRegistry = new SimpleMeterRegistry();
+        analysisCache = new AnalysisCache(repository, new ObjectMapper(), meterRegistry, 10, 1);
+    }
+
+    @Test
+    void keyFor_IgnoresWhitespaceDifferences() {
+        String a = AnalysisCache.keyFor("Java  developer\n\nSpring", " Backend role ", "model", "v1");
+        String b = AnalysisCache.keyFor("Java developer Spring", "Backend role", "model", "v1");
+        String otherPrompt = AnalysisCache.keyFor("Java developer Spring", "Backend role", "model", "v2");
+
+        assertEquals(a, b);
+        assertNotEquals(a, otherPrompt);
+    }
+
+    @Test
+    void get_AfterPut_ReturnsIndependentCopies() {
+        AnalysisResult result = new AnalysisResult();
+        result.setAtsScore(77);
+        result.setResumeId(42L);
+        result.setMissingKeywords("Docker, Kubernetes");
+
+        analysisCache.put("key", "model", "v1", result);
+
+        AnalysisResult first = analysisCache.get("key").orElseThrow();
+        first.setMissingKeywords("mutated");
+        AnalysisResult second = analysisCache.get("key").orElseThrow();
+
+        assertEquals(77, second.getAtsScore());
+        assertNull(second.getResumeId());
+        assertEquals("Docker, Kubernetes", second.getMissingKeywords());
+        verify(repository).save(any(AnalysisCacheEntry.class));
+        assertEquals(2.0, meterRegistry.get("analysis.cache.requests").tag("tier", "memory").counter().count());
+    }
+
+    @Test
+    void get_FallsBackToDatabaseTier() {
+        AnalysisCacheEntry entry = new AnalysisCacheEntry();
+        entry.setCacheKey("stored");
+        entry.setPayload("{\"atsScore\":64}");
+        when(repository.findByCacheKey("stored")).thenReturn(Optional.of(entry));
+
+        assertEquals(64, analysisCache.get("stored").orElseThrow().getAtsScore());
+        assertTrue(analysisCache.get("unknown").isEmpty());
+        assertEquals(1.0, meterRegistry.get("analysis.cache.requests").tag("tier", "database").counter().count());
+        assertEquals(1.0, meterRegistry.get("analysis.cache.requests").tag("result", "miss").counter().count());
+    }
+}
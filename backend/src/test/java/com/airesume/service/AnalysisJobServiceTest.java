@@ -0,0 +1,206 @@
+package com.airesume.service;
+
+import com.airesume.entity.AnalysisJob;
+import com.airesume.entity.AnalysisResult;
+import com.airesume.entity.Resume;
+import com.airesume.entity.User;
+import com.airesume.repository.AnalysisJobRepository;
+import com.airesume.repository.AnalysisResultRepository;
+import com.airesume.repository.ResumeRepository;
+import com.airesume.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AnalysisJobServiceTest {
+
+    private final Map<String, AnalysisJob> jobs = new ConcurrentHashMap<>();
+    private final AnalysisJobRepository jobRepository = mock(AnalysisJobRepository.class);
+    private final AiAnalysisService aiAnalysisService = mock(AiAnalysisService.class);
+    private final ResumeRepository resumeRepository = mock(ResumeRepository.class);
+    private final AnalysisResultRepository analysisResultRepository = mock(AnalysisResultRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final PdfPrerenderService pdfPrerenderService = mock(PdfPrerenderService.class);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final Resume resume = new Resume();
+    private final User user = new User();
+    private AnalysisJobService service;
+
+    @BeforeEach
+    void setUp() {
+        when(jobRepository.save(any())).thenAnswer(invocation -> {
+            AnalysisJob job = invocation.getArgument(0);
+            jobs.put(job.getId(), job);
+            return job;
+        });
+        when(jobRepository.findById(anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(jobs.get(invocation.<String>getArgument(0))));
+        when(analysisResultRepository.save(any())).thenAnswer(invocation -> {
+            AnalysisResult result = invocation.getArgument(0);
+            result.setId(42L);
+            return result;
+        });
+
+        resume.setId(1L);
+        resume.setExtractedText("Java developer");
+        when(resumeRepository.findById(1L)).thenReturn(Optional.of(resume));
+        user.setId(5L);
+        user.setScansUsed(0);
+        when(userRepository.findById(5L)).thenReturn(Optional.of(user));
+
+        service = new AnalysisJobService(jobRepository, aiAnalysisService, resumeRepository,
+                analysisResultRepository, userRepository, pdfPrerenderService, new SimpleMeterRegistry(), 1, 1,
+                5000) {
+            @Override
+            SseEmitter newEmitter() {
+                return new RecordingEmitter();
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        service.shutdown();
+    }
+
+    private void blockAnalyses() {
+        when(aiAnalysisService.analyzeResume(anyString(), any(), anyBoolean())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return new AnalysisResult();
+        });
+    }
+
+    @Test
+    void wouldExceedFreeQuota_CountsQueuedJobs() {
+        user.setScansUsed(1);
+
+        when(jobRepository.countByUserIdAndStatusIn(eq(5L), any())).thenReturn(1L);
+        assertTrue(service.wouldExceedFreeQuota(user, 2));
+
+        when(jobRepository.countByUserIdAndStatusIn(eq(5L), any())).thenReturn(0L);
+        assertFalse(service.wouldExceedFreeQuota(user, 2));
+    }
+
+    @Test
+    void findReusableResult_OnlyReusesGeminiResultsAtTheCallersTier() {
+        AnalysisResult stored = new AnalysisResult();
+        String hash = AnalysisCache.jobDescriptionKey("Backend role");
+        when(analysisResultRepository
+                .findFirstByResumeIdAndJobDescriptionHashAndIsPartialAnalysisAndSourceAndModelAndPromptVersionOrderByIdDesc(
+                        1L, hash, true, AnalysisResult.Source.GEMINI, AiAnalysisService.ANALYSIS_MODEL,
+                        AiAnalysisService.ANALYSIS_PROMPT_VERSION))
+                .thenReturn(Optional.of(stored));
+
+        assertSame(stored, service.findReusableResult(resume, "Backend role", false).orElseThrow());
+        // A pro caller never gets the free tier's partial result
+        assertTrue(service.findReusableResult(resume, "Backend role", true).isEmpty());
+    }
+
+    @Test
+    void submit_CompletesJobChargesFreeUserOnceAndCompletesSubscribers() throws Exception {
+        blockAnalyses();
+
+        AnalysisJob job = service.submit(resume, "Backend role", user);
+        RecordingEmitter emitter = (RecordingEmitter) service.subscribe(job);
+        release.countDown();
+
+        assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+        AnalysisJob finished = jobs.get(job.getId());
+        assertEquals(AnalysisJob.Status.COMPLETED, finished.getStatus());
+        assertEquals(42L, finished.getAnalysisResultId());
+        assertEquals(1, user.getScansUsed());
+        verify(userRepository, times(1)).save(user);
+        verify(pdfPrerenderService).schedule(resume, false);
+        // The state on subscribing, then the terminal state
+        assertTrue(emitter.events.get() >= 2);
+    }
+
+    @Test
+    void run_TerminalSaveFails_StillCompletesSubscribers() throws Exception {
+        blockAnalyses();
+        doAnswer(invocation -> {
+            AnalysisJob job = invocation.getArgument(0);
+            if (job.getStatus().isTerminal()) {
+                throw new IllegalStateException("database down");
+            }
+            jobs.put(job.getId(), job);
+            return job;
+        }).when(jobRepository).save(any());
+
+        AnalysisJob job = service.submit(resume, "Backend role", user);
+        RecordingEmitter emitter = (RecordingEmitter) service.subscribe(job);
+        release.countDown();
+
+        assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+        assertTrue(emitter.events.get() >= 2);
+    }
+
+    @Test
+    void subscribe_TerminalJob_SendsOnceAndCompletes() {
+        AnalysisJob job = new AnalysisJob();
+        job.setId("done");
+        job.setStatus(AnalysisJob.Status.FAILED);
+
+        RecordingEmitter emitter = (RecordingEmitter) service.subscribe(job);
+
+        assertEquals(1, emitter.events.get());
+        assertEquals(0, emitter.completed.getCount());
+    }
+
+    @Test
+    void submit_QueueFull_FailsJobAndThrowsOverloaded() {
+        blockAnalyses();
+        // One job runs and one waits in the single queue slot
+        service.submit(resume, "first", user);
+        service.submit(resume, "second", user);
+
+        ServiceOverloadedException e = assertThrows(ServiceOverloadedException.class,
+                () -> service.submit(resume, "third", user));
+
+        assertEquals(10, e.getRetryAfterSeconds());
+        AnalysisJob rejected = jobs.values().stream()
+                .filter(job -> "third".equals(job.getJobDescription()))
+                .findFirst().orElseThrow();
+        assertEquals(AnalysisJob.Status.FAILED, rejected.getStatus());
+        assertEquals("Analysis queue is full", rejected.getErrorMessage());
+        assertNotNull(rejected.getCompletedAt());
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+
+        final AtomicInteger events = new AtomicInteger();
+        final CountDownLatch completed = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            events.incrementAndGet();
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed.countDown();
+        }
+    }
+}
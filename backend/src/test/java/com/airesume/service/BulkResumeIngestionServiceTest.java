@@ -0,0 +1,153 @@
+package com.airesume.service;
+
+import com.airesume.entity.Resume;
+import com.airesume.entity.User;
+import com.airesume.repository.ResumeBatchWriter;
+import com.airesume.repository.ResumeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BulkResumeIngestionServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PdfParserService parser = new PdfParserService();
+    private final PdfParseExecutor parseExecutor = new PdfParseExecutor(parser, meterRegistry, 2, 10, 10000);
+    private final ResumeRepository resumeRepository = mock(ResumeRepository.class);
+    private final ResumeBatchWriter batchWriter = mock(ResumeBatchWriter.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final List<Resume> inserted = new ArrayList<>();
+
+    private final BulkResumeIngestionService service = new BulkResumeIngestionService(parser, parseExecutor,
+            new ResumeTextCompactor(meterRegistry, new ResumeSegmenter(), 0), new ResumeSegmenter(), resumeRepository,
+            batchWriter, new TransactionTemplate(transactionManager), meterRegistry, 10, 1024 * 1024, 2, 2);
+
+    @AfterEach
+    void tearDown() {
+        parseExecutor.shutdown();
+        parser.shutdown();
+    }
+
+    @Test
+    void ingestZip_ParsesEachPdfOnceAndInsertsInBatches() throws Exception {
+        doAnswer(invocation -> {
+            List<Resume> batch = invocation.getArgument(0);
+            for (Resume resume : batch) {
+                resume.setId((long) inserted.size() + 1);
+                inserted.add(resume);
+            }
+            return null;
+        }).when(batchWriter).insertResumes(anyList());
+
+        byte[] first = createPdf("EXPERIENCE\n- Built the first thing");
+        byte[] zip = zip("a.pdf", first, "notes.txt", "hello".getBytes(), "b.pdf", createPdf("Second resume"),
+                "copy-of-a.pdf", first, "c.pdf", createPdf("Third resume"));
+
+        User user = new User();
+        BulkIngestionReport report = service.ingestZip(new ByteArrayInputStream(zip), user);
+
+        List<String> statuses = report.files().stream().map(BulkIngestionReport.FileStatus::status).toList();
+        assertEquals(List.of("created", "failed", "created", "duplicate", "created"), statuses);
+        assertEquals(3, report.created());
+        assertEquals(1, report.duplicates());
+        assertEquals(1, report.failed());
+        assertEquals(report.files().get(0).resumeId(), report.files().get(3).resumeId());
+        assertEquals(3, inserted.size());
+        assertSame(user, inserted.get(0).getUser());
+        assertEquals(64, inserted.get(0).getContentHash().length());
+        // Batch size 2: one full batch, then the remainder
+        verify(batchWriter, times(2)).insertResumes(anyList());
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void ingestZip_FailedBatch_FailsOnlyItsFiles() throws Exception {
+        doAnswer(invocation -> {
+            List<Resume> batch = invocation.getArgument(0);
+            for (Resume resume : batch) {
+                resume.setId((long) inserted.size() + 1);
+                inserted.add(resume);
+            }
+            return null;
+        }).when(batchWriter).insertResumes(anyList());
+        // The first batch's sections cannot be written
+        doAnswer(invocation -> {
+            if (inserted.size() <= 2) {
+                throw new DataIntegrityViolationException("constraint violated");
+            }
+            return null;
+        }).when(batchWriter).insertSections(anyList());
+
+        byte[] first = createPdf("First resume");
+        byte[] zip = zip("a.pdf", first, "b.pdf", createPdf("Second resume"), "c.pdf", createPdf("Third resume"),
+                "copy-of-a.pdf", first);
+
+        BulkIngestionReport report = service.ingestZip(new ByteArrayInputStream(zip), new User());
+
+        List<String> statuses = report.files().stream().map(BulkIngestionReport.FileStatus::status).toList();
+        assertEquals(List.of("failed", "failed", "created", "failed"), statuses);
+        assertNull(report.files().get(0).resumeId());
+        assertEquals(3L, report.files().get(2).resumeId());
+        assertEquals(1, report.created());
+        assertEquals(3, report.failed());
+        verify(transactionManager, times(1)).rollback(any());
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    private static byte[] zip(Object... namesAndContents) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (int i = 0; i < namesAndContents.length; i += 2) {
+                zip.putNextEntry(new ZipEntry("resumes/" + namesAndContents[i]));
+                zip.write((byte[]) namesAndContents[i + 1]);
+                zip.closeEntry();
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] createPdf(String text) throws IOException {
+        try (PDDocument document = new PDDocument(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            PDPage page = new PDPage();
+            document.addPage(page);
+            try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                content.beginText();
+                content.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 12);
+                content.setLeading(14);
+                content.newLineAtOffset(72, 700);
+                for (String line : text.split("\n")) {
+                    content.showText(line);
+                    content.newLine();
+                }
+                content.endText();
+            }
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.airesume.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class BulletEnhancementServiceTest {
+
+    private final AiAnalysisService aiAnalysisService = mock(AiAnalysisService.class);
+    private final BulletEnhancementService service = new BulletEnhancementService(aiAnalysisService,
+            new SimpleMeterRegistry(), 2, 2, 10, 100, 1);
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void enhanceAll_BatchesInOrderAndCachesEachBullet() throws Exception {
+        when(aiAnalysisService.enhanceBulletPoints(anyList(), any(), anyBoolean()))
+                .thenAnswer(invocation -> invocation.<List<String>>getArgument(0).stream()
+                        .map(String::toUpperCase).toList());
+
+        List<String> first = service.enhanceAll(List.of("a", "b", "a", "", "c"), "Engineer", false);
+        List<String> second = service.enhanceAll(List.of("c", "b", "d"), "Engineer", false);
+
+        assertEquals(List.of("A", "B", "A", "", "C"), first);
+        assertEquals(List.of("C", "B", "D"), second);
+        verify(aiAnalysisService).enhanceBulletPoints(List.of("a", "b"), "Engineer", false);
+        verify(aiAnalysisService).enhanceBulletPoints(List.of("c"), "Engineer", false);
+        verify(aiAnalysisService).enhanceBulletPoints(List.of("d"), "Engineer", false);
+        verifyNoMoreInteractions(aiAnalysisService);
+    }
+
+    @Test
+    void enhanceAll_WhenBatchFails_FallsBackPerBulletWithoutCaching() throws Exception {
+        when(aiAnalysisService.enhanceBulletPoints(anyList(), any(), anyBoolean()))
+                .thenThrow(new IllegalStateException("bad reply"));
+        when(aiAnalysisService.enhanceBulletPoint(anyString(), any(), anyBoolean()))
+                .thenAnswer(invocation -> "single " + invocation.getArgument(0));
+
+        assertEquals(List.of("single x"), service.enhanceAll(List.of("x"), null, true));
+        assertEquals("single x", service.enhance("x", null, true));
+
+        verify(aiAnalysisService, times(2)).enhanceBulletPoint(eq("x"), any(), eq(true));
+    }
+}
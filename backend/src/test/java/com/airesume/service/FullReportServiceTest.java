@@ -0,0 +1,125 @@
+package com.airesume.service;
+
+import com.airesume.entity.AnalysisResult;
+import com.airesume.entity.Resume;
+import com.airesume.entity.User;
+import com.airesume.repository.AnalysisResultRepository;
+import com.airesume.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FullReportServiceTest {
+
+    private final AiAnalysisService aiAnalysisService = mock(AiAnalysisService.class);
+    private final AnalysisResultRepository analysisResultRepository = mock(AnalysisResultRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    private final Resume resume = new Resume();
+    private final User user = new User();
+    private FullReportService service;
+
+    @BeforeEach
+    void setUp() {
+        when(analysisResultRepository.save(any())).thenAnswer(invocation -> {
+            AnalysisResult result = invocation.getArgument(0);
+            result.setId(42L);
+            return result;
+        });
+        when(aiAnalysisService.findCachedAnalysis(anyString(), any(), anyBoolean())).thenReturn(Optional.empty());
+        when(aiAnalysisService.analyzeResume(anyString(), any(), anyBoolean())).thenReturn(new AnalysisResult());
+        when(aiAnalysisService.generateCoverLetter(anyString(), any(), anyBoolean())).thenReturn("Dear team");
+        when(aiAnalysisService.generateInterviewQuestions(anyString(), any(), anyBoolean()))
+                .thenReturn("```json\n[\"Why Kafka?\"]\n```");
+
+        resume.setId(1L);
+        resume.setExtractedText("Java developer");
+        user.setId(5L);
+        user.setScansUsed(0);
+
+        service = new FullReportService(aiAnalysisService, analysisResultRepository, userRepository, 2, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void generate_CombinedPromptFails_FallsBackToSeparateCalls() throws Exception {
+        when(aiAnalysisService.generateFullReport(anyString(), any(), anyBoolean()))
+                .thenThrow(new IllegalStateException("Gemini full report response is missing a section"));
+
+        FullReport report = service.generate(resume, "Backend role", user);
+
+        verify(aiAnalysisService).analyzeResume("Java developer", "Backend role", false);
+        assertEquals("Dear team", report.coverLetter());
+        assertEquals("[\"Why Kafka?\"]", report.interviewQuestions());
+    }
+
+    @Test
+    void generate_CachedAnalysis_SkipsCombinedPrompt() throws Exception {
+        AnalysisResult cached = new AnalysisResult();
+        when(aiAnalysisService.findCachedAnalysis("Java developer", "Backend role", false))
+                .thenReturn(Optional.of(cached));
+
+        FullReport report = service.generate(resume, "Backend role", user);
+
+        assertSame(cached, report.analysis());
+        verify(aiAnalysisService, never()).generateFullReport(anyString(), any(), anyBoolean());
+        verify(aiAnalysisService, never()).analyzeResume(anyString(), any(), anyBoolean());
+    }
+
+    @Test
+    void generate_PersistsReportAndChargesFreeUserOnce() throws Exception {
+        when(aiAnalysisService.generateFullReport(anyString(), any(), anyBoolean()))
+                .thenReturn(new FullReport(new AnalysisResult(), "Dear team", "[]"));
+
+        FullReport report = service.generate(resume, "Backend role", user);
+
+        AnalysisResult saved = report.analysis();
+        assertEquals(42L, saved.getId());
+        assertEquals(1L, saved.getResumeId());
+        assertEquals("Dear team", saved.getCoverLetter());
+        assertEquals("[]", saved.getInterviewQuestions());
+        verify(analysisResultRepository, times(1)).save(saved);
+        assertEquals(1, user.getScansUsed());
+        verify(userRepository, times(1)).save(user);
+    }
+
+    @Test
+    void generate_FallbackStillChargesFreeUserOnce() throws Exception {
+        when(aiAnalysisService.generateFullReport(anyString(), any(), anyBoolean()))
+                .thenThrow(new IllegalStateException("unparseable"));
+
+        service.generate(resume, "Backend role", user);
+
+        assertEquals(1, user.getScansUsed());
+        verify(userRepository, times(1)).save(user);
+    }
+
+    @Test
+    void generate_ProUser_IsNotCharged() throws Exception {
+        user.setPro(true);
+        when(aiAnalysisService.generateFullReport(anyString(), any(), anyBoolean()))
+                .thenReturn(new FullReport(new AnalysisResult(), "Dear team", "[]"));
+
+        service.generate(resume, "Backend role", user);
+
+        verify(aiAnalysisService).generateFullReport("Java developer", "Backend role", true);
+        assertEquals(0, user.getScansUsed());
+        verify(userRepository, never()).save(any());
+    }
+}
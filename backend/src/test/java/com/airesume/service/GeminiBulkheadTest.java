@@ -0,0 +1,61 @@
+package com.airesume.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeminiBulkheadTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void acquire_WhenSaturated_ServesProWaitersFirst() throws Exception {
+        GeminiBulkhead bulkhead = new GeminiBulkhead(meterRegistry, 1, 1, 10, 5000);
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        GeminiBulkhead.Permit held = bulkhead.acquire("gemini-1.5-flash", false);
+        CompletableFuture<Void> free = waitFor(bulkhead, false, "free", order);
+        awaitQueueLength(1);
+        CompletableFuture<Void> pro = waitFor(bulkhead, true, "pro", order);
+        awaitQueueLength(2);
+
+        held.close();
+        CompletableFuture.allOf(free, pro).get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("pro", "free"), order);
+    }
+
+    @Test
+    void acquire_WaitingTooLong_IsRejected() {
+        GeminiBulkhead bulkhead = new GeminiBulkhead(meterRegistry, 1, 1, 10, 50);
+        GeminiBulkhead.Permit held = bulkhead.acquire("gemini-1.5-pro", true);
+
+        assertThrows(ServiceOverloadedException.class, () -> bulkhead.acquire("gemini-1.5-pro", true));
+
+        held.close();
+        bulkhead.acquire("gemini-1.5-pro", true).close();
+        assertEquals(1.0, meterRegistry.get("gemini.bulkhead.rejected").tag("model", "pro").counter().count());
+    }
+
+    private CompletableFuture<Void> waitFor(GeminiBulkhead bulkhead, boolean pro, String label, List<String> order) {
+        return CompletableFuture.runAsync(() -> {
+            try (GeminiBulkhead.Permit permit = bulkhead.acquire("gemini-1.5-flash", pro)) {
+                order.add(label);
+            }
+        });
+    }
+
+    private void awaitQueueLength(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("gemini.bulkhead.queue.length").tag("model", "flash").gauge().value() < expected) {
+            assertTrue(System.nanoTime() < deadline, "waiter never queued");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.airesume.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.net.SocketTimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeminiCircuitBreakerTest {
+
+    private static final String FLASH = "gemini-1.5-flash";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void call_AfterConsecutiveFailures_FailsFastUntilTrialSucceeds() throws Exception {
+        GeminiCircuitBreaker breaker = new GeminiCircuitBreaker(meterRegistry, 2, 50);
+        AtomicInteger upstreamCalls = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(ResourceAccessException.class, () -> breaker.call(FLASH, () -> {
+                upstreamCalls.incrementAndGet();
+                throw new ResourceAccessException("timed out", new SocketTimeoutException());
+            }));
+        }
+        assertThrows(GeminiUnavailableException.class, () -> breaker.call(FLASH, upstreamCalls::incrementAndGet));
+        assertEquals(2, upstreamCalls.get());
+        assertEquals(GeminiCircuitBreaker.State.CLOSED, breaker.state("gemini-1.5-pro"));
+
+        Thread.sleep(60);
+        assertEquals("ok", breaker.call(FLASH, () -> "ok"));
+        assertEquals(GeminiCircuitBreaker.State.CLOSED, breaker.state(FLASH));
+        assertEquals(2.0, meterRegistry.get("gemini.requests.timeouts").tag("model", "flash").counter().count());
+        assertEquals(1.0, meterRegistry.get("gemini.circuit.rejected").tag("model", "flash").counter().count());
+    }
+
+    @Test
+    void call_ClientErrorsDoNotOpenTheCircuit() {
+        GeminiCircuitBreaker breaker = new GeminiCircuitBreaker(meterRegistry, 1, 60000);
+
+        assertThrows(HttpClientErrorException.class, () -> breaker.call(FLASH, () -> {
+            throw new HttpClientErrorException(HttpStatus.BAD_REQUEST);
+        }));
+
+        assertEquals(GeminiCircuitBreaker.State.CLOSED, breaker.state(FLASH));
+    }
+}
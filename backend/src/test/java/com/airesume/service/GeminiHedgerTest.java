@@ -0,0 +1,103 @@
+package com.airesume.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeminiHedgerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final GeminiHedger hedger = new GeminiHedger(meterRegistry, true, 20, 1, 1000, 4);
+    private final GeminiBulkhead bulkhead = new GeminiBulkhead(meterRegistry, 1, 2, 10, 1000);
+
+    @AfterEach
+    void tearDown() {
+        hedger.shutdown();
+    }
+
+    @Test
+    void execute_SlowPrimary_HedgeWins() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        String result = hedger.execute("gemini-1.5-flash", () -> {
+            if (attempts.incrementAndGet() == 1) {
+                release.await(5, TimeUnit.SECONDS); // the primary stalls
+                return "primary";
+            }
+            return "hedge";
+        }, bulkhead.acquire("gemini-1.5-flash", false), () -> bulkhead.tryAcquire("gemini-1.5-flash"));
+        release.countDown();
+
+        assertEquals("hedge", result);
+        assertEquals(1.0, meterRegistry.get("gemini.hedge.wins").tag("winner", "hedge").counter().count());
+    }
+
+    @Test
+    void execute_NoSpareSlot_WaitsForPrimary() throws Exception {
+        GeminiBulkhead.Permit first = bulkhead.acquire("gemini-1.5-flash", false);
+        GeminiBulkhead.Permit second = bulkhead.acquire("gemini-1.5-flash", false);
+
+        String result = hedger.execute("gemini-1.5-flash", () -> {
+            Thread.sleep(60);
+            return "primary";
+        }, first, () -> bulkhead.tryAcquire("gemini-1.5-flash"));
+
+        second.close();
+        assertEquals("primary", result);
+        assertEquals(1.0, meterRegistry.get("gemini.hedge.requests").tag("outcome", "skipped").counter().count());
+    }
+
+    @Test
+    void execute_ProModelIsNeverHedged() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+
+        hedger.execute("gemini-1.5-pro", () -> {
+            Thread.sleep(60);
+            return attempts.incrementAndGet();
+        }, bulkhead.acquire("gemini-1.5-pro", false), () -> bulkhead.tryAcquire("gemini-1.5-pro"));
+
+        assertEquals(1, attempts.get());
+        // The caller's permit is released once the call returns
+        bulkhead.tryAcquire("gemini-1.5-pro").close();
+    }
+
+    @Test
+    void execute_HedgeWins_PrimaryKeepsItsPermitUntilItFinishes() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch primaryDone = new CountDownLatch(1);
+
+        String result = hedger.execute("gemini-1.5-flash", () -> {
+            if (attempts.incrementAndGet() == 1) {
+                release.await(5, TimeUnit.SECONDS);
+                primaryDone.countDown();
+                return "primary";
+            }
+            return "hedge";
+        }, bulkhead.acquire("gemini-1.5-flash", false), () -> bulkhead.tryAcquire("gemini-1.5-flash"));
+
+        assertEquals("hedge", result);
+        // The hedge's slot is free again, but the stalled primary still holds the other one
+        GeminiBulkhead.Permit spare = bulkhead.tryAcquire("gemini-1.5-flash");
+        assertNotNull(spare);
+        assertNull(bulkhead.tryAcquire("gemini-1.5-flash"));
+
+        release.countDown();
+        assertTrue(primaryDone.await(1, TimeUnit.SECONDS));
+        GeminiBulkhead.Permit freed = null;
+        for (int i = 0; i < 100 && freed == null; i++) {
+            freed = bulkhead.tryAcquire("gemini-1.5-flash");
+            Thread.sleep(10);
+        }
+        assertNotNull(freed);
+        spare.close();
+        freed.close();
+    }
+}
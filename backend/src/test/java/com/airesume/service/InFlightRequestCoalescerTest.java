@@ -0,0 +1,63 @@
+package com.airesume.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InFlightRequestCoalescerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final InFlightRequestCoalescer coalescer = new InFlightRequestCoalescer(meterRegistry, 5000);
+
+    @Test
+    void execute_ConcurrentIdenticalCalls_ShareOneInvocation() throws Exception {
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger invocations = new AtomicInteger();
+
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> call(() -> {
+            invocations.incrementAndGet();
+            leaderStarted.countDown();
+            release.await();
+            return "response";
+        }));
+        assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<String> follower = CompletableFuture.supplyAsync(() -> call(() -> {
+            invocations.incrementAndGet();
+            return "duplicate";
+        }));
+        while (meterRegistry.get("gemini.requests.coalesced").counter().count() < 1) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertEquals("response", leader.get(5, TimeUnit.SECONDS));
+        assertEquals("response", follower.get(5, TimeUnit.SECONDS));
+        assertEquals(1, invocations.get());
+    }
+
+    @Test
+    void execute_AfterFailure_ReleasesKey() throws Exception {
+        assertThrows(IllegalStateException.class, () -> coalescer.execute("key", () -> {
+            throw new IllegalStateException("upstream failed");
+        }));
+
+        assertEquals("retried", coalescer.execute("key", () -> "retried"));
+    }
+
+    private String call(Callable<String> callable) {
+        try {
+            return coalescer.execute("same-key", callable);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
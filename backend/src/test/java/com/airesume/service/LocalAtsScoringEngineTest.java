@@ -0,0 +1,63 @@
+package com.airesume.service;
+
+import com.airesume.entity.AnalysisResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalAtsScoringEngineTest {
+
+    private static final String RESUME = """
+            Jane Doe | jane@example.com | +1 555 123 4567
+            EXPERIENCE
+            • Led migration of billing to Spring Boot microservices, cutting p99 latency by 40%
+            • Built CI/CD pipelines on AWS serving 2M users
+            • Helped the team with code reviews
+            EDUCATION
+            BSc Computer Science, 2018
+            SKILLS
+            Java, PostgreSQL, Docker, React.js
+            """;
+
+    private final LocalAtsScoringEngine engine = new LocalAtsScoringEngine(new ResumeSegmenter());
+
+    @Test
+    void score_MatchesSkillsAgainstJobDescription() {
+        AnalysisResult result = engine.score(RESUME, "We need Java, Kubernetes, React and PostgreSQL experience.");
+
+        assertEquals("Spring Boot, Microservices, CI/CD, AWS, Code Review, Java, PostgreSQL, Docker, React",
+                result.getFoundKeywords());
+        assertEquals("Kubernetes", result.getMissingKeywords());
+        assertFalse(result.isPartialAnalysis());
+    }
+
+    @Test
+    void score_DetectsMetricsAndWeakOpeners() {
+        AnalysisResult result = engine.score(RESUME, "");
+
+        // Two of three bullets are quantified; the year in EDUCATION is not a bullet
+        assertEquals(100, result.getImpactScore());
+        assertEquals(67, result.getActionVerbScore());
+        assertTrue(result.getWeaknesses().contains("'helped'"));
+        assertEquals(100, result.getBrevityScore());
+    }
+
+    @Test
+    void score_RecognisesSectionHeadingsTheSegmenterKnows() {
+        String renamed = RESUME.replace("EXPERIENCE", "Work History:")
+                .replace("EDUCATION", "Academic Background")
+                .replace("SKILLS", "Tools & Technologies");
+
+        assertEquals(engine.score(RESUME, "").getAtsScore(), engine.score(renamed, "").getAtsScore());
+    }
+
+    @Test
+    void tokenize_KeepsSymbolsInsideSkillNames() {
+        assertEquals(List.of("c++", "ci/cd", "node.js", ".net", "c#"),
+                LocalAtsScoringEngine.tokenize("C++, CI/CD; Node.js. .NET (C#)"));
+        assertFalse(LocalAtsScoringEngine.hasMetric("Since 2019"));
+        assertTrue(LocalAtsScoringEngine.hasMetric("Saved $3k"));
+    }
+}
@@ -0,0 +1,143 @@
+package com.airesume.service;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NativePdfRendererTest {
+
+    private final NativePdfRenderer renderer = new NativePdfRenderer("");
+
+    private static Context context(String text, boolean isPro) {
+        Context context = new Context();
+        context.setVariable("resumeName", "Sample");
+        context.setVariable("extractedText", text);
+        context.setVariable("isPro", isPro);
+        return context;
+    }
+
+    private static SpringTemplateEngine templateEngine() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+        return templateEngine;
+    }
+
+    private static String text(byte[] pdf) throws IOException {
+        try (PDDocument document = Loader.loadPDF(pdf)) {
+            return new PDFTextStripper().getText(document);
+        }
+    }
+
+    private byte[] render(String template, Context context) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PDDocument document = renderer.layout(template, context)) {
+            document.save(out);
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    void layout_EveryTemplate_ContainsResumeAndWatermarkUnlessPro() throws Exception {
+        for (String template : PdfGeneratorService.TEMPLATE_FILES) {
+            String free = text(render(template, context("Led the ledger migration\nKotlin, Kafka", false)));
+            String pro = text(render(template, context("Led the ledger migration\nKotlin, Kafka", true)));
+
+            assertTrue(free.contains("Led the ledger migration"), template);
+            assertTrue(free.contains("Kotlin, Kafka"), template);
+            assertTrue(free.contains("student@example.com"), template);
+            // The watermark is rotated, so text extraction breaks it into pieces
+            assertTrue(free.replaceAll("\\R", "").contains("Created with ElevateAI"), template);
+            assertTrue(pro.contains("Led the ledger migration"), template);
+            assertFalse(pro.replaceAll("\\R", "").contains("Created with ElevateAI"), template);
+        }
+    }
+
+    @Test
+    void layout_LongResume_WrapsAndContinuesOnNewPages() throws Exception {
+        String bullet = "• Reduced cloud spend by right-sizing fleets and moving nightly batch jobs to serverless";
+        String text = (bullet + "\n").repeat(80) + "Final line";
+
+        try (PDDocument document = Loader.loadPDF(render(NativePdfRenderer.MODERN, context(text, true)))) {
+            assertTrue(document.getNumberOfPages() > 2);
+            PDFTextStripper stripper = new PDFTextStripper();
+            stripper.setStartPage(document.getNumberOfPages());
+            assertTrue(stripper.getText(document).contains("Final line"));
+        }
+    }
+
+    @Test
+    void layout_UnencodableCharacters_AreReplaced() throws Exception {
+        String extracted = text(render(NativePdfRenderer.BASIC, context("Shipped 🚀 on time\u0007", true)));
+
+        assertTrue(extracted.contains("Shipped ? on time?"));
+    }
+
+    @Test
+    void generatePdfFromHtml_NativeTemplate_UsesNativeLayout() throws Exception {
+        List<String> laidOut = new ArrayList<>();
+        NativePdfRenderer recording = new NativePdfRenderer("") {
+            @Override
+            public PDDocument layout(String templateFile, Context context) throws IOException {
+                laidOut.add(templateFile);
+                return super.layout(templateFile, context);
+            }
+        };
+        PdfGeneratorService service = new PdfGeneratorService(templateEngine(), recording, "", 1,
+                NativePdfRenderer.EXECUTIVE);
+
+        byte[] executive = service.generatePdfFromHtml(NativePdfRenderer.EXECUTIVE, context("Native resume", true));
+        byte[] modern = service.generatePdfFromHtml(NativePdfRenderer.MODERN, context("HTML resume", true));
+
+        assertEquals(List.of(NativePdfRenderer.EXECUTIVE), laidOut);
+        assertTrue(text(executive).contains("Native resume"));
+        assertTrue(text(modern).contains("HTML resume"));
+    }
+
+    @Test
+    void generatePdfFromHtml_NativeLayoutFails_FallsBackToHtml() throws Exception {
+        NativePdfRenderer failing = new NativePdfRenderer("") {
+            @Override
+            public PDDocument layout(String templateFile, Context context) throws IOException {
+                throw new IOException("broken font");
+            }
+        };
+        PdfGeneratorService service = new PdfGeneratorService(templateEngine(), failing, "", 1,
+                NativePdfRenderer.BASIC);
+
+        assertTrue(text(service.generatePdfFromHtml(NativePdfRenderer.BASIC, context("Still rendered", true)))
+                .contains("Still rendered"));
+    }
+
+    @Test
+    void generatePdfFromHtml_NativeTemplate_PrintsNameAndTextUnescaped() throws Exception {
+        PdfGeneratorService service = new PdfGeneratorService(templateEngine(), renderer, "", 1,
+                NativePdfRenderer.BASIC);
+
+        String extracted = text(service.generatePdfFromHtml(NativePdfRenderer.BASIC,
+                PdfGeneratorService.exportContext("AT&T", "Led R&D for <edge> \"5G\" rollout", "Helvetica", true)));
+
+        assertTrue(extracted.contains("AT&T"));
+        assertTrue(extracted.contains("Led R&D for <edge> \"5G\" rollout"));
+        assertFalse(extracted.contains("&amp;"));
+    }
+
+    @Test
+    void pdfGeneratorService_UnknownNativeTemplate_IsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new PdfGeneratorService(null, renderer, "", 1, "resume-template, resume-template-fancy"));
+    }
+}
@@ -0,0 +1,85 @@
+package com.airesume.service;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import org.xhtmlrenderer.pdf.ITextRenderer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PdfGeneratorServiceTest {
+
+    private static SpringTemplateEngine templateEngine() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+        return templateEngine;
+    }
+
+    private static Context context(String text, boolean isPro) {
+        Context context = new Context();
+        context.setVariable("resumeName", "Sample");
+        context.setVariable("extractedText", text);
+        context.setVariable("fontFamily", "Helvetica");
+        context.setVariable("isPro", isPro);
+        return context;
+    }
+
+    private static String text(byte[] pdf) throws IOException {
+        try (PDDocument document = Loader.loadPDF(pdf)) {
+            return new PDFTextStripper().getText(document);
+        }
+    }
+
+    @Test
+    void generatePdfFromHtml_ReusedRendererMatchesFreshRender() throws Exception {
+        PdfGeneratorService pooled = new PdfGeneratorService(templateEngine(), "", 1);
+
+        byte[] first = pooled.generatePdfFromHtml("resume-template-executive", context("First resume\nKotlin", false));
+        byte[] reused = pooled.generatePdfFromHtml("resume-template-modern", context("Second resume\nGo", true));
+        byte[] fresh = new PdfGeneratorService(templateEngine(), "", 1)
+                .generatePdfFromHtml("resume-template-modern", context("Second resume\nGo", true));
+
+        assertTrue(text(first).contains("Created with ElevateAI"));
+        String reusedText = text(reused);
+        assertEquals(text(fresh), reusedText);
+        assertTrue(reusedText.contains("Second resume"));
+        assertFalse(reusedText.contains("First resume"));
+        assertFalse(reusedText.contains("Created with ElevateAI"));
+    }
+
+    @Test
+    void generatePdfFromHtml_MatchesFlyingSaucerOwnParsing() throws Exception {
+        SpringTemplateEngine templateEngine = templateEngine();
+        PdfGeneratorService service = new PdfGeneratorService(templateEngine, "", 1);
+
+        for (String template : PdfGeneratorService.TEMPLATE_FILES) {
+            Context context = context("Engineer & Lead <Platform>\n- Built APIs", false);
+            ITextRenderer renderer = new ITextRenderer();
+            renderer.setDocumentFromString(templateEngine.process(template, context));
+            renderer.layout();
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            renderer.createPDF(expected);
+
+            assertEquals(text(expected.toByteArray()), text(service.generatePdfFromHtml(template, context)),
+                    template);
+        }
+    }
+
+    @Test
+    void generatePdfFromHtml_RejectsMissingFontsDirectory() {
+        PdfGeneratorService service = new PdfGeneratorService(templateEngine(), "/nonexistent/fonts", 1);
+
+        assertThrows(IOException.class,
+                () -> service.generatePdfFromHtml("resume-template", context("Resume", false)));
+    }
+}
@@ -0,0 +1,68 @@
+package com.airesume.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PdfParseExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PdfParserService parser = mock(PdfParserService.class);
+    private final CountDownLatch parseCancelled = new CountDownLatch(1);
+
+    private PdfParseExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void extractPages_SlowParse_IsCancelledAfterTimeout() throws Exception {
+        executor = new PdfParseExecutor(parser, meterRegistry, 1, 1, 50);
+        when(parser.extractPages(any(Path.class))).thenAnswer(invocation -> stall());
+
+        assertThrows(IllegalArgumentException.class, () -> executor.extractPages(Path.of("slow.pdf")));
+
+        assertTrue(parseCancelled.await(1, TimeUnit.SECONDS));
+        assertEquals(1.0, meterRegistry.get("pdf.parse.timeouts").counter().count());
+    }
+
+    @Test
+    void extractPages_QueueFull_ThrowsOverloaded() throws Exception {
+        executor = new PdfParseExecutor(parser, meterRegistry, 1, 1, 1000);
+        when(parser.extractPages(any(Path.class))).thenAnswer(invocation -> stall());
+
+        // Occupy the only worker and the only queue slot from other callers
+        Thread first = new Thread(() -> assertThrows(Exception.class, () -> executor.extractPages(Path.of("a.pdf"))));
+        Thread second = new Thread(() -> assertThrows(Exception.class, () -> executor.extractPages(Path.of("b.pdf"))));
+        first.start();
+        Thread.sleep(50);
+        second.start();
+        Thread.sleep(50);
+
+        assertThrows(ServiceOverloadedException.class, () -> executor.extractPages(Path.of("c.pdf")));
+        assertEquals(1.0, meterRegistry.get("pdf.parse.rejected").counter().count());
+        first.join();
+        second.join();
+    }
+
+    private List<String> stall() {
+        try {
+            Thread.sleep(5000);
+        } catch (InterruptedException e) {
+            parseCancelled.countDown();
+        }
+        return List.of();
+    }
+}
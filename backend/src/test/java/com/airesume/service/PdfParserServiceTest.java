@@ -1,10 +1,22 @@
 package com.airesume.service;
 
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -32,4 +44,80 @@ class PdfParserServiceTest {
             pdfParserService.extractTextFromPdf(invalidFile);
         });
     }
+
+    @Test
+    void extractPages_ValidPdf_ReturnsPageTextAndRemovesSpoolFile(@TempDir Path spoolDir) throws IOException {
+        PdfParserService parser = new PdfParserService(1024, spoolDir.toString(), false, 0, 1, 1, 50, 50000);
+        MultipartFile pdf = new MockMultipartFile("file", "resume.pdf", "application/pdf",
+                createPdf("Page one", "Page two"));
+
+        List<String> pages = parser.extractPages(pdf);
+
+        assertEquals(2, pages.size());
+        assertEquals("Page one", pages.get(0).strip());
+        assertEquals("Page two", pages.get(1).strip());
+        assertEquals(String.join("", pages), pdfParserService.extractTextFromPdf(pdf));
+        try (var spooled = Files.list(spoolDir)) {
+            assertEquals(0, spooled.count());
+        }
+    }
+
+    @Test
+    void extractPages_ParallelRanges_MatchSerialExtraction(@TempDir Path dir) throws IOException {
+        String[] texts = new String[10];
+        for (int i = 0; i < texts.length; i++) {
+            texts[i] = "Experience section page " + (i + 1);
+        }
+        Path pdf = Files.write(dir.resolve("long.pdf"), createPdf(texts));
+        PdfParserService parallel = new PdfParserService(1024, "", false, 2, 3, 3, 50, 50000);
+
+        List<String> pages = parallel.extractPages(pdf);
+
+        assertEquals(pdfParserService.extractPages(pdf), pages);
+        assertEquals(10, pages.size());
+        assertEquals("Experience section page 10", pages.get(9).strip());
+        parallel.shutdown();
+    }
+
+    @Test
+    void extractPages_OverPageLimit_ThrowsException(@TempDir Path dir) throws IOException {
+        Path pdf = Files.write(dir.resolve("long.pdf"), createPdf("One", "Two", "Three"));
+        PdfParserService limited = new PdfParserService(1024, "", false, 0, 1, 1, 2, 50000);
+
+        assertThrows(IllegalArgumentException.class, () -> limited.extractPages(pdf));
+        limited.shutdown();
+    }
+
+    @Test
+    void spool_HashesUploadedBytesAndDeletesFileOnClose() throws Exception {
+        byte[] bytes = createPdf("Page one");
+        MultipartFile pdf = new MockMultipartFile("file", "resume.pdf", "application/pdf", bytes);
+
+        Path spooledPath;
+        try (PdfParserService.SpooledUpload upload = pdfParserService.spool(pdf)) {
+            spooledPath = upload.path();
+            String expected = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+            assertEquals(expected, upload.sha256());
+            assertArrayEquals(bytes, Files.readAllBytes(spooledPath));
+        }
+        assertFalse(Files.exists(spooledPath));
+    }
+
+    private static byte[] createPdf(String... pageTexts) throws IOException {
+        try (PDDocument document = new PDDocument(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            for (String text : pageTexts) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 12);
+                    content.newLineAtOffset(72, 700);
+                    content.showText(text);
+                    content.endText();
+                }
+            }
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
 }
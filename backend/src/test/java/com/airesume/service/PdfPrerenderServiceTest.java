@@ -0,0 +1,122 @@
+package com.airesume.service;
+
+import com.airesume.entity.Resume;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PdfPrerenderServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private RenderedPdfCache cache;
+    private RenderExecutor renderExecutor;
+    private ResumeRenderPipeline renderPipeline;
+    private PdfPrerenderService prerenderService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+
+        cache = new RenderedPdfCache(meterRegistry, 16 * 1024 * 1024, "", 0);
+        renderExecutor = new RenderExecutor(meterRegistry, 1, 1, 5000);
+        renderPipeline = new ResumeRenderPipeline(templateEngine, new PdfGeneratorService(templateEngine), cache,
+                meterRegistry, 1024 * 1024);
+        prerenderService = new PdfPrerenderService(renderPipeline, cache, renderExecutor, meterRegistry, true, 10,
+                5000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        prerenderService.shutdown();
+        renderExecutor.shutdown();
+    }
+
+    private static Resume resume(long id, String text) {
+        Resume resume = new Resume();
+        resume.setId(id);
+        resume.setFileName("cv.pdf");
+        resume.setExtractedText(text);
+        return resume;
+    }
+
+    private String key(Resume resume, String templateFile, boolean isPro) {
+        return cache.keyFor(resume.getId(), "cv", resume.getExtractedText(), templateFile,
+                PdfGeneratorService.DEFAULT_FONT, isPro);
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.get("pdf.prerender").tag("outcome", outcome).counter().count();
+    }
+
+    private void awaitCount(String outcome, double expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 20_000;
+        while (count(outcome) < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(expected, count(outcome), outcome);
+    }
+
+    @Test
+    void schedule_CachesEveryTemplateUnderTheExportKey() throws Exception {
+        Resume resume = resume(7, "Java developer\nKafka, Spring");
+
+        prerenderService.schedule(resume, false);
+
+        awaitCount("rendered", 3);
+        for (String templateFile : PdfGeneratorService.TEMPLATE_FILES) {
+            assertTrue(cache.contains(key(resume, templateFile, false)), templateFile);
+            assertFalse(cache.contains(key(resume, templateFile, true)), templateFile);
+            // The preview HTML for the default font is warm too
+            assertTrue(renderPipeline.cachedHtml(renderPipeline.version(7, "cv", resume.getExtractedText(),
+                    templateFile, PdfGeneratorService.DEFAULT_FONT, false)).isPresent(), templateFile);
+        }
+
+        // Already cached the second time round
+        prerenderService.schedule(resume, false);
+        awaitCount("cached", 3);
+        assertEquals(3, count("rendered"));
+    }
+
+    @Test
+    void schedule_WaitsForForegroundRendersAndReschedulingCancelsTheOlderOne() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        Thread foreground = new Thread(() -> assertDoesNotThrow(() -> renderExecutor.call("pdf", () -> {
+            started.countDown();
+            return release.await(5, TimeUnit.SECONDS);
+        })));
+        foreground.start();
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+
+        Resume original = resume(8, "Go developer");
+        prerenderService.schedule(original, true);
+        Thread.sleep(200);
+        assertFalse(cache.contains(key(original, "resume-template", true)));
+
+        // The deferred pre-render does not hold the thread, so the edited resume is picked up while still waiting
+        Resume edited = resume(8, "Go and Rust developer");
+        prerenderService.schedule(edited, true);
+        awaitCount("cancelled", 1);
+
+        release.countDown();
+        foreground.join();
+
+        awaitCount("rendered", 3);
+        assertTrue(cache.contains(key(edited, "resume-template", true)));
+        assertFalse(cache.contains(key(original, "resume-template", true)));
+    }
+}
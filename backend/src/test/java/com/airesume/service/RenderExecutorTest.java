@@ -0,0 +1,149 @@
+package com.airesume.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RenderExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private RenderExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void call_ReturnsResultAndRecordsDuration() throws Exception {
+        executor = new RenderExecutor(meterRegistry, 1, 1, 1000);
+
+        assertEquals("<html/>", executor.call("html", () -> "<html/>"));
+        assertEquals(1, meterRegistry.get("pdf.render.duration").tag("kind", "html").tag("outcome", "success")
+                .timer().count());
+    }
+
+    @Test
+    void call_QueueFull_ThrowsOverloaded() throws Exception {
+        executor = new RenderExecutor(meterRegistry, 1, 1, 5000);
+        CountDownLatch started = new CountDownLatch(1);
+
+        // Occupy the only worker and the only queue slot from other callers
+        Thread first = new Thread(() -> assertThrows(Exception.class, () -> executor.call("pdf", () -> {
+            started.countDown();
+            return block();
+        })));
+        first.start();
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        Thread second = new Thread(() -> assertDoesNotThrow(() -> executor.call("pdf", () -> "queued")));
+        second.start();
+        Thread.sleep(50);
+
+        assertThrows(ServiceOverloadedException.class, () -> executor.call("pdf", () -> "rejected"));
+        assertEquals(1.0, meterRegistry.get("pdf.render.rejected").tag("reason", "queue-full").counter().count());
+        release.countDown();
+        first.join();
+        second.join();
+    }
+
+    @Test
+    void call_StillQueuedAfterTimeout_ThrowsOverloadedAndNeverRuns() throws Exception {
+        executor = new RenderExecutor(meterRegistry, 1, 1, 50);
+        CountDownLatch started = new CountDownLatch(1);
+        Thread first = new Thread(() -> assertThrows(Exception.class, () -> executor.call("pdf", () -> {
+            started.countDown();
+            return block();
+        })));
+        first.start();
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+
+        AtomicBoolean ran = new AtomicBoolean();
+        assertThrows(ServiceOverloadedException.class, () -> executor.call("pdf", () -> ran.getAndSet(true)));
+        release.countDown();
+        first.join();
+
+        assertEquals("next", executor.call("pdf", () -> "next"));
+        assertFalse(ran.get());
+        assertEquals(1.0, meterRegistry.get("pdf.render.rejected").tag("reason", "queue-timeout").counter().count());
+    }
+
+    @Test
+    void call_RunningPastQueueTimeout_IsAwaited() throws Exception {
+        executor = new RenderExecutor(meterRegistry, 1, 1, 20);
+
+        assertEquals("slow", executor.call("pdf", () -> {
+            Thread.sleep(100);
+            return "slow";
+        }));
+    }
+
+    @Test
+    void callIfIdle_RunsOnlyWhileNoOtherRenderIsRunning() throws Exception {
+        executor = new RenderExecutor(meterRegistry, 2, 1, 1000);
+        assertEquals(Optional.of("warm"), executor.callIfIdle("prerender", () -> "warm"));
+
+        CountDownLatch started = new CountDownLatch(1);
+        Thread foreground = new Thread(() -> assertDoesNotThrow(() -> executor.call("pdf", () -> {
+            started.countDown();
+            return release.await(5, TimeUnit.SECONDS);
+        })));
+        foreground.start();
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+
+        AtomicBoolean ran = new AtomicBoolean();
+        // A thread is free, but a request is rendering
+        assertTrue(executor.callIfIdle("prerender", () -> ran.getAndSet(true)).isEmpty());
+        assertFalse(ran.get());
+
+        release.countDown();
+        foreground.join();
+        assertEquals(Optional.of("warm"), executor.callIfIdle("prerender", () -> "warm"));
+    }
+
+    @Test
+    void callIfIdle_OneBackgroundRenderAtATime() throws Exception {
+        executor = new RenderExecutor(meterRegistry, 2, 1, 1000);
+        CountDownLatch started = new CountDownLatch(1);
+        Thread background = new Thread(() -> assertDoesNotThrow(() -> executor.callIfIdle("prerender", () -> {
+            started.countDown();
+            return release.await(5, TimeUnit.SECONDS);
+        })));
+        background.start();
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+
+        assertTrue(executor.callIfIdle("prerender", () -> "second").isEmpty());
+        // Requests still get the free thread
+        assertEquals("pdf", executor.call("pdf", () -> "pdf"));
+
+        release.countDown();
+        background.join();
+    }
+
+    @Test
+    void call_PropagatesIOException() {
+        executor = new RenderExecutor(meterRegistry, 1, 1, 1000);
+
+        assertThrows(IOException.class, () -> executor.call("pdf", () -> {
+            throw new IOException("broken template");
+        }));
+    }
+
+    private String block() throws InterruptedException {
+        // Fails once released, so the caller occupying the worker ends with an exception
+        if (release.await(5, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("released");
+        }
+        return "timed out";
+    }
+}
@@ -0,0 +1,136 @@
+package com.airesume.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RenderedPdfCacheTest {
+
+    @TempDir
+    Path spillDir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void keyFor_ChangesWithTextTemplateFontAndWatermark() throws Exception {
+        RenderedPdfCache cache = new RenderedPdfCache(meterRegistry, 1024, "", 0);
+        String key = cache.keyFor(1, "cv", "Java developer", "resume-template", "Helvetica", false);
+
+        assertEquals(key, cache.keyFor(1, "cv", "Java developer", "resume-template", "Helvetica", false));
+        assertNotEquals(key, cache.keyFor(1, "cv", "Java developer.", "resume-template", "Helvetica", false));
+        assertNotEquals(key, cache.keyFor(1, "cv", "Java developer", "resume-template-modern", "Helvetica", false));
+        assertNotEquals(key, cache.keyFor(1, "cv", "Java developer", "resume-template", "Georgia", false));
+        assertNotEquals(key, cache.keyFor(1, "cv", "Java developer", "resume-template", "Helvetica", true));
+        assertNotEquals(key, cache.keyFor(2, "cv", "Java developer", "resume-template", "Helvetica", false));
+    }
+
+    @Test
+    void matches_HandlesListsWeakTagsAndWildcard() {
+        String etag = RenderedPdfCache.etag("abc");
+
+        assertTrue(RenderedPdfCache.matches("\"abc\"", etag));
+        assertTrue(RenderedPdfCache.matches("\"other\", W/\"abc\"", etag));
+        assertTrue(RenderedPdfCache.matches("*", etag));
+        assertFalse(RenderedPdfCache.matches("\"abcd\"", etag));
+        assertFalse(RenderedPdfCache.matches(null, etag));
+    }
+
+    @Test
+    void put_EvictsLeastRecentlyUsedBeyondByteLimit() throws Exception {
+        RenderedPdfCache cache = new RenderedPdfCache(meterRegistry, 250, "", 0);
+        cache.put("a", new byte[100]);
+        cache.put("b", new byte[100]);
+        cache.get("a");
+        cache.put("c", new byte[100]);
+
+        assertTrue(cache.get("a").isPresent());
+        assertTrue(cache.get("b").isEmpty());
+        assertTrue(cache.get("c").isPresent());
+        assertEquals(200, cache.memoryBytes());
+    }
+
+    @Test
+    void put_SpillsEvictedEntriesToDisk() throws Exception {
+        RenderedPdfCache cache = new RenderedPdfCache(meterRegistry, 150, spillDir.toString(), 300);
+        byte[] first = { 1, 2, 3 };
+        cache.put("a", first);
+        cache.put("b", new byte[100]);
+        cache.put("c", new byte[100]);
+
+        assertArrayEquals(first, cache.get("a").orElseThrow());
+        assertEquals(1.0, meterRegistry.get("pdf.render.cache.requests").tag("tier", "disk").counter().count());
+
+        // Spilling c and d pushes the disk tier over its limit, so a (spilled first) is dropped
+        cache.put("d", new byte[100]);
+        cache.put("e", new byte[100]);
+        assertTrue(cache.get("a").isEmpty());
+        assertFalse(Files.exists(spillDir.resolve("a.pdf")));
+        assertTrue(cache.get("b").isPresent());
+    }
+
+    @Test
+    void keyFor_ChangesWithRenderEngineAndFonts(@TempDir Path fonts) throws Exception {
+        String html = new RenderedPdfCache(meterRegistry, 1024, "", 0, "", "")
+                .keyFor(1, "cv", "Java developer", "resume-template", "Helvetica", false);
+        String nativeLayout = new RenderedPdfCache(meterRegistry, 1024, "", 0, "resume-template", "")
+                .keyFor(1, "cv", "Java developer", "resume-template", "Helvetica", false);
+        Files.write(fonts.resolve("Inter.ttf"), new byte[] { 1 });
+        String withFonts = new RenderedPdfCache(meterRegistry, 1024, "", 0, "", fonts.toString())
+                .keyFor(1, "cv", "Java developer", "resume-template", "Helvetica", false);
+        Files.write(fonts.resolve("Inter.ttf"), new byte[] { 1, 2 });
+        String changedFont = new RenderedPdfCache(meterRegistry, 1024, "", 0, "", fonts.toString())
+                .keyFor(1, "cv", "Java developer", "resume-template", "Helvetica", false);
+
+        assertNotEquals(html, nativeLayout);
+        assertNotEquals(html, withFonts);
+        assertNotEquals(withFonts, changedFont);
+        assertEquals(nativeLayout, new RenderedPdfCache(meterRegistry, 1024, "", 0, " resume-template ,", "")
+                .keyFor(1, "cv", "Java developer", "resume-template", "Helvetica", false));
+    }
+
+    @Test
+    void capture_PassesBytesThroughAndStoresThemOnceComplete() throws Exception {
+        RenderedPdfCache cache = new RenderedPdfCache(meterRegistry, 1024, "", 0);
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+        RenderedPdfCache.Capture capture = cache.capture("a", response);
+        capture.write(new byte[] { 1, 2, 3 }, 0, 3);
+        capture.write(4);
+        assertTrue(cache.get("a").isEmpty());
+        capture.store();
+
+        assertArrayEquals(new byte[] { 1, 2, 3, 4 }, response.toByteArray());
+        assertArrayEquals(new byte[] { 1, 2, 3, 4 }, cache.get("a").orElseThrow());
+    }
+
+    @Test
+    void capture_DropsCopyOnceLargerThanCacheLimit() throws Exception {
+        RenderedPdfCache cache = new RenderedPdfCache(meterRegistry, 100, "", 0);
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+        RenderedPdfCache.Capture capture = cache.capture("a", response);
+        capture.write(new byte[80], 0, 80);
+        capture.write(new byte[80], 0, 80);
+        capture.store();
+
+        assertEquals(160, response.size());
+        assertTrue(cache.get("a").isEmpty());
+        assertEquals(0, cache.memoryBytes());
+    }
+
+    @Test
+    void constructor_ClearsSpillFilesFromPreviousRun() throws Exception {
+        Files.write(spillDir.resolve("stale.pdf"), new byte[] { 1 });
+
+        RenderedPdfCache cache = new RenderedPdfCache(meterRegistry, 150, spillDir.toString(), 250);
+
+        assertFalse(Files.exists(spillDir.resolve("stale.pdf")));
+        assertTrue(cache.get("stale").isEmpty());
+    }
+}
@@ -0,0 +1,103 @@
+package com.airesume.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResumeRenderPipelineTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ResumeRenderPipeline pipeline(long maxMemoryBytes) throws Exception {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+        return new ResumeRenderPipeline(templateEngine, new PdfGeneratorService(templateEngine),
+                new RenderedPdfCache(meterRegistry, 1024, "", 0), meterRegistry, maxMemoryBytes);
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("pdf.html.cache.requests").tag("result", result).counter().count();
+    }
+
+    @Test
+    void html_RenderedOncePerVersion() throws Exception {
+        ResumeRenderPipeline pipeline = pipeline(1024 * 1024);
+        ResumeRenderPipeline.Version version = pipeline.version(3, "Jane_Doe", "Kotlin & Go", "resume-template-modern",
+                "Helvetica", false);
+
+        String first = pipeline.html(version);
+        String second = pipeline.html(pipeline.version(3, "Jane_Doe", "Kotlin & Go", "resume-template-modern",
+                "Helvetica", false));
+
+        assertSame(first, second);
+        assertEquals(1, count("miss"));
+        assertEquals(1, count("hit"));
+        assertTrue(first.contains("Jane_Doe"));
+        assertTrue(first.contains("Created with ElevateAI"));
+        assertNotSame(first, pipeline.html(pipeline.version(3, "Jane_Doe", "Kotlin & Go", "resume-template-modern",
+                "Helvetica", true)));
+    }
+
+    @Test
+    void layoutPdf_ConsumesCachedHtml() throws Exception {
+        ResumeRenderPipeline pipeline = pipeline(1024 * 1024);
+        ResumeRenderPipeline.Version version = pipeline.version(4, "cv", "Distributed systems", "resume-template",
+                "Helvetica", true);
+        pipeline.html(version);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        pipeline.layoutPdf(version).writeTo(out);
+
+        assertEquals(1, count("miss"));
+        assertEquals(1, count("hit"));
+        try (PDDocument document = Loader.loadPDF(out.toByteArray())) {
+            assertTrue(new PDFTextStripper().getText(document).contains("Distributed systems"));
+        }
+    }
+
+    @Test
+    void renderPdf_PaintsTheLaidOutPdf() throws Exception {
+        ResumeRenderPipeline pipeline = pipeline(1024 * 1024);
+        ResumeRenderPipeline.Version version = pipeline.version(4, "cv", "Event sourcing", "resume-template",
+                "Helvetica", true);
+
+        try (PDDocument document = Loader.loadPDF(pipeline.renderPdf(version))) {
+            assertTrue(new PDFTextStripper().getText(document).contains("Event sourcing"));
+        }
+    }
+
+    @Test
+    void htmlEtag_DiffersFromPdfEtagOfSameVersion() throws Exception {
+        ResumeRenderPipeline.Version version = pipeline(1024).version(5, "cv", "text", "resume-template",
+                "Helvetica", true);
+
+        assertNotEquals(RenderedPdfCache.etag(version.key()), ResumeRenderPipeline.htmlEtag(version));
+    }
+
+    @Test
+    void html_EvictsLeastRecentlyUsedBeyondByteLimit() throws Exception {
+        ResumeRenderPipeline pipeline = pipeline(1024 * 1024);
+        ResumeRenderPipeline.Version a = pipeline.version(6, "cv", "first", "resume-template", "Helvetica", true);
+        long oneDocument = 2L * pipeline.html(a).length();
+        pipeline = pipeline(oneDocument + oneDocument / 2);
+        ResumeRenderPipeline.Version b = pipeline.version(6, "cv", "second", "resume-template", "Helvetica", true);
+
+        pipeline.html(a);
+        pipeline.html(b);
+
+        assertTrue(pipeline.cachedHtml(a).isEmpty());
+        assertTrue(pipeline.cachedHtml(b).isPresent());
+        assertTrue(pipeline.memoryBytes() <= oneDocument + oneDocument / 2);
+    }
+}
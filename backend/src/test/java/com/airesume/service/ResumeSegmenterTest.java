@@ -0,0 +1,54 @@
+package com.airesume.service;
+
+import com.airesume.entity.ResumeSection;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResumeSegmenterTest {
+
+    private static final String RESUME = """
+            Jane Doe
+            jane@example.com | +1 555 010 0200
+
+            Professional Summary
+            Backend engineer focused on payments.
+
+            EXPERIENCE
+            Senior Engineer, Acme, 2020 - Present
+            • Cut checkout latency by 40% by caching
+              pricing rules in Redis
+            - Led a team of 4 engineers
+            Engineer, Initech, 2017 - 2020
+            • Built the billing API
+
+            Skills & Tools:
+            Java, Spring Boot, PostgreSQL
+            """;
+
+    private final ResumeSegmenter segmenter = new ResumeSegmenter();
+
+    @Test
+    void segment_DetectsSectionsAndJoinsWrappedBullets() {
+        List<ResumeSection> sections = segmenter.segment(RESUME);
+
+        assertEquals(List.of(ResumeSection.Type.CONTACT, ResumeSection.Type.SUMMARY, ResumeSection.Type.EXPERIENCE,
+                ResumeSection.Type.SKILLS), sections.stream().map(ResumeSection::getSectionType).toList());
+        assertNull(sections.get(0).getHeading());
+        assertEquals("Skills & Tools:", sections.get(3).getHeading());
+        assertEquals(List.of("Cut checkout latency by 40% by caching pricing rules in Redis",
+                "Led a team of 4 engineers", "Built the billing API"), ResumeSegmenter.bullets(sections.get(2)));
+        assertEquals(2, sections.get(2).getPosition());
+    }
+
+    @Test
+    void select_ReturnsOnlyRequestedSections_OrFullTextWhenNoneFound() {
+        String selected = segmenter.select(RESUME, EnumSet.of(ResumeSection.Type.SKILLS));
+
+        assertEquals("Skills & Tools:\nJava, Spring Boot, PostgreSQL", selected);
+        assertEquals("just some text", segmenter.select("just some text", EnumSet.of(ResumeSection.Type.SKILLS)));
+    }
+}
@@ -0,0 +1,85 @@
+package com.airesume.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResumeTextCompactorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void compactPages_RemovesRunningLinesPageNumbersAndHyphenation() {
+        ResumeTextCompactor compactor = new ResumeTextCompactor(meterRegistry, new ResumeSegmenter(), 0);
+        List<String> pages = List.of(
+                "Jane Doe   |  jane@example.com\n\nEXPERIENCE\nBuilt a high-perfor-\nmance   billing service\n\n\n\nPage 1 of 2\n",
+                "Jane Doe   |  jane@example.com\nSKILLS\nJava, Spring\n2\n");
+
+        ResumeTextCompactor.Compaction result = compactor.compactPages(pages);
+
+        assertEquals("Jane Doe | jane@example.com\n\nEXPERIENCE\nBuilt a high-performance billing service\n\n"
+                + "SKILLS\nJava, Spring", result.text());
+        assertTrue(result.charsSaved() > 0);
+        assertEquals(result.charsSaved(), meterRegistry.get("resume.compaction.chars.saved")
+                .tag("stage", "upload").summary().totalAmount());
+    }
+
+    @Test
+    void compactPages_KeepsContentLinesRepeatedInPageBodies() {
+        ResumeTextCompactor compactor = new ResumeTextCompactor(meterRegistry, new ResumeSegmenter(), 0);
+        String body = "Role %d\nAcme Corp\n- Tech: Java, Spring\nShipped feature %d\nLed team %d\n";
+        List<String> pages = List.of(
+                "Jane Doe\nResume\n" + body.formatted(1, 1, 1) + "Confidential\n",
+                "Jane Doe\nResume\n" + body.formatted(2, 2, 2) + "Confidential\n",
+                "Jane Doe\nResume\n" + body.formatted(3, 3, 3) + "Confidential\n");
+
+        String text = compactor.compactPages(pages).text();
+
+        assertEquals(3, text.split("- Tech: Java, Spring", -1).length - 1);
+        assertEquals(3, text.split("Acme Corp", -1).length - 1);
+        assertEquals(1, text.split("Jane Doe", -1).length - 1);
+        assertEquals(1, text.split("Confidential", -1).length - 1);
+    }
+
+    @Test
+    void compactForPrompt_KeepsNumbersInTheBody() {
+        ResumeTextCompactor compactor = new ResumeTextCompactor(meterRegistry, new ResumeSegmenter(), 0);
+        String text = "Jane Doe\nBackend engineer\nBerlin\nMETRICS\nServices owned\n10\nTeams led\n3\n"
+                + "SKILLS\nJava\nKafka\nSpring\n2";
+
+        String compacted = compactor.compactForPrompt(text).text();
+
+        assertTrue(compacted.contains("Services owned\n10\nTeams led\n3\n"));
+        // A trailing page number is still dropped
+        assertTrue(compacted.endsWith("Spring"));
+    }
+
+    @Test
+    void compactForPrompt_IdenticalSections_AreBudgetedSeparately() {
+        ResumeTextCompactor compactor = new ResumeTextCompactor(meterRegistry, new ResumeSegmenter(), 25);
+        String education = "EDUCATION\nState University, BSc Computer Science\n";
+        String text = "Jane Doe\n" + education + "SKILLS\nJava, Spring\n" + education;
+
+        String compacted = compactor.compactForPrompt(text).text();
+
+        assertEquals(1, compacted.split("State University", -1).length - 1);
+        assertTrue(compacted.contains("SKILLS\nJava, Spring"));
+        assertTrue(ResumeTextCompactor.estimateTokens(compacted) <= 25);
+    }
+
+    @Test
+    void compactForPrompt_OverBudget_KeepsHigherPrioritySections() {
+        ResumeTextCompactor compactor = new ResumeTextCompactor(meterRegistry, new ResumeSegmenter(), 20);
+        String text = "Jane Doe\nEDUCATION\n" + "State University, BSc Computer Science\n".repeat(4)
+                + "SKILLS\nJava, Spring, PostgreSQL";
+
+        String compacted = compactor.compactForPrompt(text).text();
+
+        assertTrue(compacted.startsWith("Jane Doe"));
+        assertTrue(compacted.endsWith("SKILLS\nJava, Spring, PostgreSQL"));
+        assertTrue(ResumeTextCompactor.estimateTokens(compacted) <= 20);
+    }
+}
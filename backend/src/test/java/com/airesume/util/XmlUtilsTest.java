@@ -0,0 +1,21 @@
+package com.airesume.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class XmlUtilsTest {
+
+    @Test
+    void escapeXml_EscapesSpecialCharacters() {
+        assertEquals("R&amp;D &lt;b&gt; &quot;lead&quot; &apos;22", XmlUtils.escapeXml("R&D <b> \"lead\" '22"));
+    }
+
+    @Test
+    void escapeXml_PlainTextIsReturnedAsIs() {
+        String plain = "Senior Software Engineer";
+
+        assertSame(plain, XmlUtils.escapeXml(plain));
+        assertEquals("", XmlUtils.escapeXml(null));
+    }
+}